@@ -0,0 +1,29 @@
+package io.mckenz.timevoting.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks like JMH's own launcher, except that results are written as JSON to
+ * target/jmh-result.json unless a result format is given, so every run leaves a file that
+ * can be compared with the runs of other versions.
+ */
+public final class BenchmarkMain {
+    private static final Path DEFAULT_RESULT = Path.of("target", "jmh-result.json");
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf") && !arguments.contains("-rff")) {
+            Files.createDirectories(DEFAULT_RESULT.getParent());
+            arguments.addAll(List.of("-rf", "json", "-rff", DEFAULT_RESULT.toString()));
+        }
+        
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[0]));
+    }
+}
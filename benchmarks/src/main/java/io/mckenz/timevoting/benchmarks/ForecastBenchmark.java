@@ -0,0 +1,64 @@
+package io.mckenz.timevoting.benchmarks;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.headless.HeadlessServer;
+import io.mckenz.timevoting.headless.HeadlessWorld;
+import io.mckenz.timevoting.time.TimeOfDay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting the world time for /timeforecast, over every hour of the day
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForecastBenchmark {
+    private HeadlessServer server;
+    private HeadlessWorld world;
+    private TimeVoting plugin;
+    private long time;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = HeadlessServer.get();
+        server.reset();
+        world = server.createWorld("world");
+        plugin = server.enable(Collections.emptyMap());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Benchmark
+    public String timeOfDay() {
+        // Step through the day an hour and a bit at a time so every phase is hit
+        time = (time + 1037) % 24000;
+        return TimeOfDay.format(time);
+    }
+
+    @Benchmark
+    public String[] cachedForecast() {
+        // The clock only moves on ticks, so repeated calls within a tick hit the cache
+        return plugin.getTimeForecast().getForecast(world.getWorld());
+    }
+}
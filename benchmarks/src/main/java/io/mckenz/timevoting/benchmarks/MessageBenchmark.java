@@ -0,0 +1,74 @@
+package io.mckenz.timevoting.benchmarks;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.headless.HeadlessServer;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.messages.Placeholder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the vote announcement, once the way API users do it with
+ * {@link TimeVoting#getMessageWithPrefix(String)} and string replacement, and once through the
+ * compiled templates the plugin itself uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark {
+    private HeadlessServer server;
+    private TimeVoting plugin;
+    private int votes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = HeadlessServer.get();
+        server.reset();
+        server.createWorld("world");
+        plugin = server.enable(Collections.emptyMap());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Benchmark
+    public String messageWithPrefix() {
+        // Vary one value so the result cannot be folded into a constant
+        int count = votes++ & 63;
+        return plugin.getMessageWithPrefix("vote-announcement")
+                .replace("%player%", "Notch")
+                .replace("%time%", "night")
+                .replace("%votes%", String.valueOf(count))
+                .replace("%required%", "64");
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        int count = votes++ & 63;
+        return plugin.getMessages().prefixed(Message.VOTE_ANNOUNCEMENT,
+                Placeholder.PLAYER, "Notch",
+                Placeholder.TIME, "night",
+                Placeholder.VOTES, count,
+                Placeholder.REQUIRED, 64);
+    }
+}
@@ -0,0 +1,79 @@
+package io.mckenz.timevoting.benchmarks;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.headless.HeadlessServer;
+
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tab completion of /votetime and /timevoting, which runs on every key press while a player
+ * types the command
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabCompleteBenchmark {
+    @Param({"", "n", "sun"})
+    public String prefix;
+
+    private HeadlessServer server;
+    private Player player;
+    private PluginCommand voteTime;
+    private PluginCommand timeVoting;
+    private String[] args;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = HeadlessServer.get();
+        server.reset();
+        TimeVoting plugin = server.enable(Collections.emptyMap());
+        player = server.join(server.createWorld("world")).getPlayer();
+        
+        voteTime = plugin.getCommand("votetime");
+        timeVoting = plugin.getCommand("timevoting");
+        args = new String[] {prefix};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Benchmark
+    public List<String> voteTime() {
+        return complete(voteTime);
+    }
+
+    @Benchmark
+    public List<String> timeVoting() {
+        return complete(timeVoting);
+    }
+
+    private List<String> complete(PluginCommand command) {
+        TabCompleter completer = command.getTabCompleter();
+        return completer.onTabComplete(player, command, command.getLabel(), args);
+    }
+}
@@ -0,0 +1,98 @@
+package io.mckenz.timevoting.benchmarks;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.headless.HeadlessPlayer;
+import io.mckenz.timevoting.headless.HeadlessServer;
+import io.mckenz.timevoting.headless.HeadlessWorld;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteSession;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registering votes and checking the threshold with a growing number of voters.
+ * <p>
+ * Every player starts with a vote and votes are split evenly between day and night, so the
+ * 100% threshold is never reached and each benchmark call sees the same tally size. Each
+ * {@link #registerVote()} call flips one player's vote, which is the most expensive case:
+ * the tally, the journal, the history and the threshold check all do work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VotingBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int voters;
+
+    private HeadlessServer server;
+    private TimeVoting plugin;
+    private VoteSession session;
+    private Player[] players;
+    private boolean[] votedDay;
+    private VoteOption day;
+    private VoteOption night;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = HeadlessServer.get();
+        server.reset();
+        HeadlessWorld world = server.createWorld("world");
+        plugin = server.enable(Map.of(
+                "voting.threshold-percentage", 100,
+                "voting.minimum-players", 1));
+        
+        session = plugin.getSession(world.getWorld());
+        day = plugin.getVoteOptions().get("day");
+        night = plugin.getVoteOptions().get("night");
+        
+        players = new Player[voters];
+        votedDay = new boolean[voters];
+        for (int i = 0; i < voters; i++) {
+            HeadlessPlayer player = server.join(world);
+            players[i] = player.getPlayer();
+            votedDay[i] = i % 2 == 0;
+            plugin.registerVote(players[i], votedDay[i] ? day : night);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Benchmark
+    public boolean registerVote() {
+        int index = next;
+        next = index + 1 == voters ? 0 : index + 1;
+        
+        // Swap a day and a night voter in turn so the split stays even
+        votedDay[index] = !votedDay[index];
+        return plugin.registerVote(players[index], votedDay[index] ? day : night);
+    }
+
+    @Benchmark
+    public boolean checkVoteThreshold() {
+        return plugin.checkVoteThreshold(session);
+    }
+}
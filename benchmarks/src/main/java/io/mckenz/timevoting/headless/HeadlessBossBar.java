@@ -0,0 +1,113 @@
+package io.mckenz.timevoting.headless;
+
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.boss.BossBar;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A boss bar that counts the packets its viewers would receive
+ */
+final class HeadlessBossBar {
+    private final HeadlessServer server;
+    private final BossBar bossBar = Stubs.proxy(BossBar.class, this::handle);
+    private final Set<Player> players = new LinkedHashSet<>();
+    private String title;
+    private double progress = 1.0;
+    private BarColor color;
+    private BarStyle style;
+    private boolean visible = true;
+
+    /**
+     * Creates a new headless boss bar
+     * 
+     * @param server The server the bar belongs to
+     * @param title The initial title
+     * @param color The initial color
+     * @param style The initial style
+     */
+    HeadlessBossBar(HeadlessServer server, String title, BarColor color, BarStyle style) {
+        this.server = server;
+        this.title = title;
+        this.color = color;
+        this.style = style;
+    }
+
+    /**
+     * Gets the Bukkit view of this boss bar
+     * 
+     * @return The boss bar
+     */
+    BossBar getBossBar() {
+        return bossBar;
+    }
+
+    private void broadcast() {
+        // Like the real server, every setter sends an update to every viewer
+        if (visible) {
+            server.countPackets(players.size());
+        }
+    }
+
+    private Object handle(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getTitle":
+                return title;
+            case "setTitle":
+                title = (String) args[0];
+                broadcast();
+                return null;
+            case "getProgress":
+                return progress;
+            case "setProgress":
+                progress = (Double) args[0];
+                broadcast();
+                return null;
+            case "getColor":
+                return color;
+            case "setColor":
+                color = (BarColor) args[0];
+                broadcast();
+                return null;
+            case "getStyle":
+                return style;
+            case "setStyle":
+                style = (BarStyle) args[0];
+                broadcast();
+                return null;
+            case "isVisible":
+                return visible;
+            case "setVisible":
+                visible = (Boolean) args[0];
+                server.countPackets(players.size());
+                return null;
+            case "getPlayers":
+                return new ArrayList<>(players);
+            case "addPlayer":
+                if (players.add((Player) args[0]) && visible) {
+                    server.countPackets(1);
+                }
+                return null;
+            case "removePlayer":
+                if (players.remove(args[0]) && visible) {
+                    server.countPackets(1);
+                }
+                return null;
+            case "removeAll":
+                if (visible) {
+                    server.countPackets(players.size());
+                }
+                players.clear();
+                return null;
+            case "toString":
+                return "HeadlessBossBar{" + title + "}";
+            default:
+                return Stubs.UNHANDLED;
+        }
+    }
+}
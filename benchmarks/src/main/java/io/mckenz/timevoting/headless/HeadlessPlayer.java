@@ -0,0 +1,124 @@
+package io.mckenz.timevoting.headless;
+
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Method;
+import java.util.UUID;
+
+/**
+ * A player that holds every permission and counts the messages it is sent
+ */
+public final class HeadlessPlayer {
+    private final HeadlessServer server;
+    private final UUID uniqueId;
+    private final String name;
+    private final Player player = Stubs.proxy(Player.class, this::handle);
+    private HeadlessWorld world;
+    private boolean online = true;
+    private long messages;
+    private String lastMessage;
+
+    /**
+     * Creates a new headless player
+     * 
+     * @param server The server the player is on
+     * @param uniqueId The player's UUID
+     * @param name The player's name
+     * @param world The world the player is in
+     */
+    HeadlessPlayer(HeadlessServer server, UUID uniqueId, String name, HeadlessWorld world) {
+        this.server = server;
+        this.uniqueId = uniqueId;
+        this.name = name;
+        this.world = world;
+    }
+
+    /**
+     * Gets the Bukkit view of this player
+     * 
+     * @return The player
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the world the player is in
+     * 
+     * @return The world
+     */
+    public HeadlessWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Gets the number of chat messages sent to this player
+     * 
+     * @return The number of messages
+     */
+    public long getMessages() {
+        return messages;
+    }
+
+    /**
+     * Gets the last chat message sent to this player
+     * 
+     * @return The message, or null if none was sent
+     */
+    public String getLastMessage() {
+        return lastMessage;
+    }
+
+    void setWorld(HeadlessWorld world) {
+        this.world = world;
+    }
+
+    void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    private void receive(String message) {
+        messages++;
+        lastMessage = message;
+        server.countMessage();
+    }
+
+    private Object handle(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getUniqueId":
+                return uniqueId;
+            case "getName":
+            case "getDisplayName":
+            case "getPlayerListName":
+                return name;
+            case "getWorld":
+                return world.getWorld();
+            case "isOnline":
+            case "isValid":
+                return online;
+            case "isOp":
+            case "hasPermission":
+            case "isPermissionSet":
+                return true;
+            case "getLocale":
+                return "en_us";
+            case "sendMessage":
+            case "sendRawMessage":
+                if (args.length == 1 && args[0] instanceof String message) {
+                    receive(message);
+                } else if (args.length == 1 && args[0] instanceof String[] lines) {
+                    for (String line : lines) {
+                        receive(line);
+                    }
+                }
+                return null;
+            case "sendPluginMessage":
+                server.countPackets(1);
+                return null;
+            case "toString":
+                return "HeadlessPlayer{" + name + "}";
+            default:
+                return Stubs.UNHANDLED;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.mckenz.timevoting.headless;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Method;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Scheduler driven by explicit {@link #tick()} calls instead of a server clock. Synchronous
+ * tasks run on the thread that ticks, in the order they fall due; asynchronous tasks run on a
+ * small background pool. Like Bukkit's, tasks can be scheduled from any thread.
+ */
+public final class HeadlessScheduler {
+    private final BukkitScheduler scheduler = Stubs.proxy(BukkitScheduler.class, this::handle);
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final ConcurrentLinkedQueue<Task> incoming = new ConcurrentLinkedQueue<>();
+    private final ExecutorService async = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Headless-Async");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger nextTaskId = new AtomicInteger(1);
+    private volatile long currentTick;
+    private long sequence;
+
+    /**
+     * A scheduled synchronous task
+     */
+    private final class Task implements Comparable<Task> {
+        private final BukkitTask handle;
+        private final Plugin owner;
+        private final Runnable runnable;
+        private final long period;
+        private final int id = nextTaskId.getAndIncrement();
+        private long dueTick;
+        private long order;
+        private volatile boolean cancelled;
+        
+        private Task(Plugin owner, Runnable runnable, long delay, long period) {
+            this.owner = owner;
+            this.runnable = runnable;
+            this.period = period;
+            this.handle = Stubs.proxy(BukkitTask.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "cancel":
+                        cancelled = true;
+                        return null;
+                    case "isCancelled":
+                        return cancelled;
+                    case "getTaskId":
+                        return id;
+                    case "getOwner":
+                        return this.owner;
+                    case "isSync":
+                        return true;
+                    default:
+                        return Stubs.UNHANDLED;
+                }
+            });
+            // Like Bukkit, a delay below one tick still waits for the next tick
+            this.dueTick = currentTick + Math.max(1L, delay);
+            incoming.add(this);
+        }
+        
+        private void reschedule() {
+            dueTick = currentTick + period;
+            enqueue(this);
+        }
+        
+        @Override
+        public int compareTo(Task other) {
+            int byTick = Long.compare(dueTick, other.dueTick);
+            return byTick != 0 ? byTick : Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * Gets the scheduler to hand out as the server's scheduler
+     * 
+     * @return The scheduler
+     */
+    public BukkitScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Gets the number of ticks run so far
+     * 
+     * @return The current tick
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Gets the number of synchronous tasks waiting to run
+     * 
+     * @return The number of pending tasks
+     */
+    public int getPendingTasks() {
+        return queue.size() + incoming.size();
+    }
+
+    /**
+     * Advances one tick and runs every synchronous task that falls due
+     */
+    public void tick() {
+        currentTick++;
+        
+        Task scheduled;
+        while ((scheduled = incoming.poll()) != null) {
+            enqueue(scheduled);
+        }
+        
+        while (!queue.isEmpty() && queue.peek().dueTick <= currentTick) {
+            Task task = queue.poll();
+            if (task.cancelled) {
+                continue;
+            }
+            
+            task.runnable.run();
+            if (task.period > 0 && !task.cancelled) {
+                task.reschedule();
+            }
+        }
+    }
+
+    /**
+     * Drops all pending synchronous tasks
+     */
+    public void clear() {
+        Task scheduled;
+        while ((scheduled = incoming.poll()) != null) {
+            scheduled.cancelled = true;
+        }
+        for (Task task : queue) {
+            task.cancelled = true;
+        }
+        queue.clear();
+    }
+
+    private void enqueue(Task task) {
+        // Tasks falling due in the same tick run in the order they were scheduled
+        task.order = sequence++;
+        queue.add(task);
+    }
+
+    /**
+     * Waits for running asynchronous tasks to finish
+     * 
+     * @param millis The maximum time to wait, in milliseconds
+     */
+    public void awaitAsync(long millis) {
+        try {
+            async.submit(() -> { }).get(millis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Nothing to wait for beyond best effort
+        }
+    }
+
+    private Object handle(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if (name.equals("cancelTasks") && args.length == 1) {
+            clear();
+            return null;
+        }
+        if (!name.startsWith("runTask") || args.length < 2 || !(args[0] instanceof Plugin)) {
+            return Stubs.UNHANDLED;
+        }
+        
+        Plugin plugin = (Plugin) args[0];
+        long delay = args.length > 2 ? (Long) args[2] : 0L;
+        long period = args.length > 3 ? (Long) args[3] : 0L;
+        
+        Task[] created = new Task[1];
+        Runnable runnable = toRunnable(args[1], created);
+        if (name.contains("Asynchronously")) {
+            async.execute(runnable);
+            return method.getReturnType() == void.class ? null : Stubs.noOp(BukkitTask.class);
+        }
+        
+        created[0] = new Task(plugin, runnable, delay, period);
+        return method.getReturnType() == void.class ? null : created[0].handle;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Runnable toRunnable(Object target, Task[] task) {
+        if (target instanceof Runnable) {
+            return (Runnable) target;
+        }
+        // The Consumer<BukkitTask> overloads receive their own task
+        Consumer<BukkitTask> consumer = (Consumer<BukkitTask>) target;
+        return () -> consumer.accept(task[0] != null ? task[0].handle : Stubs.noOp(BukkitTask.class));
+    }
+}
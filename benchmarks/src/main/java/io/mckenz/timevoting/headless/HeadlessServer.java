@@ -0,0 +1,497 @@
+package io.mckenz.timevoting.headless;
+
+import io.mckenz.timevoting.TimeVoting;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Just enough of a Bukkit server to enable TimeVoting in a plain JVM, so benchmarks and load
+ * tests exercise the real plugin code. Worlds, players and commands are in-memory, time only
+ * moves when {@link #tick()} is called, and chat and time updates are counted as packets.
+ * <p>
+ * Bukkit only accepts one server per JVM, so there is a single instance; {@link #reset()}
+ * returns it to an empty state between runs.
+ */
+public final class HeadlessServer {
+    private static HeadlessServer instance;
+
+    private final Logger logger = Logger.getLogger("HeadlessServer");
+    private final HeadlessScheduler scheduler = new HeadlessScheduler();
+    private final Server server = Stubs.proxy(Server.class, this::handleServer);
+    private final PluginManager pluginManager = Stubs.proxy(PluginManager.class, this::handlePluginManager);
+    private final Map<String, HeadlessWorld> worlds = new LinkedHashMap<>();
+    private final Map<UUID, HeadlessPlayer> players = new LinkedHashMap<>();
+    private final List<Player> onlinePlayers = new ArrayList<>();
+    private final List<RegisteredHandler> handlers = new ArrayList<>();
+    private final Map<String, PluginCommand> commands = new HashMap<>();
+    private HeadlessPlugin plugin;
+    private volatile Thread mainThread;
+    private Path dataFolder;
+    private long packets;
+    private long messages;
+    private int nextPlayer;
+
+    /**
+     * An event handler method of a registered listener
+     */
+    private record RegisteredHandler(Listener listener, Method method, EventHandler annotation) {
+    }
+
+    /**
+     * The plugin, with access to the enabled flag the server normally sets
+     */
+    private static final class HeadlessPlugin extends TimeVoting {
+        @SuppressWarnings("deprecation")
+        private HeadlessPlugin(Server server, PluginDescriptionFile description, File dataFolder) {
+            super(new JavaPluginLoader(server), description, dataFolder, new File(dataFolder, "TimeVoting.jar"));
+        }
+        
+        private void enable(boolean enabled) {
+            // Calls onEnable or onDisable, and commands check the flag before running
+            setEnabled(enabled);
+        }
+    }
+
+    private HeadlessServer() {
+        logger.setLevel(Level.WARNING);
+    }
+
+    /**
+     * Gets the headless server, installing it as the Bukkit server on first use
+     * 
+     * @return The server
+     */
+    public static synchronized HeadlessServer get() {
+        if (instance == null) {
+            instance = new HeadlessServer();
+            Bukkit.setServer(instance.server);
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the Bukkit view of this server
+     * 
+     * @return The server
+     */
+    public Server getServer() {
+        return server;
+    }
+
+    /**
+     * Gets the scheduler
+     * 
+     * @return The scheduler
+     */
+    public HeadlessScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Gets the enabled plugin
+     * 
+     * @return The plugin, or null if it is not enabled
+     */
+    public TimeVoting getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Gets the number of packets sent to players so far: chat messages, plugin messages and
+     * time updates
+     * 
+     * @return The number of packets
+     */
+    public long getPackets() {
+        return packets;
+    }
+
+    /**
+     * Gets the number of chat messages sent to players so far
+     * 
+     * @return The number of messages
+     */
+    public long getMessages() {
+        return messages;
+    }
+
+    /**
+     * Advances the server by one tick. The calling thread becomes the main thread.
+     */
+    public void tick() {
+        mainThread = Thread.currentThread();
+        scheduler.tick();
+    }
+
+    /**
+     * Creates a world
+     * 
+     * @param name The world name
+     * @return The world
+     */
+    public HeadlessWorld createWorld(String name) {
+        return worlds.computeIfAbsent(name, key -> new HeadlessWorld(this, key));
+    }
+
+    /**
+     * Creates a world while the plugin is running and fires the load event, the way a world
+     * manager plugin would
+     * 
+     * @param name The world name
+     * @return The world
+     */
+    public HeadlessWorld loadWorld(String name) {
+        HeadlessWorld world = createWorld(name);
+        callEvent(new WorldLoadEvent(world.getWorld()));
+        return world;
+    }
+
+    /**
+     * Gets the worlds in creation order
+     * 
+     * @return The worlds
+     */
+    public List<HeadlessWorld> getWorlds() {
+        return new ArrayList<>(worlds.values());
+    }
+
+    /**
+     * Connects a new player and fires the join event
+     * 
+     * @param world The world the player spawns in
+     * @return The player
+     */
+    public HeadlessPlayer join(HeadlessWorld world) {
+        int number = nextPlayer++;
+        UUID uniqueId = new UUID(0x5456L, number);
+        HeadlessPlayer player = new HeadlessPlayer(this, uniqueId, "Player" + number, world);
+        
+        players.put(uniqueId, player);
+        onlinePlayers.add(player.getPlayer());
+        world.getPlayers().add(player.getPlayer());
+        callEvent(new PlayerJoinEvent(player.getPlayer(), ""));
+        return player;
+    }
+
+    /**
+     * Fires the quit event and disconnects a player
+     * 
+     * @param player The player
+     */
+    public void quit(HeadlessPlayer player) {
+        callEvent(new PlayerQuitEvent(player.getPlayer(), ""));
+        
+        players.remove(player.getPlayer().getUniqueId());
+        onlinePlayers.remove(player.getPlayer());
+        player.getWorld().getPlayers().remove(player.getPlayer());
+        player.setOnline(false);
+    }
+
+    /**
+     * Runs a command as a player, the way the server would for a typed command
+     * 
+     * @param player The player
+     * @param line The command line without the leading slash
+     * @return Whether the command was found and handled
+     */
+    public boolean dispatch(HeadlessPlayer player, String line) {
+        String[] parts = line.split(" ", -1);
+        PluginCommand command = commands.get(parts[0].toLowerCase(Locale.ENGLISH));
+        if (command == null) {
+            return false;
+        }
+        return command.execute(player.getPlayer(), parts[0], Arrays.copyOfRange(parts, 1, parts.length));
+    }
+
+    /**
+     * Gets tab completions for a partly typed command
+     * 
+     * @param player The player
+     * @param line The command line without the leading slash, ending in the word to complete
+     * @return The completions
+     */
+    public List<String> tabComplete(HeadlessPlayer player, String line) {
+        String[] parts = line.split(" ", -1);
+        PluginCommand command = commands.get(parts[0].toLowerCase(Locale.ENGLISH));
+        if (command == null || parts.length < 2) {
+            return Collections.emptyList();
+        }
+        return command.tabComplete(player.getPlayer(), parts[0], Arrays.copyOfRange(parts, 1, parts.length));
+    }
+
+    /**
+     * Fires an event to the registered listeners in priority order
+     * 
+     * @param event The event
+     */
+    public void callEvent(Event event) {
+        for (RegisteredHandler handler : handlers) {
+            if (!handler.method().getParameterTypes()[0].isInstance(event)) {
+                continue;
+            }
+            if (handler.annotation().ignoreCancelled() && event instanceof Cancellable cancellable && cancellable.isCancelled()) {
+                continue;
+            }
+            
+            try {
+                handler.method().invoke(handler.listener(), event);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                logger.log(Level.SEVERE, "Could not pass " + event.getEventName() + " to " + handler.listener().getClass().getName(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Enables TimeVoting with the bundled config.yml, changed by the given overrides. The
+     * calling thread becomes the main thread.
+     * 
+     * @param overrides Config paths and the values to set them to
+     * @return The enabled plugin
+     * @throws IOException If the data folder cannot be set up
+     */
+    public TimeVoting enable(Map<String, Object> overrides) throws IOException {
+        if (plugin != null) {
+            throw new IllegalStateException("TimeVoting is already enabled");
+        }
+        
+        mainThread = Thread.currentThread();
+        dataFolder = Files.createTempDirectory("timevoting-headless");
+        YamlConfiguration config = loadResource("config.yml");
+        config.set("update-checker.enabled", false);
+        for (Map.Entry<String, Object> override : overrides.entrySet()) {
+            config.set(override.getKey(), override.getValue());
+        }
+        config.save(dataFolder.resolve("config.yml").toFile());
+        
+        PluginDescriptionFile description;
+        try (InputStream in = TimeVoting.class.getResourceAsStream("/plugin.yml")) {
+            description = new PluginDescriptionFile(in);
+        } catch (Exception e) {
+            throw new IOException("Could not read plugin.yml", e);
+        }
+        
+        plugin = new HeadlessPlugin(server, description, dataFolder.toFile());
+        registerCommands(description);
+        plugin.enable(true);
+        return plugin;
+    }
+
+    /**
+     * Disables the plugin and returns the server to an empty state: no worlds, players,
+     * listeners or pending tasks
+     */
+    public void reset() {
+        if (plugin != null) {
+            plugin.enable(false);
+            plugin = null;
+        }
+        scheduler.clear();
+        scheduler.awaitAsync(1000);
+        handlers.clear();
+        commands.clear();
+        players.clear();
+        onlinePlayers.clear();
+        worlds.clear();
+        packets = 0;
+        messages = 0;
+        nextPlayer = 0;
+        deleteDataFolder();
+    }
+
+    void countPackets(int count) {
+        packets += count;
+    }
+
+    void countMessage() {
+        messages++;
+        packets++;
+    }
+
+    private void registerCommands(PluginDescriptionFile description) {
+        for (Map.Entry<String, Map<String, Object>> entry : description.getCommands().entrySet()) {
+            PluginCommand command = newCommand(entry.getKey(), plugin);
+            commands.put(entry.getKey(), command);
+            
+            Object aliases = entry.getValue().get("aliases");
+            if (aliases instanceof List<?> list) {
+                for (Object alias : list) {
+                    commands.put(alias.toString(), command);
+                }
+            }
+        }
+    }
+
+    private static PluginCommand newCommand(String name, Plugin owner) {
+        try {
+            // The constructor is protected; the server normally creates these from plugin.yml
+            Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(name, owner);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create command " + name, e);
+        }
+    }
+
+    private static YamlConfiguration loadResource(String name) throws IOException {
+        try (InputStream in = TimeVoting.class.getResourceAsStream("/" + name)) {
+            if (in == null) {
+                throw new IOException(name + " is missing from the classpath");
+            }
+            return YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void deleteDataFolder() {
+        if (dataFolder == null) {
+            return;
+        }
+        
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not delete " + dataFolder, e);
+        }
+        dataFolder = null;
+    }
+
+    private void registerEvents(Listener listener) {
+        for (Method method : listener.getClass().getMethods()) {
+            EventHandler annotation = method.getAnnotation(EventHandler.class);
+            if (annotation != null && method.getParameterCount() == 1 && Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                method.setAccessible(true);
+                handlers.add(new RegisteredHandler(listener, method, annotation));
+            }
+        }
+        handlers.sort(Comparator.comparingInt(handler -> handler.annotation().priority().getSlot()));
+    }
+
+    private Object handlePluginManager(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "registerEvents":
+                registerEvents((Listener) args[0]);
+                return null;
+            case "callEvent":
+                callEvent((Event) args[0]);
+                return null;
+            case "disablePlugin":
+                logger.warning("TimeVoting asked to be disabled");
+                return null;
+            case "getPlugin":
+                return plugin != null && plugin.getName().equalsIgnoreCase((String) args[0]) ? plugin : null;
+            case "isPluginEnabled":
+                return args[0] == plugin || (plugin != null && plugin.getName().equals(args[0]));
+            default:
+                return Stubs.UNHANDLED;
+        }
+    }
+
+    private Object handleServer(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getName":
+                return "Headless";
+            case "getVersion":
+            case "getBukkitVersion":
+                return "headless";
+            case "getLogger":
+                return logger;
+            case "getScheduler":
+                return scheduler.getScheduler();
+            case "getPluginManager":
+                return pluginManager;
+            case "getOnlinePlayers":
+                return Collections.unmodifiableList(onlinePlayers);
+            case "getMaxPlayers":
+                return Integer.MAX_VALUE;
+            case "getWorlds":
+                List<org.bukkit.World> list = new ArrayList<>(worlds.size());
+                for (HeadlessWorld world : worlds.values()) {
+                    list.add(world.getWorld());
+                }
+                return list;
+            case "getWorld":
+                return findWorld(args[0]);
+            case "getPlayer":
+                return findPlayer(args[0]);
+            case "getPluginCommand":
+                return commands.get(((String) args[0]).toLowerCase(Locale.ENGLISH));
+            case "broadcastMessage":
+                for (HeadlessPlayer player : players.values()) {
+                    player.getPlayer().sendMessage((String) args[0]);
+                }
+                return players.size();
+            case "isPrimaryThread":
+                return Thread.currentThread() == mainThread;
+            case "createBossBar":
+                return new HeadlessBossBar(this, (String) args[0], (BarColor) args[1], (BarStyle) args[2]).getBossBar();
+            default:
+                return Stubs.UNHANDLED;
+        }
+    }
+
+    private org.bukkit.World findWorld(Object key) {
+        for (HeadlessWorld world : worlds.values()) {
+            if (key.equals(world.getName()) || key.equals(world.getWorld().getUID())) {
+                return world.getWorld();
+            }
+        }
+        return null;
+    }
+
+    private Player findPlayer(Object key) {
+        if (key instanceof UUID uniqueId) {
+            HeadlessPlayer player = players.get(uniqueId);
+            return player != null ? player.getPlayer() : null;
+        }
+        for (HeadlessPlayer player : players.values()) {
+            if (player.getPlayer().getName().equalsIgnoreCase(key.toString())) {
+                return player.getPlayer();
+            }
+        }
+        return null;
+    }
+}
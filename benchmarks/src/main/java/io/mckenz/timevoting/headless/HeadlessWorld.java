@@ -0,0 +1,103 @@
+package io.mckenz.timevoting.headless;
+
+import org.bukkit.GameRule;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A world with a clock and a player list, and nothing else
+ */
+public final class HeadlessWorld {
+    private static final long TICKS_PER_DAY = 24000L;
+
+    private final HeadlessServer server;
+    private final String name;
+    private final UUID uid = UUID.randomUUID();
+    private final World world = Stubs.proxy(World.class, this::handle);
+    private final List<Player> players = new ArrayList<>();
+    private long fullTime;
+
+    /**
+     * Creates a new headless world
+     * 
+     * @param server The server the world belongs to
+     * @param name The world name
+     */
+    HeadlessWorld(HeadlessServer server, String name) {
+        this.server = server;
+        this.name = name;
+    }
+
+    /**
+     * Gets the Bukkit view of this world
+     * 
+     * @return The world
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Gets the world name
+     * 
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the players in this world
+     * 
+     * @return The players, live
+     */
+    List<Player> getPlayers() {
+        return players;
+    }
+
+    private void setFullTime(long time) {
+        fullTime = time;
+        // The server sends every player in the world a time update
+        server.countPackets(players.size());
+    }
+
+    private Object handle(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getName":
+                return name;
+            case "getUID":
+                return uid;
+            case "getTime":
+                return Math.floorMod(fullTime, TICKS_PER_DAY);
+            case "getFullTime":
+                return fullTime;
+            case "setTime":
+                setFullTime(fullTime - Math.floorMod(fullTime, TICKS_PER_DAY) + (Long) args[0]);
+                return null;
+            case "setFullTime":
+                setFullTime((Long) args[0]);
+                return null;
+            case "getPlayers":
+                return new ArrayList<>(players);
+            case "getPlayerCount":
+                return players.size();
+            case "getEnvironment":
+                return World.Environment.NORMAL;
+            case "getGameRuleValue":
+                // Boolean rules such as the daylight cycle read as enabled
+                if (args.length == 1 && args[0] instanceof GameRule<?> rule && rule.getType() == Boolean.class) {
+                    return Boolean.TRUE;
+                }
+                return null;
+            case "toString":
+                return "HeadlessWorld{" + name + "}";
+            default:
+                return Stubs.UNHANDLED;
+        }
+    }
+}
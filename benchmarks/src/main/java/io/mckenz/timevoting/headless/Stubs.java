@@ -0,0 +1,146 @@
+package io.mckenz.timevoting.headless;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds stand-ins for Bukkit interfaces. Only the methods the plugin actually uses are
+ * implemented by the headless classes; everything else answers with a harmless default, so
+ * the stubs keep working when the Bukkit API grows.
+ */
+final class Stubs {
+    private static final Map<Class<?>, Object> NO_OPS = new ConcurrentHashMap<>();
+
+    /**
+     * Implements some methods of an interface
+     */
+    @FunctionalInterface
+    interface Handler {
+        /**
+         * Handles a call
+         * 
+         * @param proxy The proxy the method was called on
+         * @param method The method
+         * @param args The arguments, never null
+         * @return The result, or {@link #UNHANDLED} to fall back to the default
+         * @throws Throwable If the call fails
+         */
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+    }
+
+    /**
+     * Marker returned by a {@link Handler} that does not implement a method
+     */
+    static final Object UNHANDLED = new Object();
+
+    private Stubs() {
+    }
+
+    /**
+     * Creates a proxy that forwards to a handler and falls back to defaults
+     * 
+     * @param type The interface to implement
+     * @param handler The handler for the implemented methods
+     * @param <T> The interface type
+     * @return The proxy
+     */
+    static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            Object[] arguments = args != null ? args : new Object[0];
+            switch (method.getName()) {
+                case "equals":
+                    if (arguments.length == 1) {
+                        return proxy == arguments[0];
+                    }
+                    break;
+                case "hashCode":
+                    if (arguments.length == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    break;
+                case "toString":
+                    if (arguments.length == 0) {
+                        Object result = handler.handle(proxy, method, arguments);
+                        return result != UNHANDLED ? result : type.getSimpleName() + "@headless";
+                    }
+                    break;
+                default:
+                    break;
+            }
+            
+            Object result = handler.handle(proxy, method, arguments);
+            return result != UNHANDLED ? result : defaultValue(method.getReturnType());
+        };
+        
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, invocationHandler));
+    }
+
+    /**
+     * Gets a shared proxy that does nothing
+     * 
+     * @param type The interface to implement
+     * @param <T> The interface type
+     * @return The proxy
+     */
+    static <T> T noOp(Class<T> type) {
+        return type.cast(NO_OPS.computeIfAbsent(type, key -> proxy(key, (proxy, method, args) -> UNHANDLED)));
+    }
+
+    /**
+     * Gets the value returned by methods without an implementation
+     * 
+     * @param type The return type
+     * @return Zero, false, an empty collection, a no-op proxy for other interfaces, or null
+     */
+    static Object defaultValue(Class<?> type) {
+        if (type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type.isPrimitive()) {
+            if (type == long.class) {
+                return 0L;
+            }
+            if (type == double.class) {
+                return 0.0;
+            }
+            if (type == float.class) {
+                return 0.0f;
+            }
+            if (type == byte.class) {
+                return (byte) 0;
+            }
+            if (type == short.class) {
+                return (short) 0;
+            }
+            return 0;
+        }
+        if (type == List.class || type == java.util.Collection.class || type == Iterable.class) {
+            return Collections.emptyList();
+        }
+        if (type == Set.class) {
+            return Collections.emptySet();
+        }
+        if (type == Map.class) {
+            return Collections.emptyMap();
+        }
+        if (type == String.class) {
+            return "";
+        }
+        if (type.isInterface()) {
+            return noOp(type);
+        }
+        return null;
+    }
+}
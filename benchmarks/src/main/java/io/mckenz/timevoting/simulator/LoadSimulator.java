@@ -0,0 +1,110 @@
+package io.mckenz.timevoting.simulator;
+
+import io.mckenz.timevoting.headless.HeadlessServer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays load scenarios against the plugin on a headless server and reports per-tick plugin
+ * time, allocations per vote and message and packet counts.
+ * <p>
+ * Usage: {@code LoadSimulator [--players N] [--seed N] [--json FILE] [scenario...]}. Without
+ * scenario names every scenario runs. The exit code is 1 if any scenario failed its checks.
+ */
+public final class LoadSimulator {
+    private static final int DEFAULT_PLAYERS = 2000;
+    private static final long DEFAULT_SEED = 42L;
+    private static final Path DEFAULT_JSON = Path.of("target", "simulator-result.json");
+
+    private LoadSimulator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int players = DEFAULT_PLAYERS;
+        long seed = DEFAULT_SEED;
+        Path json = DEFAULT_JSON;
+        List<Scenario> scenarios = new ArrayList<>();
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--players":
+                    players = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--json":
+                    json = Path.of(args[++i]);
+                    break;
+                default:
+                    Scenario scenario = Scenario.fromName(args[i]);
+                    if (scenario == null) {
+                        System.err.println("Unknown scenario " + args[i] + ". Available:");
+                        for (Scenario available : Scenario.values()) {
+                            System.err.println("  " + available.getName() + " - " + available.getDescription());
+                        }
+                        System.exit(2);
+                    }
+                    scenarios.add(scenario);
+                    break;
+            }
+        }
+        if (scenarios.isEmpty()) {
+            scenarios.addAll(List.of(Scenario.values()));
+        }
+        
+        HeadlessServer server = HeadlessServer.get();
+        List<ScenarioResult> results = new ArrayList<>();
+        
+        System.out.println("Simulating " + players + " players, seed " + seed);
+        System.out.println(ScenarioResult.header());
+        for (Scenario scenario : scenarios) {
+            ScenarioResult result = run(server, scenario, players, seed);
+            results.add(result);
+            System.out.println(result.toRow());
+        }
+        server.reset();
+        
+        writeJson(json, players, seed, results);
+        System.out.println("Results written to " + json);
+        
+        boolean passed = results.stream().allMatch(ScenarioResult::passed);
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static ScenarioResult run(HeadlessServer server, Scenario scenario, int players, long seed) throws IOException {
+        Simulation simulation = new Simulation(server, scenario.getOverrides(), seed);
+        
+        long start = System.nanoTime();
+        String failure = null;
+        try {
+            scenario.run(simulation, players);
+        } catch (RuntimeException e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        
+        return simulation.result(scenario, System.nanoTime() - start, failure);
+    }
+
+    private static void writeJson(Path file, int players, long seed, List<ScenarioResult> results) throws IOException {
+        StringBuilder json = new StringBuilder(256 * (results.size() + 1));
+        json.append("{\"players\":").append(players).append(",\"seed\":").append(seed).append(",\"results\":[");
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            results.get(i).appendJson(json);
+        }
+        json.append("]}\n");
+        
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,314 @@
+package io.mckenz.timevoting.simulator;
+
+import io.mckenz.timevoting.headless.HeadlessPlayer;
+import io.mckenz.timevoting.headless.HeadlessWorld;
+import io.mckenz.timevoting.metrics.Outcome;
+import io.mckenz.timevoting.voting.VoteSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The load scenarios the simulator can replay. Each one sets up its own config, drives the
+ * plugin for a fixed number of ticks and checks that the plugin's state still adds up at the
+ * end.
+ */
+public enum Scenario {
+    /**
+     * Players pour in, then keep leaving and joining while some of them vote
+     */
+    CHURN("churn", "players join, vote and leave continuously", Map.of()) {
+        @Override
+        void run(Simulation simulation, int players) {
+            rampUp(simulation, players);
+            
+            int churn = Math.max(1, players / 100);
+            for (int tick = 0; tick < 1200; tick++) {
+                simulation.tick(() -> {
+                    for (int i = 0; i < churn; i++) {
+                        simulation.quit(simulation.randomPlayer());
+                        HeadlessPlayer joined = simulation.join();
+                        if (simulation.getRandom().nextBoolean()) {
+                            simulation.vote(joined, randomOption(simulation));
+                        }
+                    }
+                });
+            }
+            
+            simulation.checkQuorum();
+        }
+    },
+
+    /**
+     * Everyone votes for night within ten seconds as the sun sets
+     */
+    DUSK_STORM("dusk-storm", "all players vote for night within 200 ticks at dusk", Map.of()) {
+        @Override
+        void run(Simulation simulation, int players) {
+            simulation.getWorld().getWorld().setTime(11800);
+            rampUp(simulation, players);
+            
+            List<HeadlessPlayer> voters = simulation.getOnline();
+            int perTick = Math.max(1, voters.size() / 200);
+            int[] next = {0};
+            while (next[0] < voters.size()) {
+                simulation.tick(() -> {
+                    for (int i = 0; i < perTick && next[0] < voters.size(); i++) {
+                        simulation.vote(voters.get(next[0]++), "night");
+                    }
+                });
+            }
+            simulation.idle(100);
+            
+            if (simulation.getPlugin().getMetrics().getCount(Outcome.TIME_CHANGED) != 1) {
+                throw new IllegalStateException("expected exactly one time change");
+            }
+            simulation.checkQuorum();
+        }
+    },
+
+    /**
+     * Players keep changing their minds, with no vote cooldown and a threshold that is never met
+     */
+    VOTE_FLIPPING("vote-flipping", "5% of players change their vote every tick",
+            Map.of("cooldowns.between-votes", 0, "voting.threshold-percentage", 100)) {
+        @Override
+        void run(Simulation simulation, int players) {
+            rampUp(simulation, players);
+            
+            int perTick = Math.max(1, players / 20);
+            for (int tick = 0; tick < 1200; tick++) {
+                simulation.tick(() -> {
+                    for (int i = 0; i < perTick; i++) {
+                        simulation.vote(simulation.randomPlayer(), randomOption(simulation));
+                    }
+                });
+            }
+            
+            simulation.checkQuorum();
+        }
+    },
+
+    /**
+     * An admin reloads the config every ten seconds while players are voting
+     */
+    RELOAD("reload", "config is reloaded every 200 ticks during voting",
+            Map.of("cooldowns.between-votes", 0, "voting.threshold-percentage", 100)) {
+        @Override
+        void run(Simulation simulation, int players) {
+            rampUp(simulation, players);
+            HeadlessPlayer admin = simulation.getOnline().get(0);
+            
+            int perTick = Math.max(1, players / 50);
+            for (int tick = 1; tick <= 1200; tick++) {
+                boolean reload = tick % 200 == 0;
+                simulation.tick(() -> {
+                    for (int i = 0; i < perTick; i++) {
+                        simulation.vote(simulation.randomPlayer(), randomOption(simulation));
+                    }
+                    if (reload) {
+                        simulation.command(admin, "timevoting reload");
+                    }
+                });
+                
+                // A reload rebuilds the sessions, which must pick up everyone already online
+                if (reload) {
+                    simulation.checkQuorum();
+                }
+            }
+        }
+    },
+
+    /**
+     * Bridges vote from their own threads while the server keeps ticking
+     */
+    CONCURRENT_VOTES("concurrent-votes", "4 threads vote through the API while the main thread ticks",
+            Map.of("voting.threshold-percentage", 100)) {
+        @Override
+        void run(Simulation simulation, int players) {
+            rampUp(simulation, players);
+            
+            List<HeadlessPlayer> voters = List.copyOf(simulation.getOnline());
+            int votesPerThread = players * 5;
+            AtomicReference<RuntimeException> error = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < BRIDGE_THREADS; t++) {
+                // Each thread has its own random source, seeded up front so runs stay reproducible
+                Random random = new Random(simulation.getRandom().nextLong());
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < votesPerThread; i++) {
+                            simulation.submitVote(voters.get(random.nextInt(voters.size())),
+                                    OPTIONS[random.nextInt(OPTIONS.length)]);
+                        }
+                    } catch (RuntimeException e) {
+                        error.compareAndSet(null, e);
+                    }
+                }, "Bridge-" + t);
+                threads.add(thread);
+            }
+            
+            threads.forEach(Thread::start);
+            while (threads.stream().anyMatch(Thread::isAlive)) {
+                simulation.tick(() -> { });
+            }
+            simulation.idle(2);
+            
+            if (error.get() != null) {
+                throw error.get();
+            }
+            if (simulation.getPlugin().getVoteEngine().getPendingChanges() != 0) {
+                throw new IllegalStateException("votes from other threads were never handled");
+            }
+            simulation.checkTally();
+            simulation.checkQuorum();
+        }
+    },
+
+    /**
+     * One vote moves many worlds to night, with a time budget so tight that the change has to
+     * be spread over many ticks
+     */
+    MULTI_WORLD("multi-world", "a vote fast-forwards 16 worlds to night with a 1 microsecond tick budget",
+            Map.of("time-application.tick-budget-micros", 1, "time-application.fast-forward-ticks", 20)) {
+        @Override
+        void run(Simulation simulation, int players) {
+            List<HeadlessWorld> worlds = new ArrayList<>();
+            worlds.add(simulation.getWorld());
+            simulation.tick(() -> {
+                for (int i = 1; i < WORLDS; i++) {
+                    worlds.add(simulation.loadWorld("world_" + i));
+                }
+            });
+            
+            // Each world starts at its own time, so each one has a different distance to cover
+            for (HeadlessWorld world : worlds) {
+                world.getWorld().setTime(simulation.getRandom().nextInt(24000));
+            }
+            
+            while (simulation.getOnline().size() < players) {
+                simulation.tick(() -> {
+                    for (int i = 0; i < 50 && simulation.getOnline().size() < players; i++) {
+                        simulation.join(worlds.get(simulation.getOnline().size() % worlds.size()));
+                    }
+                });
+            }
+            
+            // Vote until the threshold is reached, then let the change run its course
+            List<HeadlessPlayer> voters = List.copyOf(simulation.getOnline());
+            int[] next = {0};
+            while (next[0] < voters.size() && simulation.getPlugin().getMetrics().getCount(Outcome.TIME_CHANGED) == 0) {
+                simulation.tick(() -> {
+                    for (int i = 0; i < 50 && next[0] < voters.size(); i++) {
+                        simulation.vote(voters.get(next[0]++), "night");
+                    }
+                });
+            }
+            
+            VoteSession session = simulation.getPlugin().getSession(simulation.getWorld().getWorld());
+            for (int tick = 0; tick < 2000 && simulation.getPlugin().getTimeApplier().isApplying(session); tick++) {
+                simulation.idle(1);
+            }
+            if (simulation.getPlugin().getTimeApplier().isApplying(session)) {
+                throw new IllegalStateException("time change still running after 2000 ticks");
+            }
+            
+            long target = simulation.getPlugin().getVoteOptions().get("night").getTicks();
+            for (HeadlessWorld world : worlds) {
+                long time = world.getWorld().getTime();
+                if (time != target) {
+                    throw new IllegalStateException(world.getName() + " ended at " + time + " instead of " + target);
+                }
+            }
+            if (simulation.getPlugin().getMetrics().getCount(Outcome.TIME_CHANGED) != 1) {
+                throw new IllegalStateException("expected exactly one time change");
+            }
+            simulation.checkQuorum();
+        }
+    };
+
+    private static final int BRIDGE_THREADS = 4;
+    private static final int WORLDS = 16;
+    private static final String[] OPTIONS = {"day", "night", "sunrise", "sunset"};
+
+    private final String name;
+    private final String description;
+    private final Map<String, Object> overrides;
+
+    Scenario(String name, String description, Map<String, Object> overrides) {
+        this.name = name;
+        this.description = description;
+        this.overrides = overrides;
+    }
+
+    /**
+     * Gets the name used on the command line and in reports
+     * 
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets a one-line description
+     * 
+     * @return The description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the config changes this scenario runs with
+     * 
+     * @return Config paths and their values
+     */
+    public Map<String, Object> getOverrides() {
+        return overrides;
+    }
+
+    /**
+     * Finds a scenario by name
+     * 
+     * @param name The scenario name
+     * @return The scenario, or null if there is none with that name
+     */
+    public static Scenario fromName(String name) {
+        for (Scenario scenario : values()) {
+            if (scenario.name.equalsIgnoreCase(name)) {
+                return scenario;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replays the scenario
+     * 
+     * @param simulation The simulation to drive
+     * @param players The number of players to simulate
+     * @throws IllegalStateException If the plugin's state is wrong afterwards
+     */
+    abstract void run(Simulation simulation, int players);
+
+    /**
+     * Brings players online at 50 per tick, like a server filling up after a restart
+     */
+    private static void rampUp(Simulation simulation, int players) {
+        while (simulation.getOnline().size() < players) {
+            simulation.tick(() -> {
+                for (int i = 0; i < 50 && simulation.getOnline().size() < players; i++) {
+                    simulation.join();
+                }
+            });
+        }
+    }
+
+    private static String randomOption(Simulation simulation) {
+        return OPTIONS[simulation.getRandom().nextInt(OPTIONS.length)];
+    }
+}
@@ -0,0 +1,88 @@
+package io.mckenz.timevoting.simulator;
+
+import java.util.Locale;
+
+/**
+ * What a scenario run measured
+ * 
+ * @param scenario The scenario name
+ * @param ticks The number of ticks simulated
+ * @param tickP50Nanos The median plugin time per tick
+ * @param tickP99Nanos The 99th percentile plugin time per tick
+ * @param tickMaxNanos The longest plugin time in a single tick
+ * @param votes The number of votes, through /votetime or the API
+ * @param bytesPerVote The memory allocated on the main thread per /votetime command
+ * @param voteCommandP99Nanos The 99th percentile /votetime time reported by the plugin's metrics
+ * @param timeChanges The number of time changes
+ * @param messages The number of chat messages sent to players
+ * @param packets The number of packets sent to players, including chat and time updates
+ * @param wallNanos The total run time
+ * @param failure Why the scenario failed, or null if it passed
+ */
+public record ScenarioResult(String scenario, long ticks, long tickP50Nanos, long tickP99Nanos, long tickMaxNanos,
+                             long votes, long bytesPerVote, long voteCommandP99Nanos, long timeChanges,
+                             long messages, long packets, long wallNanos, String failure) {
+
+    /**
+     * Checks whether the scenario passed
+     * 
+     * @return true if the plugin's state was consistent at the end
+     */
+    public boolean passed() {
+        return failure == null;
+    }
+
+    /**
+     * Formats the result as one line of the report table
+     * 
+     * @return The line
+     */
+    public String toRow() {
+        return String.format(Locale.ROOT, "%-14s %6d %9.3f %9.3f %9.3f %8d %8d %9.3f %6d %9d %9d %8.1f  %s",
+                scenario, ticks, millis(tickP50Nanos), millis(tickP99Nanos), millis(tickMaxNanos),
+                votes, bytesPerVote, millis(voteCommandP99Nanos), timeChanges, messages, packets,
+                wallNanos / 1e9, passed() ? "ok" : "FAILED: " + failure);
+    }
+
+    /**
+     * Gets the header matching {@link #toRow()}
+     * 
+     * @return The header line
+     */
+    public static String header() {
+        return String.format(Locale.ROOT, "%-14s %6s %9s %9s %9s %8s %8s %9s %6s %9s %9s %8s  %s",
+                "scenario", "ticks", "p50 ms", "p99 ms", "max ms", "votes", "B/vote", "vote p99", "times",
+                "messages", "packets", "wall s", "result");
+    }
+
+    /**
+     * Appends the result as a JSON object
+     * 
+     * @param json The builder to append to
+     */
+    public void appendJson(StringBuilder json) {
+        json.append("{\"scenario\":\"").append(scenario).append('"')
+                .append(",\"ticks\":").append(ticks)
+                .append(",\"tickP50Nanos\":").append(tickP50Nanos)
+                .append(",\"tickP99Nanos\":").append(tickP99Nanos)
+                .append(",\"tickMaxNanos\":").append(tickMaxNanos)
+                .append(",\"votes\":").append(votes)
+                .append(",\"bytesPerVote\":").append(bytesPerVote)
+                .append(",\"voteCommandP99Nanos\":").append(voteCommandP99Nanos)
+                .append(",\"timeChanges\":").append(timeChanges)
+                .append(",\"messages\":").append(messages)
+                .append(",\"packets\":").append(packets)
+                .append(",\"wallNanos\":").append(wallNanos)
+                .append(",\"failure\":");
+        if (failure == null) {
+            json.append("null");
+        } else {
+            json.append('"').append(failure.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        json.append('}');
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
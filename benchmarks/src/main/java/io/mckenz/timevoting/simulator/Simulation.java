@@ -0,0 +1,283 @@
+package io.mckenz.timevoting.simulator;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.headless.HeadlessPlayer;
+import io.mckenz.timevoting.headless.HeadlessServer;
+import io.mckenz.timevoting.headless.HeadlessWorld;
+import io.mckenz.timevoting.metrics.LatencyHistogram;
+import io.mckenz.timevoting.metrics.Operation;
+import io.mckenz.timevoting.metrics.Outcome;
+import io.mckenz.timevoting.voting.Ballot;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteSession;
+import io.mckenz.timevoting.voting.VoteTally;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One scenario run against the headless server. Scenarios act through this class so that
+ * everything the plugin does on the main thread is timed: each {@link #tick(Runnable)} records
+ * how long the plugin spent in that tick, counting both the scenario's player actions and the
+ * plugin's scheduled tasks.
+ */
+public final class Simulation {
+    private final HeadlessServer server;
+    private final TimeVoting plugin;
+    private final HeadlessWorld world;
+    private final Random random;
+    private final List<HeadlessPlayer> online = new ArrayList<>();
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final LongAdder asyncVotes = new LongAdder();
+    private long tickNanos;
+    private long votes;
+    private long voteBytes;
+
+    /**
+     * Creates a new simulation with a fresh plugin and a single world
+     * 
+     * @param server The headless server, which is reset first
+     * @param overrides Config paths and the values to set them to
+     * @param seed The seed for all random choices, so runs can be repeated
+     * @throws IOException If the plugin cannot be enabled
+     */
+    Simulation(HeadlessServer server, Map<String, Object> overrides, long seed) throws IOException {
+        this.server = server;
+        this.random = new Random(seed);
+        
+        server.reset();
+        this.world = server.createWorld("world");
+        this.plugin = server.enable(overrides);
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Gets the plugin under test
+     * 
+     * @return The plugin
+     */
+    public TimeVoting getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Gets the world players join in
+     * 
+     * @return The world
+     */
+    public HeadlessWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Gets the source of random choices
+     * 
+     * @return The random source
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Gets the players currently online
+     * 
+     * @return The players, live
+     */
+    public List<HeadlessPlayer> getOnline() {
+        return online;
+    }
+
+    /**
+     * Picks a random online player
+     * 
+     * @return The player, or null if nobody is online
+     */
+    public HeadlessPlayer randomPlayer() {
+        return online.isEmpty() ? null : online.get(random.nextInt(online.size()));
+    }
+
+    /**
+     * Runs one server tick: the given player actions, then the plugin's scheduled tasks
+     * 
+     * @param actions The player actions for this tick
+     */
+    public void tick(Runnable actions) {
+        tickNanos = 0;
+        actions.run();
+        
+        long start = System.nanoTime();
+        server.tick();
+        tickNanos += System.nanoTime() - start;
+        tickTimes.record(tickNanos);
+    }
+
+    /**
+     * Runs a number of ticks without player actions
+     * 
+     * @param ticks The number of ticks
+     */
+    public void idle(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick(() -> { });
+        }
+    }
+
+    /**
+     * Loads another world while the plugin is running
+     * 
+     * @param name The world name
+     * @return The world
+     */
+    public HeadlessWorld loadWorld(String name) {
+        long start = System.nanoTime();
+        HeadlessWorld loaded = server.loadWorld(name);
+        tickNanos += System.nanoTime() - start;
+        return loaded;
+    }
+
+    /**
+     * Connects a new player
+     * 
+     * @return The player
+     */
+    public HeadlessPlayer join() {
+        return join(world);
+    }
+
+    /**
+     * Connects a new player in the given world
+     * 
+     * @param world The world the player spawns in
+     * @return The player
+     */
+    public HeadlessPlayer join(HeadlessWorld world) {
+        long start = System.nanoTime();
+        HeadlessPlayer player = server.join(world);
+        tickNanos += System.nanoTime() - start;
+        
+        online.add(player);
+        return player;
+    }
+
+    /**
+     * Disconnects a player
+     * 
+     * @param player The player
+     */
+    public void quit(HeadlessPlayer player) {
+        long start = System.nanoTime();
+        server.quit(player);
+        tickNanos += System.nanoTime() - start;
+        
+        online.remove(player);
+    }
+
+    /**
+     * Votes with /votetime, measuring the memory the vote allocates on the main thread
+     * 
+     * @param player The player
+     * @param option The option to vote for
+     */
+    public void vote(HeadlessPlayer player, String option) {
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        server.dispatch(player, "votetime " + option);
+        tickNanos += System.nanoTime() - start;
+        voteBytes += threads.getCurrentThreadAllocatedBytes() - bytes;
+        votes++;
+    }
+
+    /**
+     * Votes through the plugin's API, the way a chat bridge or web panel would. Can be called
+     * from any thread.
+     * 
+     * @param player The player
+     * @param option The option to vote for
+     * @return Whether the vote changed anything
+     */
+    public boolean submitVote(HeadlessPlayer player, String option) {
+        VoteSession session = plugin.getSession(world.getWorld());
+        asyncVotes.increment();
+        return plugin.registerVote(session, player.getPlayer().getUniqueId(), player.getPlayer().getName(),
+                plugin.getVoteOptions().get(option));
+    }
+
+    /**
+     * Runs any other command as a player
+     * 
+     * @param player The player
+     * @param line The command line without the leading slash
+     */
+    public void command(HeadlessPlayer player, String line) {
+        long start = System.nanoTime();
+        server.dispatch(player, line);
+        tickNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Checks that the session's voter count matches the players actually online
+     * 
+     * @throws IllegalStateException If the counts differ
+     */
+    public void checkQuorum() {
+        VoteSession session = plugin.getSession(world.getWorld());
+        int voters = session.getQuorum().getEligibleVoters();
+        if (voters != online.size()) {
+            throw new IllegalStateException("session counts " + voters + " voters but "
+                    + online.size() + " players are online");
+        }
+    }
+
+    /**
+     * Checks that every option's count matches the votes actually recorded for it
+     * 
+     * @throws IllegalStateException If a count is off
+     */
+    public void checkTally() {
+        VoteTally tally = plugin.getSession(world.getWorld()).getTally();
+        int[] expected = new int[tally.getOptions().size()];
+        for (Ballot ballot : tally.getVotes().values()) {
+            expected[ballot.option().getId()] += ballot.weight();
+        }
+        
+        for (int id = 0; id < expected.length; id++) {
+            VoteOption option = tally.getOptions().get(id);
+            if (tally.getCount(option) != expected[id]) {
+                throw new IllegalStateException(option.getName() + " counts " + tally.getCount(option)
+                        + " votes but the ballots for it weigh " + expected[id]);
+            }
+        }
+    }
+
+    /**
+     * Summarizes the run
+     * 
+     * @param scenario The scenario that ran
+     * @param wallNanos The total run time in nanoseconds
+     * @param failure Why the scenario failed, or null if it passed
+     * @return The result
+     */
+    ScenarioResult result(Scenario scenario, long wallNanos, String failure) {
+        return new ScenarioResult(
+                scenario.getName(),
+                tickTimes.getCount(),
+                tickTimes.getPercentileNanos(50),
+                tickTimes.getPercentileNanos(99),
+                tickTimes.getMaxNanos(),
+                votes + asyncVotes.sum(),
+                votes > 0 ? voteBytes / votes : 0,
+                plugin.getMetrics().getLatency(Operation.VOTE_COMMAND).getPercentileNanos(99),
+                plugin.getMetrics().getCount(Outcome.TIME_CHANGED),
+                server.getMessages(),
+                server.getPackets(),
+                wallNanos,
+                failure);
+    }
+}
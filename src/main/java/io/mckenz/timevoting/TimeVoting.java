@@ -1,64 +1,172 @@
 package io.mckenz.timevoting;
 
+import io.mckenz.timevoting.api.TimeState;
 import io.mckenz.timevoting.api.TimeVotingAPI;
+import io.mckenz.timevoting.api.VoteRequest;
+import io.mckenz.timevoting.api.VoteResult;
+import io.mckenz.timevoting.api.events.ThresholdReachedEvent;
+import io.mckenz.timevoting.api.events.TimeChangeEvent;
+import io.mckenz.timevoting.api.events.VoteCastEvent;
+import io.mckenz.timevoting.api.events.VoteChangedEvent;
+import io.mckenz.timevoting.audit.AuditLog;
+import io.mckenz.timevoting.audit.AuditRecord;
+import io.mckenz.timevoting.audit.AuditType;
+import io.mckenz.timevoting.cluster.ClusterNode;
+import io.mckenz.timevoting.cluster.ClusterTransport;
+import io.mckenz.timevoting.cluster.LoopbackTransport;
+import io.mckenz.timevoting.cluster.PluginMessageTransport;
+import io.mckenz.timevoting.commands.CommandNode;
+import io.mckenz.timevoting.commands.CommandTree;
+import io.mckenz.timevoting.commands.PermissionProfiles;
 import io.mckenz.timevoting.commands.TimeVotingCommand;
 import io.mckenz.timevoting.commands.VoteTimeCommand;
 import io.mckenz.timevoting.commands.TimeForecastCommand;
+import io.mckenz.timevoting.config.AuditSettings;
+import io.mckenz.timevoting.config.ClusterSettings;
+import io.mckenz.timevoting.config.Settings;
+import io.mckenz.timevoting.display.VoteBossBar;
+import io.mckenz.timevoting.expiry.VoteExpiry;
 import io.mckenz.timevoting.listeners.PlayerJoinListener;
+import io.mckenz.timevoting.listeners.PlayerQuitListener;
+import io.mckenz.timevoting.listeners.WorldListener;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.messages.Messages;
+import io.mckenz.timevoting.messages.Placeholder;
+import io.mckenz.timevoting.messages.StatusRenderer;
+import io.mckenz.timevoting.messages.VoteAnnouncer;
+import io.mckenz.timevoting.metrics.Metrics;
+import io.mckenz.timevoting.metrics.Operation;
+import io.mckenz.timevoting.metrics.Outcome;
+import io.mckenz.timevoting.persistence.VoteStateStore;
+import io.mckenz.timevoting.rounds.RoundScheduler;
+import io.mckenz.timevoting.scheduler.PluginScheduler;
+import io.mckenz.timevoting.scheduler.PluginTask;
+import io.mckenz.timevoting.time.TimeApplier;
+import io.mckenz.timevoting.time.TimeForecast;
+import io.mckenz.timevoting.time.TimeLock;
 import io.mckenz.timevoting.util.UpdateChecker;
+import io.mckenz.timevoting.voting.Ballot;
+import io.mckenz.timevoting.voting.CooldownStore;
+import io.mckenz.timevoting.voting.RoundResult;
+import io.mckenz.timevoting.voting.SessionManager;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteEngine;
+import io.mckenz.timevoting.voting.VoteOptionRegistry;
+import io.mckenz.timevoting.voting.VoteRound;
+import io.mckenz.timevoting.voting.VoteSession;
+import io.mckenz.timevoting.voting.VoteSnapshot;
+import io.mckenz.timevoting.voting.VoteWeights;
 
 import org.bukkit.Bukkit;
 import org.bukkit.World;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.plugin.java.JavaPluginLoader;
 
-import java.util.HashMap;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main class for the TimeVoting plugin
  */
 public class TimeVoting extends JavaPlugin implements TimeVotingAPI {
     private FileConfiguration config;
-    private boolean enabled;
+    private volatile boolean enabled;
     private boolean debug;
     private UpdateChecker updateChecker;
+    private volatile Settings settings;
     
     // Voting system variables
-    private final Map<UUID, String> playerVotes = new HashMap<>();
-    private final Map<String, Integer> voteCount = new HashMap<>();
-    private long lastTimeChange = 0;
-    private BukkitTask timeResetTask;
+    private final VoteEngine engine = new VoteEngine(new EngineHost());
+    private ClusterNode cluster;
+    private VoteAnnouncer announcer;
+    private VoteBossBar bossBar;
+    private VoteExpiry expiry;
+    private RoundScheduler rounds;
+    private final StatusRenderer statusRenderer = new StatusRenderer(this);
+    private final CooldownStore cooldowns = new CooldownStore();
+    private final VoteWeights voteWeights = new VoteWeights();
+    private VoteStateStore stateStore;
+    private volatile AuditLog auditLog;
+    private final Metrics metrics = new Metrics();
+    private final PermissionProfiles permissionProfiles = new PermissionProfiles();
+    private final List<CommandTree> commands = new ArrayList<>();
+    private TimeApplier timeApplier;
+    private TimeLock timeLock;
+    private TimeForecast forecast;
+    private PluginTask clusterTask;
+    private PluginScheduler scheduler;
+    
+    /**
+     * Creates the plugin when it is loaded by the server
+     */
+    public TimeVoting() {
+        super();
+    }
+    
+    /**
+     * Creates the plugin outside a running server, e.g. for benchmarks against a stub server
+     * 
+     * @param loader The plugin loader
+     * @param description The plugin description
+     * @param dataFolder The folder holding config.yml and saved state
+     * @param file The plugin jar
+     */
+    protected TimeVoting(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
     
     @Override
     public void onEnable() {
+        // Pick the classic or regionized schedulers before anything is scheduled
+        scheduler = PluginScheduler.create(this);
+        
         // Save default config if it doesn't exist
         saveDefaultConfig();
-        loadConfig();
+        if (!loadConfig()) {
+            getLogger().severe("TimeVoting could not be enabled because config.yml is invalid");
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+        
+        Messages.setMetrics(metrics);
+        announcer = new VoteAnnouncer(this);
+        bossBar = new VoteBossBar(this);
+        expiry = new VoteExpiry(this);
+        rounds = new RoundScheduler(this);
+        timeApplier = new TimeApplier(this);
+        timeLock = new TimeLock(this);
+        forecast = new TimeForecast(this);
+        forecast.start();
         
-        // Initialize vote counts
-        resetVotes();
+        // Bring back votes and cooldowns from before the restart
+        stateStore = new VoteStateStore(this, getDataFolder().toPath());
+        stateStore.restore();
+        expiry.reset();
+        bossBar.wake();
+        startAudit(settings.audit());
+        rounds.start();
         
         // Register events
         getServer().getPluginManager().registerEvents(new PlayerJoinListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerQuitListener(this), this);
+        getServer().getPluginManager().registerEvents(new WorldListener(this), this);
         
         // Register commands
-        VoteTimeCommand voteTimeCommand = new VoteTimeCommand(this);
-        getCommand("votetime").setExecutor(voteTimeCommand);
-        getCommand("votetime").setTabCompleter(voteTimeCommand);
-        
-        TimeVotingCommand timeVotingCommand = new TimeVotingCommand(this);
-        getCommand("timevoting").setExecutor(timeVotingCommand);
-        getCommand("timevoting").setTabCompleter(timeVotingCommand);
-        
-        TimeForecastCommand timeForecastCommand = new TimeForecastCommand(this);
-        getCommand("timeforecast").setExecutor(timeForecastCommand);
-        getCommand("timeforecast").setTabCompleter(timeForecastCommand);
+        registerCommand(new VoteTimeCommand(this).createCommand());
+        registerCommand(new TimeVotingCommand(this).createCommand());
+        registerCommand(new TimeForecastCommand(this).createCommand());
         
         // Register API
         getServer().getServicesManager().register(
@@ -68,10 +176,13 @@ public class TimeVoting extends JavaPlugin implements TimeVotingAPI {
             org.bukkit.plugin.ServicePriority.Normal
         );
         
+        // Join the vote cluster if enabled
+        startCluster(settings.cluster());
+        
         // Initialize update checker if enabled
-        if (config.getBoolean("update-checker.enabled", true)) {
-            int resourceId = config.getInt("update-checker.resource-id", 0);
-            boolean notifyAdmins = config.getBoolean("update-checker.notify-admins", true);
+        if (settings.updateCheckerEnabled()) {
+            int resourceId = settings.updateResourceId();
+            boolean notifyAdmins = settings.notifyAdmins();
             
             updateChecker = new UpdateChecker(this, resourceId, notifyAdmins);
             updateChecker.checkForUpdates();
@@ -80,18 +191,365 @@ public class TimeVoting extends JavaPlugin implements TimeVotingAPI {
         
         getLogger().info("TimeVoting has been enabled!");
         logDebug("Debug mode is enabled");
+        logDebug("Tasks run on the " + scheduler.getName() + " scheduler");
     }
 
     /**
-     * Loads configuration from config.yml
+     * Registers a command tree as the executor and tab completer of the command with its name
+     * 
+     * @param root The command's root node
+     */
+    private void registerCommand(CommandNode root) {
+        CommandTree tree = new CommandTree(this, root, permissionProfiles);
+        getCommand(root.getName()).setExecutor(tree);
+        getCommand(root.getName()).setTabCompleter(tree);
+        commands.add(tree);
+    }
+    
+    /**
+     * Drops cached tab completions and permission profiles, e.g. after a reload
      */
-    public void loadConfig() {
+    public void invalidateCommands() {
+        permissionProfiles.clear();
+        for (CommandTree tree : commands) {
+            tree.invalidate();
+        }
+    }
+    
+    /**
+     * Loads configuration from config.yml. If the file contains invalid values, the errors
+     * are logged and the previously loaded settings stay in effect.
+     * 
+     * @return true if the configuration was valid and applied, false otherwise
+     */
+    public boolean loadConfig() {
         reloadConfig();
-        config = getConfig();
+        FileConfiguration newConfig = getConfig();
+        
+        Settings loaded;
+        try {
+            loaded = Settings.load(newConfig);
+        } catch (InvalidConfigurationException e) {
+            for (String error : e.getMessage().split("; ")) {
+                getLogger().severe("Invalid config.yml value: " + error);
+            }
+            return false;
+        }
+        
+        config = newConfig;
         enabled = config.getBoolean("enabled", true);
         debug = config.getBoolean("debug", false);
         
+        // Weights are resolved again for everyone, with the new ranks and current permissions
+        voteWeights.setSettings(loaded.weights());
+        
+        // Votes only survive a reload if the options and world layout are unchanged
+        SessionManager sessions = engine.getSessions();
+        boolean kept = sessions != null && loaded.options().sameOptionsAs(sessions.getOptions())
+                && loaded.worlds().equals(sessions.getWorldSettings());
+        if (kept) {
+            loaded = loaded.withOptions(sessions.getOptions());
+        } else {
+            rebuildSessions(loaded);
+            logDebug("Loaded time options: " + loaded.options().getDisplayList());
+            if (stateStore != null) {
+                stateStore.compact();
+            }
+        }
+        
+        // Publish everything in a single write
+        Settings previous = settings;
+        settings = loaded;
+        metrics.setEnabled(loaded.metricsEnabled());
+        invalidateCommands();
+        if (expiry != null && (!kept || loaded.voteLifetimeTicks() != previous.voteLifetimeTicks())) {
+            expiry.reset();
+        }
+        if (kept) {
+            rejoinPlayers(sessions);
+            for (VoteSession session : sessions.getSessions()) {
+                if (cluster != null) {
+                    cluster.recordVoters(session);
+                }
+                checkVoteThreshold(session);
+            }
+        }
+        
+        // Rejoin the cluster if its settings changed; on enable this happens after registration
+        if (previous != null && !loaded.cluster().equals(previous.cluster())) {
+            startCluster(loaded.cluster());
+        }
+        if (previous != null && !loaded.audit().equals(previous.audit())) {
+            startAudit(loaded.audit());
+        }
+        if (rounds != null) {
+            rounds.start();
+        }
+        
         logDebug("Configuration loaded");
+        return true;
+    }
+    
+    /**
+     * Builds fresh vote sessions for all loaded worlds and online players
+     * 
+     * @param settings The settings to build the sessions from
+     */
+    private void rebuildSessions(Settings settings) {
+        SessionManager sessions = new SessionManager(settings.worlds(), settings.options());
+        for (World world : getServer().getWorlds()) {
+            sessions.addWorld(world);
+        }
+        
+        // Pick up players that are already online, e.g. after a reload
+        rejoinPlayers(sessions);
+        engine.setSessions(sessions);
+    }
+    
+    /**
+     * Counts the online players into the quorums of their sessions from scratch, resolving
+     * their weights and reweighing any votes they already cast
+     * 
+     * @param sessions The sessions to fill
+     */
+    private void rejoinPlayers(SessionManager sessions) {
+        for (VoteSession session : sessions.getSessions()) {
+            session.getQuorum().reset(0, 0);
+        }
+        
+        for (Player player : getServer().getOnlinePlayers()) {
+            VoteSession session = sessions.getSession(player.getWorld());
+            if (session != null) {
+                int weight = voteWeights.resolve(player.getUniqueId(), player);
+                session.getQuorum().join(weight);
+                engine.reweigh(session, player.getUniqueId(), weight);
+            }
+        }
+    }
+    
+    /**
+     * Starts cluster mode, replacing any running cluster node
+     * 
+     * @param clusterSettings The cluster settings
+     */
+    private void startCluster(ClusterSettings clusterSettings) {
+        stopCluster();
+        if (!clusterSettings.enabled()) {
+            return;
+        }
+        
+        ClusterTransport transport = clusterSettings.transport().equals(ClusterSettings.TRANSPORT_LOOPBACK)
+                ? new LoopbackTransport(LoopbackTransport.Hub.DEFAULT)
+                : new PluginMessageTransport(this);
+        
+        cluster = new ClusterNode(clusterSettings.nodeId(), clusterSettings.isCoordinator(), transport,
+                new ClusterNode.Host() {
+                    @Override
+                    public VoteSession getSession(String name) {
+                        return engine.getSessions().getSession(name);
+                    }
+
+                    @Override
+                    public Iterable<VoteSession> getSessions() {
+                        return engine.getSessions().getSessions();
+                    }
+
+                    @Override
+                    public Settings getSettings() {
+                        return settings;
+                    }
+
+                    @Override
+                    public void onRemoteVotes(VoteSession session) {
+                        checkVoteThreshold(session);
+                    }
+
+                    @Override
+                    public void onRemoteTimeChange(VoteSession session, VoteOption option) {
+                        changeTime(session, option);
+                        clearVotes(session);
+                    }
+
+                    @Override
+                    public void logDebug(String message) {
+                        TimeVoting.this.logDebug(message);
+                    }
+                });
+        cluster.open();
+        
+        // Deltas are batched and exchanged once per tick
+        clusterTask = scheduler.runTimer(cluster::tick, 1L, 1L);
+        getLogger().info("Joined vote cluster as " + clusterSettings.nodeId()
+                + (clusterSettings.isCoordinator() ? " (coordinator)" : ""));
+    }
+    
+    /**
+     * Leaves cluster mode if it is running
+     */
+    private void stopCluster() {
+        if (clusterTask != null) {
+            clusterTask.cancel();
+            clusterTask = null;
+        }
+        if (cluster != null) {
+            cluster.close();
+            cluster = null;
+        }
+    }
+    
+    /**
+     * Starts the vote history, replacing any running one
+     * 
+     * @param auditSettings The audit settings
+     */
+    private void startAudit(AuditSettings auditSettings) {
+        stopAudit();
+        if (auditSettings.enabled()) {
+            auditLog = new AuditLog(getDataFolder().toPath().resolve("audit"), auditSettings, getLogger());
+        }
+    }
+    
+    /**
+     * Stops the vote history if it is running, writing any queued records first
+     */
+    private void stopAudit() {
+        if (auditLog != null) {
+            auditLog.close();
+            auditLog = null;
+        }
+    }
+    
+    /**
+     * Gets the vote history
+     * 
+     * @return The audit log, or null if the history is disabled
+     */
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+    
+    /**
+     * Adds an event to the vote history if it is enabled
+     * 
+     * @param type What happened
+     * @param session The session it happened in
+     * @param player The name of the player involved, or null
+     * @param option The time option or cooldown involved
+     * @param votes The number of votes, or 0
+     */
+    public void recordHistory(AuditType type, VoteSession session, String player, String option, int votes) {
+        AuditLog log = auditLog;
+        if (log != null) {
+            log.record(AuditRecord.now(type, session.getName(), player, option, votes));
+        }
+    }
+    
+    /**
+     * Gets the vote announcer
+     * 
+     * @return The vote announcer
+     */
+    public VoteAnnouncer getAnnouncer() {
+        return announcer;
+    }
+    
+    /**
+     * Gets the boss bar display of open votes
+     * 
+     * @return The boss bar display
+     */
+    public VoteBossBar getBossBar() {
+        return bossBar;
+    }
+    
+    /**
+     * Gets the cached /timeforecast lines and the measured tick rate
+     * 
+     * @return The time forecast
+     */
+    public TimeForecast getTimeForecast() {
+        return forecast;
+    }
+    
+    /**
+     * Gets the renderer that caches the vote status lines
+     * 
+     * @return The status renderer
+     */
+    public StatusRenderer getStatusRenderer() {
+        return statusRenderer;
+    }
+    
+    /**
+     * Gets the per-player vote cooldowns
+     * 
+     * @return The cooldown store
+     */
+    public CooldownStore getCooldowns() {
+        return cooldowns;
+    }
+    
+    /**
+     * Gets the resolved vote weights of the online players
+     * 
+     * @return The vote weights
+     */
+    public VoteWeights getVoteWeights() {
+        return voteWeights;
+    }
+    
+    /**
+     * Gets the applier that moves worlds to voted times
+     * 
+     * @return The time applier
+     */
+    public TimeApplier getTimeApplier() {
+        return timeApplier;
+    }
+    
+    /**
+     * Gets the scheduler that runs the plugin's tasks on the right threads for this server
+     * 
+     * @return The plugin scheduler
+     */
+    public PluginScheduler getPluginScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Gets the lock that holds voted times for their duration
+     * 
+     * @return The time lock
+     */
+    public TimeLock getTimeLock() {
+        return timeLock;
+    }
+    
+    /**
+     * Gets the store that keeps vote state across restarts
+     * 
+     * @return The state store
+     */
+    public VoteStateStore getStateStore() {
+        return stateStore;
+    }
+    
+    /**
+     * Gets the cluster node
+     * 
+     * @return The cluster node, or null if cluster mode is disabled
+     */
+    public ClusterNode getClusterNode() {
+        return cluster;
+    }
+    
+    /**
+     * Gets the current settings snapshot
+     * 
+     * @return The settings
+     */
+    public Settings getSettings() {
+        return settings;
     }
 
     /**
@@ -108,183 +566,468 @@ public class TimeVoting extends JavaPlugin implements TimeVotingAPI {
     @Override
     public void onDisable() {
         // Cancel any pending tasks
-        if (timeResetTask != null) {
-            timeResetTask.cancel();
+        stopCluster();
+        if (announcer != null) {
+            announcer.shutdown();
+        }
+        if (bossBar != null) {
+            bossBar.shutdown();
         }
+        if (expiry != null) {
+            expiry.shutdown();
+        }
+        if (rounds != null) {
+            rounds.shutdown();
+        }
+        if (timeApplier != null) {
+            timeApplier.cancelAll();
+        }
+        if (timeLock != null) {
+            // Give every world its own day back before the state is saved
+            timeLock.shutdown();
+        }
+        if (forecast != null) {
+            forecast.shutdown();
+        }
+        if (stateStore != null) {
+            stateStore.close();
+        }
+        stopAudit();
+        commands.clear();
+        Messages.setMetrics(null);
+        statusRenderer.clear();
         
         getLogger().info("TimeVoting has been disabled!");
     }
     
     /**
-     * Resets all votes
+     * Resets all votes in every session
      */
     public void resetVotes() {
-        playerVotes.clear();
-        voteCount.clear();
-        
-        // Initialize vote counts for each time option
-        voteCount.put("day", 0);
-        voteCount.put("night", 0);
-        voteCount.put("sunrise", 0);
-        voteCount.put("sunset", 0);
+        for (VoteSession session : engine.getSessions().getSessions()) {
+            clearVotes(session);
+        }
         
         logDebug("Votes have been reset");
     }
     
     /**
-     * Registers a vote for a specific time
+     * Clears the votes of a session, e.g. after the time was changed or a vote round ended
+     * 
+     * @param session The session
+     */
+    public void clearVotes(VoteSession session) {
+        session.getTally().clear();
+        stateStore.recordClear(session);
+        announcer.discard(session);
+        expiry.clear(session);
+    }
+    
+    /**
+     * Registers a vote for a specific time in the player's current session
      * 
      * @param player The player voting
-     * @param timeType The time type being voted for
+     * @param option The time option being voted for
      * @return true if the vote was registered, false if the player has already voted for this time
+     *         or voting is disabled in their world
      */
-    public boolean registerVote(Player player, String timeType) {
-        UUID playerId = player.getUniqueId();
-        
-        // Check if player has already voted for this time
-        if (playerVotes.containsKey(playerId) && playerVotes.get(playerId).equals(timeType)) {
+    public boolean registerVote(Player player, VoteOption option) {
+        VoteSession session = engine.getSessions().getSession(player.getWorld());
+        if (session == null) {
             return false;
         }
         
-        // If player has voted for a different time, remove that vote
-        if (playerVotes.containsKey(playerId)) {
-            String previousVote = playerVotes.get(playerId);
-            voteCount.put(previousVote, voteCount.get(previousVote) - 1);
+        return registerVote(session, player.getUniqueId(), player.getName(), option);
+    }
+    
+    /**
+     * Registers a vote in a session. Unlike most of the plugin this can be called from any
+     * thread: the vote counts immediately, and the threshold check and any time change follow
+     * on the main thread.
+     * 
+     * @param session The session to vote in
+     * @param playerId The voting player's UUID
+     * @param playerName The voting player's name, for the vote history
+     * @param option The time option being voted for
+     * @return true if the vote was registered, false if the player has already voted for this time
+     */
+    public boolean registerVote(VoteSession session, UUID playerId, String playerName, VoteOption option) {
+        return castVote(session, playerId, playerName, option).isCounted();
+    }
+    
+    /**
+     * Casts a vote in a session, letting listeners cancel it first. Like
+     * {@link #registerVote(VoteSession, UUID, String, VoteOption)} this can be called from any thread.
+     * 
+     * @param session The session to vote in
+     * @param playerId The voting player's UUID
+     * @param playerName The voting player's name, for events and the vote history
+     * @param option The time option being voted for
+     * @return {@link VoteResult#CAST} or {@link VoteResult#CHANGED} if the vote counts,
+     *         {@link VoteResult#UNCHANGED} if the player already voted for this time,
+     *         {@link VoteResult#ROUND_CLOSED} if the session only takes votes during a round, or
+     *         {@link VoteResult#CANCELLED} if a listener cancelled it
+     */
+    public VoteResult castVote(VoteSession session, UUID playerId, String playerName, VoteOption option) {
+        long start = metrics.start();
+        try {
+            if (!session.isVotingOpen()) {
+                return VoteResult.ROUND_CLOSED;
+            }
+            
+            VoteOption current = session.getTally().getVote(playerId);
+            if (current == option) {
+                return VoteResult.UNCHANGED;
+            }
+            
+            // Events are only built when someone listens for them, and are async exactly when the engine queues the vote
+            boolean async = !scheduler.isOwnerThread();
+            if (current == null && VoteCastEvent.hasListeners()) {
+                VoteCastEvent event = new VoteCastEvent(session.getName(), session.getWorlds(), playerId,
+                        playerName, option.getName(), async);
+                getServer().getPluginManager().callEvent(event);
+                if (event.isCancelled()) {
+                    return VoteResult.CANCELLED;
+                }
+            } else if (current != null && VoteChangedEvent.hasListeners()) {
+                VoteChangedEvent event = new VoteChangedEvent(session.getName(), session.getWorlds(), playerId,
+                        playerName, current.getName(), option.getName(), async);
+                getServer().getPluginManager().callEvent(event);
+                if (event.isCancelled()) {
+                    return VoteResult.CANCELLED;
+                }
+            }
+            
+            // Casting replaces any previous vote; the same option means nothing changed
+            VoteOption previous = engine.cast(session, playerId, option, voteWeights.get(playerId));
+            if (previous == option) {
+                return VoteResult.UNCHANGED;
+            }
+            recordHistory(previous == null ? AuditType.VOTE : AuditType.VOTE_CHANGED, session,
+                    playerName, option.getName(), 0);
+            
+            return previous == null ? VoteResult.CAST : VoteResult.CHANGED;
+        } finally {
+            metrics.stop(Operation.REGISTER_VOTE, start);
         }
+    }
+    
+    /**
+     * Handles a player joining the server. A vote they had before a restart counts again.
+     * 
+     * @param player The player who joined
+     */
+    public void handlePlayerJoin(Player player) {
+        VoteSession session = engine.getSessions().getSession(player.getWorld());
+        joinSession(player, session);
         
-        // Register the new vote
-        playerVotes.put(playerId, timeType);
-        voteCount.put(timeType, voteCount.get(timeType) + 1);
+        // A vote restored while the player was offline counts again now that they are back
+        VoteOption parked = stateStore.takeParkedVote(player.getUniqueId(), session);
+        if (parked != null) {
+            engine.cast(session, player.getUniqueId(), parked, voteWeights.get(player.getUniqueId()));
+            logDebug("Restored vote for " + parked.getName() + " from " + player.getName()
+                    + " in " + session.getName());
+        }
+    }
+    
+    /**
+     * Handles a player leaving the server. Their vote is removed, and since the number of
+     * required votes may have dropped, the threshold is checked again. Their vote cooldown is
+     * kept so rejoining does not reset it; it is swept once it has passed.
+     * 
+     * @param player The player who left
+     */
+    public void handlePlayerQuit(Player player) {
+        permissionProfiles.remove(player.getUniqueId());
+        leaveSession(player, engine.getSessions().getSession(player.getWorld()));
+        voteWeights.remove(player.getUniqueId());
+    }
+    
+    /**
+     * Handles a player moving between worlds. If the worlds belong to different sessions,
+     * the player's vote stays behind in the old session's worlds and is removed. Within the
+     * same session the vote stays and only the player's weight is looked up again, since
+     * permissions may differ per world.
+     * 
+     * @param player The player who changed worlds
+     * @param from The world the player left
+     */
+    public void handlePlayerChangedWorld(Player player, World from) {
+        SessionManager sessions = engine.getSessions();
+        VoteSession previous = sessions.getSession(from);
+        VoteSession current = sessions.getSession(player.getWorld());
         
-        // Check if the vote threshold has been reached
-        checkVoteThreshold(timeType);
+        if (previous == current) {
+            refreshVoteWeight(player);
+            return;
+        }
         
-        return true;
+        leaveSession(player, previous);
+        joinSession(player, current);
     }
     
     /**
-     * Checks if the vote threshold has been reached for a specific time
+     * Adds a player to a session's quorum with their weight, resolved from their current
+     * permissions. A vote restored from before a restart is reweighed to match.
      * 
-     * @param timeType The time type to check
-     * @return true if the threshold was reached and time was changed, false otherwise
+     * @param player The player
+     * @param session The session the player entered, may be null
      */
-    public boolean checkVoteThreshold(String timeType) {
-        int onlinePlayers = Bukkit.getOnlinePlayers().size();
-        int minimumPlayers = config.getInt("voting.minimum-players", 2);
+    private void joinSession(Player player, VoteSession session) {
+        if (session == null) {
+            return;
+        }
         
-        // Check if there are enough players online
-        if (onlinePlayers < minimumPlayers) {
-            logDebug("Not enough players online to change time: " + onlinePlayers + "/" + minimumPlayers);
-            return false;
+        int weight = voteWeights.resolve(player.getUniqueId(), player);
+        session.getQuorum().join(weight);
+        if (cluster != null) {
+            cluster.recordVoters(session);
+        }
+        if (engine.reweigh(session, player.getUniqueId(), weight)) {
+            checkVoteThreshold(session);
+        }
+    }
+    
+    /**
+     * Removes a player from a session's quorum and votes, then checks its threshold again
+     * 
+     * @param player The player
+     * @param session The session the player left, may be null
+     */
+    private void leaveSession(Player player, VoteSession session) {
+        if (session == null) {
+            return;
         }
         
-        // Calculate the threshold
-        int thresholdPercentage = config.getInt("voting.threshold-percentage", 50);
-        int requiredVotes = Math.max(1, (int) Math.ceil((thresholdPercentage / 100.0) * onlinePlayers));
+        session.getQuorum().quit(voteWeights.get(player.getUniqueId()));
+        if (cluster != null) {
+            cluster.recordVoters(session);
+        }
+        
+        VoteOption removed = engine.remove(session, player.getUniqueId());
+        if (removed != null) {
+            logDebug("Removed vote for " + removed.getName() + " from " + player.getName()
+                    + " in " + session.getName());
+        }
         
-        // Check if the threshold has been reached
-        if (voteCount.get(timeType) >= requiredVotes) {
-            // Check cooldown
-            long cooldownMillis = config.getInt("cooldowns.between-changes", 300) * 1000L;
-            long currentTime = System.currentTimeMillis();
+        checkVoteThreshold(session);
+    }
+    
+    /**
+     * Handles a world being loaded
+     * 
+     * @param world The loaded world
+     */
+    public void handleWorldLoad(World world) {
+        timeLock.worldLoaded(world);
+        VoteSession session = engine.getSessions().addWorld(world);
+        logDebug("World " + world.getName() + " loaded into session "
+                + (session != null ? session.getName() : "none (excluded)"));
+        
+        // Rounds held in this world can be scheduled now
+        rounds.start();
+    }
+    
+    /**
+     * Handles a world being unloaded
+     * 
+     * @param world The unloaded world
+     */
+    public void handleWorldUnload(World world) {
+        engine.getSessions().removeWorld(world);
+        logDebug("World " + world.getName() + " unloaded");
+    }
+    
+    /**
+     * Checks if the vote threshold has been reached by the leading option of a session
+     * 
+     * @param session The session to check
+     * @return true if the threshold was reached and time was changed, false otherwise
+     */
+    public boolean checkVoteThreshold(VoteSession session) {
+        long start = metrics.start();
+        try {
+            Settings settings = this.settings;
+            VoteOption option;
             
-            if (currentTime - lastTimeChange < cooldownMillis) {
-                logDebug("Time change cooldown is still active");
-                return false;
+            if (cluster != null) {
+                // In a cluster only the coordinator decides, using the votes of all nodes
+                if (!cluster.isCoordinator()) {
+                    return false;
+                }
+                option = cluster.findPassingOption(session, settings);
+            } else {
+                // Check if there are enough players online
+                if (!session.getQuorum().hasMinimumPlayers(settings)) {
+                    logDebug("Not enough players in " + session.getName() + " to change time: "
+                            + session.getQuorum().getEligibleVoters() + "/" + settings.minimumPlayers());
+                    return false;
+                }
+                
+                option = session.getQuorum().findPassingOption(session.getTally(), settings);
             }
             
-            // Change the time
-            changeTime(timeType);
-            
-            // Reset votes
-            resetVotes();
+            // Check if the threshold has been reached
+            if (option != null) {
+                // The votes stay if the change is held back, and the next vote checks again
+                int votes = cluster != null ? cluster.getVoteCount(session, option) : session.getTally().getCount(option);
+                if (!approveTimeChange(session, option, votes)) {
+                    return false;
+                }
+                
+                // Change the time
+                boolean changed = changeTime(session, option);
+                if (changed && cluster != null) {
+                    cluster.announceTimeChange(session, option);
+                }
+                
+                // An open round ends with the threshold, and then the votes are reset
+                rounds.thresholdReached(session, changed ? option : null, votes);
+                clearVotes(session);
+                logDebug("Votes have been reset in " + session.getName());
+                
+                return true;
+            }
             
-            return true;
+            return false;
+        } finally {
+            metrics.stop(Operation.CHECK_THRESHOLD, start);
         }
-        
-        return false;
     }
     
     /**
-     * Changes the time in all worlds
+     * Checks whether an option that won a session's vote may change the time: the time change
+     * cooldown must have passed and no listener may cancel the {@link ThresholdReachedEvent}.
+     * An approved win is recorded in the history.
      * 
-     * @param timeType The time type to change to
+     * @param session The session whose vote was won
+     * @param option The winning option
+     * @param votes The votes for the winning option
+     * @return true if the time may be changed
      */
-    public void changeTime(String timeType) {
-        long ticks;
+    public boolean approveTimeChange(VoteSession session, VoteOption option, int votes) {
+        Settings settings = this.settings;
         
-        // Get the time in ticks for the specified time type
-        switch (timeType) {
-            case "day":
-                ticks = config.getLong("time.day", 1000);
-                break;
-            case "night":
-                ticks = config.getLong("time.night", 13000);
-                break;
-            case "sunrise":
-                ticks = config.getLong("time.sunrise", 23000);
-                break;
-            case "sunset":
-                ticks = config.getLong("time.sunset", 12000);
-                break;
-            default:
-                logDebug("Invalid time type: " + timeType);
-                return;
+        // Check cooldown
+        if (session.getChangeCooldownNanos(settings.changeCooldownNanos(), System.nanoTime()) > 0) {
+            logDebug("Time change cooldown is still active in " + session.getName());
+            return false;
         }
         
-        // Set the time in all worlds
-        for (World world : Bukkit.getWorlds()) {
-            world.setTime(ticks);
-            logDebug("Set time to " + ticks + " in world " + world.getName());
+        // Listeners can veto the change
+        if (ThresholdReachedEvent.hasListeners()) {
+            ThresholdReachedEvent event = new ThresholdReachedEvent(session.getName(), session.getWorlds(),
+                    option.getName(), votes, session.getQuorum().getRequiredVotes(settings));
+            getServer().getPluginManager().callEvent(event);
+            if (event.isCancelled()) {
+                logDebug("Time change in " + session.getName() + " was cancelled by another plugin");
+                return false;
+            }
         }
-        
-        // Update the last time change timestamp
-        lastTimeChange = System.currentTimeMillis();
-        
-        // Schedule time reset if duration is set
-        int duration = config.getInt("time.duration", 300);
-        if (duration > 0) {
-            // Cancel any existing reset task
-            if (timeResetTask != null) {
-                timeResetTask.cancel();
+        recordHistory(AuditType.THRESHOLD_REACHED, session, null, option.getName(), votes);
+        return true;
+    }
+    
+    /**
+     * Changes the time in all worlds of a session
+     * 
+     * @param session The session whose worlds to change
+     * @param option The time option to change to
+     * @return true if the time was changed, false if a listener cancelled the change
+     */
+    public boolean changeTime(VoteSession session, VoteOption option) {
+        long start = metrics.start();
+        try {
+            long ticks = option.getTicks();
+            if (TimeChangeEvent.hasListeners()) {
+                TimeChangeEvent event = new TimeChangeEvent(session.getName(), session.getWorlds(),
+                        option.getName(), ticks);
+                getServer().getPluginManager().callEvent(event);
+                if (event.isCancelled()) {
+                    logDebug("Time change to " + option.getName() + " in " + session.getName()
+                            + " was cancelled by another plugin");
+                    return false;
+                }
+                ticks = event.getTime();
             }
             
-            // Schedule a new reset task
-            timeResetTask = Bukkit.getScheduler().runTaskLater(this, () -> {
-                // Reset to normal time cycle by doing nothing
-                // The game will continue its normal time cycle
-                Bukkit.broadcastMessage(getMessageWithPrefix("time-reset"));
-                logDebug("Time has been reset to normal cycle");
-            }, duration * 20L); // Convert seconds to ticks
+            // Hold the voted time for its duration, remembering the time it replaces
+            long durationTicks = settings.durationTicks();
+            if (durationTicks > 0) {
+                timeLock.lock(session, durationTicks);
+            }
+            
+            // Set the time in the session's worlds, spread over ticks if there are many
+            timeApplier.apply(session, ticks);
+            
+            // Update the last time change timestamp
+            session.markTimeChanged(System.nanoTime());
+            stateStore.recordTimeChange(session);
+            recordHistory(AuditType.TIME_CHANGED, session, null, option.getName(), 0);
+            metrics.count(Outcome.TIME_CHANGED);
+            
+            // Broadcast the time change
+            broadcast(session, settings.messages().prefixed(Message.TIME_CHANGED, Placeholder.TIME, option.getName()));
+            return true;
+        } finally {
+            metrics.stop(Operation.CHANGE_TIME, start);
+        }
+    }
+    
+    /**
+     * Sends a message to everyone affected by a session. When one session covers every world
+     * this is a server-wide broadcast; otherwise only players in the session's worlds receive it.
+     * 
+     * @param session The session
+     * @param message The message to send
+     */
+    public void broadcast(VoteSession session, String message) {
+        SessionManager sessions = engine.getSessions();
+        if (sessions.getSessions().size() == 1 && sessions.getWorldSettings().excluded().isEmpty()) {
+            Bukkit.broadcastMessage(message);
+            return;
         }
         
-        // Broadcast the time change
-        Bukkit.broadcastMessage(getMessageWithPrefix("time-changed").replace("%time%", timeType));
+        for (World world : session.getWorlds()) {
+            for (Player player : world.getPlayers()) {
+                player.sendMessage(message);
+            }
+        }
+    }
+    
+    /**
+     * Gets the compiled messages for the current configuration
+     * 
+     * @return The compiled messages
+     */
+    public Messages getMessages() {
+        return settings.messages();
     }
     
     /**
      * Gets a formatted message with the plugin prefix
      * 
      * @param key The message key
-     * @return The formatted message
+     * @return The formatted message, or just the prefix if the key is unknown
      */
     public String getMessageWithPrefix(String key) {
-        String prefix = config.getString("messages.prefix", "&8[&bTimeVoting&8] ");
-        String message = config.getString("messages." + key, "");
+        Message message = Message.fromKey(key);
+        
+        Messages messages = settings.messages();
         
-        return colorize(prefix + message);
+        return message != null ? messages.prefixed(message) : messages.getPrefix();
     }
     
     /**
      * Gets a formatted message without the plugin prefix
      * 
      * @param key The message key
-     * @return The formatted message
+     * @return The formatted message, or an empty string if the key is unknown
      */
     public String getMessage(String key) {
-        String message = config.getString("messages." + key, "");
+        Message message = Message.fromKey(key);
         
-        return colorize(message);
+        return message != null ? settings.messages().plain(message) : "";
     }
     
     /**
@@ -294,60 +1037,65 @@ public class TimeVoting extends JavaPlugin implements TimeVotingAPI {
      * @return The colorized message
      */
     public String colorize(String message) {
-        return message.replace("&", "§");
+        return Messages.colorize(message);
     }
     
     /**
-     * Gets the number of votes for a specific time
+     * Gets the registry of time options that can be voted for
      * 
-     * @param timeType The time type
-     * @return The number of votes
+     * @return The vote option registry
      */
-    public int getVoteCount(String timeType) {
-        return voteCount.getOrDefault(timeType, 0);
+    public VoteOptionRegistry getVoteOptions() {
+        return settings.options();
     }
     
     /**
-     * Gets the time type a player has voted for
+     * Gets the vote session of a world
      * 
-     * @param playerId The player's UUID
-     * @return The time type, or null if the player hasn't voted
+     * @param world The world
+     * @return The session, or null if voting is disabled in that world
      */
-    public String getPlayerVote(UUID playerId) {
-        return playerVotes.get(playerId);
+    public VoteSession getSession(World world) {
+        return engine.getSessions().getSession(world);
     }
     
     /**
-     * Gets the required number of votes to change the time
+     * Gets the session manager holding all vote sessions
      * 
-     * @return The required number of votes
+     * @return The session manager
      */
-    public int getRequiredVotes() {
-        int onlinePlayers = Bukkit.getOnlinePlayers().size();
-        int thresholdPercentage = config.getInt("voting.threshold-percentage", 50);
-        
-        return Math.max(1, (int) Math.ceil((thresholdPercentage / 100.0) * onlinePlayers));
+    public SessionManager getSessionManager() {
+        return engine.getSessions();
+    }
+    
+    /**
+     * Gets the vote engine, which accepts votes from any thread
+     * 
+     * @return The vote engine
+     */
+    public VoteEngine getVoteEngine() {
+        return engine;
     }
     
     /**
-     * Gets the time in seconds until the time change cooldown expires
+     * Gets the time in seconds until the time change cooldown of a session expires
      * 
+     * @param session The session
      * @return The cooldown time in seconds, or 0 if the cooldown has expired
      */
-    public int getTimeChangeCooldown() {
-        long cooldownMillis = config.getInt("cooldowns.between-changes", 300) * 1000L;
-        long currentTime = System.currentTimeMillis();
-        long elapsedTime = currentTime - lastTimeChange;
-        
-        if (elapsedTime >= cooldownMillis) {
-            return 0;
-        }
+    public int getTimeChangeCooldown(VoteSession session) {
+        long remaining = session.getChangeCooldownNanos(settings.changeCooldownNanos(), System.nanoTime());
         
-        return (int) ((cooldownMillis - elapsedTime) / 1000);
+        return (int) TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L);
     }
 
     // API Methods
     
+    @Override
+    public int getApiVersion() {
+        return API_VERSION;
+    }
+    
     @Override
     public boolean isPluginEnabled() {
         return isPluginFunctionalityEnabled();
@@ -358,6 +1106,133 @@ public class TimeVoting extends JavaPlugin implements TimeVotingAPI {
         getServer().getPluginManager().registerEvents(listener, plugin);
     }
     
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
+    @Override
+    public List<String> getVoteOptionNames() {
+        return settings.options().getNames();
+    }
+    
+    @Override
+    public Map<String, Integer> getVoteCounts(World world) {
+        VoteSnapshot snapshot = getVoteSnapshot(world);
+        if (snapshot == null) {
+            return Collections.emptyMap();
+        }
+        
+        VoteOptionRegistry options = snapshot.getOptions();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < options.size(); i++) {
+            counts.put(options.get(i).getName(), snapshot.getCount(options.get(i)));
+        }
+        return counts;
+    }
+    
+    @Override
+    public VoteSnapshot getVoteSnapshot(World world) {
+        VoteSession session = getSession(world);
+        
+        return session != null ? session.getSnapshot() : null;
+    }
+    
+    @Override
+    public String getVote(UUID playerId, World world) {
+        VoteSession session = getSession(world);
+        VoteOption vote = session != null ? session.getTally().getVote(playerId) : null;
+        
+        return vote != null ? vote.getName() : null;
+    }
+    
+    @Override
+    public int getRequiredVotes(World world) {
+        VoteSession session = getSession(world);
+        
+        return session != null ? session.getQuorum().getRequiredVotes(settings) : 0;
+    }
+    
+    @Override
+    public int getVoteWeight(UUID playerId) {
+        return voteWeights.get(playerId);
+    }
+    
+    @Override
+    public int refreshVoteWeight(Player player) {
+        UUID playerId = player.getUniqueId();
+        int previous = voteWeights.get(playerId);
+        int weight = voteWeights.resolve(playerId, player);
+        
+        VoteSession session = getSession(player.getWorld());
+        if (session != null && weight != previous) {
+            session.getQuorum().reweigh(previous, weight);
+            engine.reweigh(session, playerId, weight);
+            if (cluster != null) {
+                cluster.recordVoters(session);
+            }
+            checkVoteThreshold(session);
+        }
+        return weight;
+    }
+    
+    @Override
+    public List<RoundResult> getRoundResults() {
+        return engine.getRoundResults();
+    }
+    
+    @Override
+    public VoteRound getOpenRound(World world) {
+        VoteSession session = getSession(world);
+        return session != null ? session.getRound() : null;
+    }
+    
+    @Override
+    public TimeState getTimeState(World world) {
+        return timeLock.getState(world);
+    }
+    
+    @Override
+    public int getVoteCooldown(UUID playerId) {
+        long remaining = cooldowns.getRemainingNanos(playerId, System.nanoTime(), settings.voteCooldownNanos());
+        
+        return (int) TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L);
+    }
+    
+    @Override
+    public int getTimeChangeCooldown(World world) {
+        VoteSession session = getSession(world);
+        
+        return session != null ? getTimeChangeCooldown(session) : 0;
+    }
+    
+    @Override
+    public VoteResult submitVote(UUID playerId, String playerName, World world, String option) {
+        return submitVotes(world, List.of(new VoteRequest(playerId, playerName, option))).get(0);
+    }
+    
+    @Override
+    public List<VoteResult> submitVotes(World world, List<VoteRequest> votes) {
+        List<VoteResult> results = new ArrayList<>(votes.size());
+        VoteSession session = enabled ? getSession(world) : null;
+        if (session == null) {
+            for (int i = 0; i < votes.size(); i++) {
+                results.add(VoteResult.VOTING_DISABLED);
+            }
+            return results;
+        }
+        
+        // The session's own registry, so options always belong to the tally they are cast in
+        VoteOptionRegistry options = session.getTally().getOptions();
+        for (VoteRequest vote : votes) {
+            VoteOption option = options.get(vote.option());
+            results.add(option != null
+                    ? castVote(session, vote.playerId(), vote.playerName(), option)
+                    : VoteResult.INVALID_OPTION);
+        }
+        return results;
+    }
+    
     /**
      * Checks if the plugin functionality is enabled
      * 
@@ -406,4 +1281,56 @@ public class TimeVoting extends JavaPlugin implements TimeVotingAPI {
     public UpdateChecker getUpdateChecker() {
         return updateChecker;
     }
+    
+    /**
+     * Does the main-thread work for votes handled by the vote engine
+     */
+    private final class EngineHost implements VoteEngine.Host {
+        @Override
+        public boolean isPrimaryThread() {
+            return scheduler.isOwnerThread();
+        }
+
+        @Override
+        public void runOnMainThread(Runnable task) {
+            // The engine may outlive a disable; queued changes are then simply dropped
+            if (isEnabled()) {
+                scheduler.run(task);
+            }
+        }
+
+        @Override
+        public void voteChanged(VoteSession session, UUID playerId, Ballot previous, Ballot ballot) {
+            if (ballot != null) {
+                stateStore.recordVote(session, playerId, ballot.option());
+            } else {
+                stateStore.recordRemoval(session, playerId);
+            }
+            
+            // A reweighed vote keeps its age; a new or changed one starts its lifetime again
+            if (ballot == null) {
+                expiry.cancel(session, playerId);
+            } else if (previous != null && previous.option() == ballot.option()) {
+                expiry.update(session, playerId, ballot);
+            } else {
+                expiry.schedule(session, playerId, ballot);
+            }
+            
+            if (cluster != null) {
+                if (ballot != null) {
+                    cluster.recordVote(session, previous, ballot);
+                } else {
+                    cluster.recordRemoval(session, previous);
+                }
+            }
+            if (ballot != null) {
+                bossBar.wake();
+            }
+        }
+
+        @Override
+        public void checkThreshold(VoteSession session) {
+            checkVoteThreshold(session);
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,13 @@
+package io.mckenz.timevoting.api;
+
+/**
+ * Whether a world's time is held at a voted time
+ */
+public enum TimeState {
+    /** The world follows its own day cycle */
+    NATURAL,
+    /** The daylight cycle is frozen at a voted time until the configured duration is over */
+    LOCKED,
+    /** The duration is over and the world's previous time and day cycle are being put back */
+    RESTORING
+}
@@ -1,20 +1,48 @@
 package io.mckenz.timevoting.api;
 
+import io.mckenz.timevoting.metrics.Metrics;
+import io.mckenz.timevoting.voting.RoundResult;
+import io.mckenz.timevoting.voting.VoteRound;
+import io.mckenz.timevoting.voting.VoteSnapshot;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 /**
- * API for the TimeVoting plugin
+ * API for the TimeVoting plugin, registered with the Bukkit services manager.
+ * <p>
+ * Methods added after the first release are marked with the {@link #API_VERSION} they
+ * appeared in; plugins can compare {@link #getApiVersion()} against it before calling them.
+ * Events are in {@code io.mckenz.timevoting.api.events}.
  */
 public interface TimeVotingAPI {
-    
+
+    /**
+     * The version of this interface. It is raised whenever methods are added.
+     */
+    int API_VERSION = 5;
+
+    /**
+     * Gets the API version implemented by the installed plugin
+     * 
+     * @return The API version
+     * @since 2
+     */
+    int getApiVersion();
+
     /**
      * Checks if the plugin is enabled
      * 
      * @return True if enabled, false otherwise
      */
     boolean isPluginEnabled();
-    
+
     /**
      * Registers an event listener
      * 
@@ -22,4 +50,150 @@ public interface TimeVotingAPI {
      * @param listener The listener to register
      */
     void registerEvents(Plugin plugin, Listener listener);
-} 
\ No newline at end of file
+
+    /**
+     * Gets the vote counters and timings collected by the plugin
+     * 
+     * @return The metrics, which only change while metrics are enabled in config.yml
+     */
+    Metrics getMetrics();
+
+    /**
+     * Gets the names of the time options that can be voted for
+     * 
+     * @return The option names, in configuration order
+     * @since 2
+     */
+    List<String> getVoteOptionNames();
+
+    /**
+     * Gets the votes cast on this server in a world's vote session
+     * 
+     * @param world The world
+     * @return The number of votes per option name, in configuration order, or an empty map if
+     *         voting is disabled in that world
+     * @since 2
+     */
+    Map<String, Integer> getVoteCounts(World world);
+
+    /**
+     * Gets an immutable copy of the votes and voters in a world's vote session. The same
+     * snapshot is returned until something changes, so polling this every tick is cheap and
+     * {@link VoteSnapshot#getVersion()} tells whether anything changed.
+     * 
+     * @param world The world
+     * @return The snapshot, or null if voting is disabled in that world
+     * @since 2
+     */
+    VoteSnapshot getVoteSnapshot(World world);
+    
+    /**
+     * Gets the option a player voted for in a world's vote session
+     * 
+     * @param playerId The player's UUID
+     * @param world The world
+     * @return The option name, or null if the player has not voted there
+     * @since 2
+     */
+    String getVote(UUID playerId, World world);
+
+    /**
+     * Gets the number of votes an option needs to change the time in a world. With weighted
+     * votes this is a share of the summed weight of the eligible players.
+     * 
+     * @param world The world
+     * @return The required number of votes, or 0 if voting is disabled in that world
+     * @since 2
+     */
+    int getRequiredVotes(World world);
+
+    /**
+     * Gets how long a player has to wait before voting again. Must be called on the main thread.
+     * 
+     * @param playerId The player's UUID
+     * @return The remaining cooldown in seconds, or 0 if the player may vote
+     * @since 2
+     */
+    int getVoteCooldown(UUID playerId);
+
+    /**
+     * Gets how long it will be before a vote can change the time in a world again
+     * 
+     * @param world The world
+     * @return The remaining cooldown in seconds, or 0 if the time may change
+     * @since 2
+     */
+    int getTimeChangeCooldown(World world);
+
+    /**
+     * Submits a vote on behalf of a player, e.g. from a proxy or web bridge. Can be called
+     * from any thread; the threshold check and any time change follow on the main thread.
+     * Vote cooldowns and the minimum player count do not apply, and the player does not need
+     * to be online.
+     * 
+     * @param playerId The voting player's UUID
+     * @param playerName The voting player's name, used in events and the vote history
+     * @param world A world of the vote session to vote in
+     * @param option The name of the time option
+     * @return The result of the vote
+     * @since 2
+     */
+    VoteResult submitVote(UUID playerId, String playerName, World world, String option);
+
+    /**
+     * Submits several votes to the same vote session, with the same rules as
+     * {@link #submitVote}. The session and options are looked up once for the whole batch.
+     * 
+     * @param world A world of the vote session to vote in
+     * @param votes The votes to submit
+     * @return The result of each vote, in the same order
+     * @since 2
+     */
+    List<VoteResult> submitVotes(World world, List<VoteRequest> votes);
+
+    /**
+     * Gets how many votes a player's vote counts as, from the {@code voting.weights} ranks
+     * 
+     * @param playerId The player's UUID
+     * @return The player's vote weight; players who are not online have the default weight
+     * @since 3
+     */
+    int getVoteWeight(UUID playerId);
+
+    /**
+     * Resolves a player's vote weight from their permissions again. Weights are only looked
+     * up when a player joins or changes worlds, so permission plugins and bridges should call
+     * this after changing a player's rank. Must be called on the main thread.
+     * 
+     * @param player The player
+     * @return The player's new vote weight
+     * @since 3
+     */
+    int refreshVoteWeight(Player player);
+
+    /**
+     * Gets the results of the most recent scheduled vote rounds
+     * 
+     * @return The results, oldest first
+     * @since 4
+     */
+    List<RoundResult> getRoundResults();
+
+    /**
+     * Gets the scheduled vote round that is open in a world's session
+     * 
+     * @param world A world of the vote session
+     * @return The open round, or null if no round is open or voting is disabled in the world
+     * @since 4
+     */
+    VoteRound getOpenRound(World world);
+
+    /**
+     * Gets whether a world's time is held at a voted time
+     * 
+     * @param world The world
+     * @return The world's time state, {@link TimeState#NATURAL} unless a vote locked it
+     * @since 5
+     */
+    TimeState getTimeState(World world);
+}
@@ -0,0 +1,13 @@
+package io.mckenz.timevoting.api;
+
+import java.util.UUID;
+
+/**
+ * A vote to submit through {@link TimeVotingAPI#submitVotes}
+ * 
+ * @param playerId The voting player's UUID
+ * @param playerName The voting player's name, used in events and the vote history
+ * @param option The name of the time option voted for
+ */
+public record VoteRequest(UUID playerId, String playerName, String option) {
+}
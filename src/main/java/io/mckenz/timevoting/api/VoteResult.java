@@ -0,0 +1,36 @@
+package io.mckenz.timevoting.api;
+
+/**
+ * Result of a vote submitted through the API
+ */
+public enum VoteResult {
+    /** The player's first vote in the session was counted */
+    CAST(true),
+    /** The player's vote was changed to a different option */
+    CHANGED(true),
+    /** The player had already voted for this option */
+    UNCHANGED(false),
+    /** A listener cancelled the vote */
+    CANCELLED(false),
+    /** The option is not one of the configured time options */
+    INVALID_OPTION(false),
+    /** Voting is turned off, or disabled in the world */
+    VOTING_DISABLED(false),
+    /** The world only votes in scheduled rounds and none is open */
+    ROUND_CLOSED(false);
+
+    private final boolean counted;
+
+    VoteResult(boolean counted) {
+        this.counted = counted;
+    }
+
+    /**
+     * Checks whether the vote now counts towards the option
+     * 
+     * @return true if the vote was cast or changed
+     */
+    public boolean isCounted() {
+        return counted;
+    }
+}
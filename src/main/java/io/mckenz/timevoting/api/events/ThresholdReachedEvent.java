@@ -0,0 +1,82 @@
+package io.mckenz.timevoting.api.events;
+
+import org.bukkit.World;
+import org.bukkit.event.HandlerList;
+
+import java.util.List;
+
+/**
+ * Called on the main thread when an option has enough votes to change the time. Cancelling it
+ * leaves the time and the votes as they are; the threshold is checked again on the next vote.
+ * <p>
+ * It is also called when a scheduled round closes with a leading option, which may have fewer
+ * votes than required. Cancelling it then ends the round without a result.
+ */
+public class ThresholdReachedEvent extends TimeVotingEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final String option;
+    private final int votes;
+    private final int requiredVotes;
+
+    /**
+     * Creates a new threshold reached event
+     * 
+     * @param sessionName The name of the vote session
+     * @param worlds The worlds of the vote session
+     * @param option The option that reached the threshold
+     * @param votes The number of votes for the option
+     * @param requiredVotes The number of votes that were needed
+     */
+    public ThresholdReachedEvent(String sessionName, List<World> worlds, String option, int votes, int requiredVotes) {
+        super(sessionName, worlds, false);
+        this.option = option;
+        this.votes = votes;
+        this.requiredVotes = requiredVotes;
+    }
+
+    /**
+     * Gets the option that reached the threshold
+     * 
+     * @return The option name
+     */
+    public String getOption() {
+        return option;
+    }
+
+    /**
+     * Gets the number of votes for the option, across all servers in a cluster
+     * 
+     * @return The number of votes
+     */
+    public int getVotes() {
+        return votes;
+    }
+
+    /**
+     * Gets the number of votes that were needed
+     * 
+     * @return The required number of votes
+     */
+    public int getRequiredVotes() {
+        return requiredVotes;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+
+    /**
+     * Checks whether any listener would receive this event
+     * 
+     * @return true if at least one listener is registered
+     */
+    public static boolean hasListeners() {
+        return HANDLERS.getRegisteredListeners().length > 0;
+    }
+}
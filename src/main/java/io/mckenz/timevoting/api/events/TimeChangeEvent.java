@@ -0,0 +1,77 @@
+package io.mckenz.timevoting.api.events;
+
+import org.bukkit.World;
+import org.bukkit.event.HandlerList;
+
+import java.util.List;
+
+/**
+ * Called on the main thread before a vote changes the time of a session's worlds. The target
+ * time can be changed; cancelling the event leaves the time alone but still counts the vote
+ * round as finished, so the votes are cleared.
+ */
+public class TimeChangeEvent extends TimeVotingEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final String option;
+    private long time;
+
+    /**
+     * Creates a new time change event
+     * 
+     * @param sessionName The name of the vote session
+     * @param worlds The worlds of the vote session
+     * @param option The option that won the vote
+     * @param time The time the worlds will be set to, in ticks
+     */
+    public TimeChangeEvent(String sessionName, List<World> worlds, String option, long time) {
+        super(sessionName, worlds, false);
+        this.option = option;
+        this.time = time;
+    }
+
+    /**
+     * Gets the option that won the vote
+     * 
+     * @return The option name
+     */
+    public String getOption() {
+        return option;
+    }
+
+    /**
+     * Gets the time the worlds will be set to
+     * 
+     * @return The time of day in ticks (0-24000)
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Sets the time the worlds will be set to
+     * 
+     * @param time The time of day in ticks (0-24000)
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+
+    /**
+     * Checks whether any listener would receive this event
+     * 
+     * @return true if at least one listener is registered
+     */
+    public static boolean hasListeners() {
+        return HANDLERS.getRegisteredListeners().length > 0;
+    }
+}
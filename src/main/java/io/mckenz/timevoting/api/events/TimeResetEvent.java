@@ -0,0 +1,42 @@
+package io.mckenz.timevoting.api.events;
+
+import org.bukkit.World;
+import org.bukkit.event.HandlerList;
+
+import java.util.List;
+
+/**
+ * Called on the main thread when a voted time has lasted its configured duration and the
+ * worlds return to the normal day cycle. Cancelling it suppresses the announcement.
+ */
+public class TimeResetEvent extends TimeVotingEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    /**
+     * Creates a new time reset event
+     * 
+     * @param sessionName The name of the vote session
+     * @param worlds The worlds of the vote session
+     */
+    public TimeResetEvent(String sessionName, List<World> worlds) {
+        super(sessionName, worlds, false);
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+
+    /**
+     * Checks whether any listener would receive this event
+     * 
+     * @return true if at least one listener is registered
+     */
+    public static boolean hasListeners() {
+        return HANDLERS.getRegisteredListeners().length > 0;
+    }
+}
@@ -0,0 +1,61 @@
+package io.mckenz.timevoting.api.events;
+
+import org.bukkit.World;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+
+import java.util.List;
+
+/**
+ * Base class of the cancellable events fired by TimeVoting. Every event belongs to a vote
+ * session: a single world, a world group, or all worlds when they vote together.
+ * <p>
+ * TimeVoting only creates an event when a listener is registered for it, so listening to
+ * these events costs nothing for servers that do not.
+ */
+public abstract class TimeVotingEvent extends Event implements Cancellable {
+    private final String sessionName;
+    private final List<World> worlds;
+    private boolean cancelled;
+
+    /**
+     * Creates a new event
+     * 
+     * @param sessionName The name of the vote session
+     * @param worlds The worlds of the vote session
+     * @param async Whether the event is fired off the main thread
+     */
+    protected TimeVotingEvent(String sessionName, List<World> worlds, boolean async) {
+        super(async);
+        this.sessionName = sessionName;
+        this.worlds = List.copyOf(worlds);
+    }
+
+    /**
+     * Gets the name of the vote session, which is the world name or the world group name
+     * 
+     * @return The session name
+     */
+    public String getSessionName() {
+        return sessionName;
+    }
+
+    /**
+     * Gets the worlds whose time the vote session controls
+     * 
+     * @return An unmodifiable list of the worlds
+     */
+    public List<World> getWorlds() {
+        return worlds;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+}
@@ -0,0 +1,85 @@
+package io.mckenz.timevoting.api.events;
+
+import org.bukkit.World;
+import org.bukkit.event.HandlerList;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Called before a player's first vote in a session is counted. Cancelling it drops the vote;
+ * the player is not told, so the cancelling plugin should explain why.
+ * <p>
+ * Votes can be submitted from any thread through the API, in which case this event is
+ * asynchronous.
+ */
+public class VoteCastEvent extends TimeVotingEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final UUID playerId;
+    private final String playerName;
+    private final String option;
+
+    /**
+     * Creates a new vote cast event
+     * 
+     * @param sessionName The name of the vote session
+     * @param worlds The worlds of the vote session
+     * @param playerId The voting player's UUID
+     * @param playerName The voting player's name
+     * @param option The option voted for
+     * @param async Whether the event is fired off the main thread
+     */
+    public VoteCastEvent(String sessionName, List<World> worlds, UUID playerId, String playerName, String option,
+                         boolean async) {
+        super(sessionName, worlds, async);
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.option = option;
+    }
+
+    /**
+     * Gets the voting player's UUID
+     * 
+     * @return The player's UUID
+     */
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Gets the voting player's name
+     * 
+     * @return The player's name
+     */
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * Gets the option voted for
+     * 
+     * @return The option name
+     */
+    public String getOption() {
+        return option;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+
+    /**
+     * Checks whether any listener would receive this event
+     * 
+     * @return true if at least one listener is registered
+     */
+    public static boolean hasListeners() {
+        return HANDLERS.getRegisteredListeners().length > 0;
+    }
+}
@@ -0,0 +1,298 @@
+package io.mckenz.timevoting.audit;
+
+import io.mckenz.timevoting.config.AuditSettings;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only history of votes and time changes, kept as a series of segment files.
+ * <p>
+ * The main thread only queues records. A background thread takes whatever has queued up,
+ * writes it in one go and flushes once per batch, so a burst of votes costs a single write.
+ * When the current segment is full a new one is started and the oldest segments beyond the
+ * configured limit are deleted. Segment names start with the time of their first record, so
+ * sorting them by name sorts them by time.
+ */
+public final class AuditLog {
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int MAX_BATCH = 512;
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final AuditSettings settings;
+    private final Logger logger;
+    private final BlockingQueue<AuditRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Only touched by the writer thread
+    private OutputStream segment;
+    private long segmentSize;
+
+    /**
+     * Result of a history query
+     * 
+     * @param matches The total number of matching records
+     * @param records The newest matching records, oldest first
+     */
+    public record Result(int matches, List<AuditRecord> records) {
+    }
+
+    /**
+     * Creates a new audit log and starts its writer thread
+     * 
+     * @param directory The directory holding the segment files
+     * @param settings The audit settings
+     * @param logger The logger write failures are reported to
+     */
+    public AuditLog(Path directory, AuditSettings settings, Logger logger) {
+        this.directory = directory;
+        this.settings = settings;
+        this.logger = logger;
+        this.writer = new Thread(this::run, "TimeVoting-Audit");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a record to be written. Never blocks; if the writer has fallen far behind the
+     * record is dropped and counted instead.
+     * 
+     * @param record The record
+     */
+    public void record(AuditRecord record) {
+        if (!queue.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of records dropped because the queue was full
+     * 
+     * @return The number of dropped records
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes all queued records and stops the writer thread
+     */
+    public void close() {
+        running = false;
+        writer.interrupt();
+        
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Finds the newest records matching a filter. Segments are read line by line and only the
+     * newest matches are kept, so the history never has to fit in memory. Does disk I/O and
+     * should not be called from the main thread.
+     * 
+     * @param filter A player or session name to match, case-insensitive, or null for everything
+     * @param since Only include records from this time on, in milliseconds since the epoch
+     * @param limit The maximum number of records to return
+     * @return The matching records
+     */
+    public Result query(String filter, long since, int limit) {
+        ArrayDeque<AuditRecord> newest = new ArrayDeque<>(limit);
+        int matches = 0;
+        
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            // Everything in a segment is older than the start of the next one
+            if (i + 1 < segments.size() && segmentStart(segments.get(i + 1)) < since) {
+                continue;
+            }
+            
+            try (BufferedReader reader = Files.newBufferedReader(segments.get(i), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    AuditRecord record = AuditRecord.parse(line);
+                    if (record == null || record.timestamp() < since || !matches(record, filter)) {
+                        continue;
+                    }
+                    
+                    matches++;
+                    if (newest.size() == limit) {
+                        newest.removeFirst();
+                    }
+                    newest.addLast(record);
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not read vote history segment " + segments.get(i), e);
+            }
+        }
+        
+        return new Result(matches, new ArrayList<>(newest));
+    }
+
+    private static boolean matches(AuditRecord record, String filter) {
+        return filter == null || record.player().equalsIgnoreCase(filter) || record.session().equalsIgnoreCase(filter);
+    }
+
+    private void run() {
+        List<AuditRecord> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder lines = new StringBuilder(4096);
+        
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditRecord first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Woken up by close(); drain what is left
+                if (queue.isEmpty()) {
+                    break;
+                }
+            }
+            
+            // Group commit: everything queued so far goes out in one write and one flush
+            queue.drainTo(batch, MAX_BATCH - batch.size());
+            if (batch.isEmpty()) {
+                continue;
+            }
+            lines.setLength(0);
+            for (AuditRecord record : batch) {
+                record.appendLine(lines);
+            }
+            batch.clear();
+            write(lines.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        
+        closeSegment();
+    }
+
+    private void write(byte[] bytes) {
+        try {
+            if (segment == null) {
+                openLatestSegment();
+            }
+            if (segment == null || segmentSize + bytes.length > settings.segmentBytes()) {
+                rollSegment();
+            }
+            
+            segment.write(bytes);
+            segment.flush();
+            segmentSize += bytes.length;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write vote history", e);
+            closeSegment();
+        }
+    }
+
+    private void openLatestSegment() throws IOException {
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        
+        // Continue the newest segment after a restart instead of starting a small one each time
+        Path latest = segments.get(segments.size() - 1);
+        long size = Files.size(latest);
+        if (size >= settings.segmentBytes()) {
+            return;
+        }
+        
+        segment = new FileOutputStream(latest.toFile(), true);
+        segmentSize = size;
+        
+        // A crash may have cut off the last line; start on a fresh one so the next record stays readable
+        if (size > 0 && !endsWithNewline(latest, size)) {
+            segment.write('\n');
+            segmentSize++;
+        }
+    }
+
+    private static boolean endsWithNewline(Path file, long size) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(size - 1);
+            channel.read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        closeSegment();
+        Files.createDirectories(directory);
+        
+        Path file = directory.resolve(SEGMENT_PREFIX + String.format("%013d", System.currentTimeMillis()) + SEGMENT_SUFFIX);
+        segment = new FileOutputStream(file.toFile(), true);
+        segmentSize = Files.size(file);
+        
+        // Keep at most the configured number of segments, including the new one
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - settings.maxSegments(); i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        
+        try {
+            segment.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not close vote history segment", e);
+        }
+        segment = null;
+    }
+
+    private List<Path> listSegments() {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not list vote history segments", e);
+        }
+        
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long segmentStart(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.mckenz.timevoting.audit;
+
+/**
+ * One event in the vote history. Records are stored one per line with tab-separated fields.
+ * 
+ * @param timestamp When the event happened, in milliseconds since the epoch
+ * @param type What happened
+ * @param session The world or world group the event happened in
+ * @param player The player involved, or an empty string
+ * @param option The time option involved, or the name of the cooldown that blocked a vote
+ * @param votes The number of votes, only set for {@link AuditType#THRESHOLD_REACHED}
+ */
+public record AuditRecord(long timestamp, AuditType type, String session, String player, String option, int votes) {
+    private static final int FIELDS = 6;
+
+    /**
+     * Creates a record of something that happened just now
+     * 
+     * @param type What happened
+     * @param session The world or world group
+     * @param player The player involved, or null
+     * @param option The time option or cooldown name
+     * @param votes The number of votes, or 0
+     * @return The record
+     */
+    public static AuditRecord now(AuditType type, String session, String player, String option, int votes) {
+        return new AuditRecord(System.currentTimeMillis(), type, session,
+                player != null ? player : "", option, votes);
+    }
+
+    /**
+     * Appends this record as one line
+     * 
+     * @param out The builder to append to
+     */
+    void appendLine(StringBuilder out) {
+        out.append(timestamp).append('\t')
+                .append(type.name()).append('\t');
+        appendField(out, session);
+        out.append('\t');
+        appendField(out, player);
+        out.append('\t');
+        appendField(out, option);
+        out.append('\t')
+                .append(votes).append('\n');
+    }
+
+    /**
+     * Parses a line written by {@link #appendLine(StringBuilder)}
+     * 
+     * @param line The line without its line break
+     * @return The record, or null if the line is malformed, e.g. cut off by a crash
+     */
+    static AuditRecord parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != FIELDS) {
+            return null;
+        }
+        
+        try {
+            return new AuditRecord(Long.parseLong(fields[0]), AuditType.valueOf(fields[1]),
+                    fields[2], fields[3], fields[4], Integer.parseInt(fields[5]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void appendField(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            out.append(c == '\t' || c == '\n' || c == '\r' ? ' ' : c);
+        }
+    }
+}
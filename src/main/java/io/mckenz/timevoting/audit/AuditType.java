@@ -0,0 +1,30 @@
+package io.mckenz.timevoting.audit;
+
+import io.mckenz.timevoting.messages.Message;
+
+/**
+ * Kinds of events recorded in the vote history
+ */
+public enum AuditType {
+    VOTE(Message.HISTORY_VOTE),
+    VOTE_CHANGED(Message.HISTORY_VOTE_CHANGED),
+    VOTE_EXPIRED(Message.HISTORY_VOTE_EXPIRED),
+    COOLDOWN_BLOCKED(Message.HISTORY_COOLDOWN),
+    THRESHOLD_REACHED(Message.HISTORY_THRESHOLD),
+    TIME_CHANGED(Message.HISTORY_TIME_CHANGED);
+
+    private final Message message;
+
+    AuditType(Message message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets the message used to show events of this kind in the history
+     * 
+     * @return The history message
+     */
+    public Message getMessage() {
+        return message;
+    }
+}
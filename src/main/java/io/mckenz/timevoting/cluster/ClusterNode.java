@@ -0,0 +1,648 @@
+package io.mckenz.timevoting.cluster;
+
+import io.mckenz.timevoting.config.Settings;
+import io.mckenz.timevoting.voting.Ballot;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteOptionRegistry;
+import io.mckenz.timevoting.voting.VoteSession;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One server in a vote cluster. Local vote changes are collected as deltas and sent once per
+ * tick. The coordinator node adds up the deltas of all nodes, decides when the threshold is
+ * reached and tells every node to change the time.
+ * 
+ * <p>Every node numbers its delta batches. The coordinator applies them strictly in order per
+ * node, drops duplicates, holds back batches that arrive early and asks for a full snapshot if
+ * a gap does not close. Each session also has a round number that increases with every time
+ * change, so deltas counted before a change never leak into the next vote. When the
+ * coordinator first hears from a node (or either side restarted) it sends its current rounds
+ * and the node answers with a snapshot.</p>
+ * 
+ * <p>All methods except {@link #receive(byte[])} must be called from the main thread.</p>
+ */
+public final class ClusterNode {
+    private static final int PROTOCOL_VERSION = 2;
+    private static final byte TYPE_DELTA = 1;
+    private static final byte TYPE_SNAPSHOT = 2;
+    private static final byte TYPE_RESYNC = 3;
+    private static final byte TYPE_TIME_CHANGE = 4;
+
+    private static final int HEARTBEAT_TICKS = 100;
+    private static final int MAX_BUFFERED_BATCHES = 20;
+    private static final long NODE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final String nodeId;
+    private final boolean coordinator;
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final ClusterTransport transport;
+    private final Host host;
+
+    private final Queue<byte[]> inbox = new ConcurrentLinkedQueue<>();
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+    private final Map<String, Integer> rounds = new HashMap<>();
+    private final Map<String, RemoteNode> remotes = new HashMap<>();
+    private long sequence;
+    private int ticksSinceSend;
+
+    /**
+     * Callbacks into the plugin
+     */
+    public interface Host {
+        
+        /**
+         * Gets a local session by name
+         * 
+         * @param name The session name
+         * @return The session, or null if this server has no such session
+         */
+        VoteSession getSession(String name);
+        
+        /**
+         * Gets all local sessions
+         * 
+         * @return The sessions
+         */
+        Iterable<VoteSession> getSessions();
+        
+        /**
+         * Gets the current settings
+         * 
+         * @return The settings
+         */
+        Settings getSettings();
+        
+        /**
+         * Called on the coordinator when remote votes for a session changed
+         * 
+         * @param session The session to check the threshold of
+         */
+        void onRemoteVotes(VoteSession session);
+        
+        /**
+         * Called on other nodes when the coordinator changed the time
+         * 
+         * @param session The session whose time changed
+         * @param option The option that won
+         */
+        void onRemoteTimeChange(VoteSession session, VoteOption option);
+        
+        /**
+         * Logs a debug message
+         * 
+         * @param message The message
+         */
+        void logDebug(String message);
+    }
+
+    /**
+     * Creates a cluster node. Call {@link #open()} to start receiving.
+     * 
+     * @param nodeId The unique id of this node
+     * @param coordinator Whether this node is the coordinator
+     * @param transport The transport to other nodes
+     * @param host The plugin callbacks
+     */
+    public ClusterNode(String nodeId, boolean coordinator, ClusterTransport transport, Host host) {
+        this.nodeId = nodeId;
+        this.coordinator = coordinator;
+        this.transport = transport;
+        this.host = host;
+    }
+
+    /**
+     * Opens the transport and announces this node's voter counts with the next flush
+     */
+    public void open() {
+        transport.open(this::receive);
+        for (VoteSession session : host.getSessions()) {
+            recordVoters(session);
+        }
+    }
+
+    /**
+     * Closes the transport
+     */
+    public void close() {
+        transport.close();
+    }
+
+    /**
+     * Checks whether this node decides when the threshold is reached
+     * 
+     * @return true if this node is the coordinator
+     */
+    public boolean isCoordinator() {
+        return coordinator;
+    }
+
+    /**
+     * Gets the id of this node
+     * 
+     * @return The node id
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Gets the number of other nodes the coordinator currently has votes from
+     * 
+     * @return The number of known remote nodes
+     */
+    public int getRemoteNodeCount() {
+        return remotes.size();
+    }
+
+    /**
+     * Records a local vote being cast, changed or reweighed
+     * 
+     * @param session The session
+     * @param previous The previous ballot, or null
+     * @param ballot The new ballot
+     */
+    public void recordVote(VoteSession session, Ballot previous, Ballot ballot) {
+        if (coordinator) {
+            return;
+        }
+        
+        Pending entry = pending(session.getName());
+        if (previous != null) {
+            entry.delta(previous.option(), -previous.weight());
+        }
+        entry.delta(ballot.option(), ballot.weight());
+    }
+
+    /**
+     * Records a local vote being removed
+     * 
+     * @param session The session
+     * @param ballot The removed ballot
+     */
+    public void recordRemoval(VoteSession session, Ballot ballot) {
+        if (coordinator) {
+            return;
+        }
+        
+        pending(session.getName()).delta(ballot.option(), -ballot.weight());
+    }
+
+    /**
+     * Records that the number or weight of local eligible voters of a session changed
+     * 
+     * @param session The session
+     */
+    public void recordVoters(VoteSession session) {
+        if (!coordinator) {
+            // An entry without deltas still carries the current voter count
+            pending(session.getName());
+        }
+    }
+
+    /**
+     * Queues a message from another node. Safe to call from any thread.
+     * 
+     * @param message The encoded message
+     */
+    public void receive(byte[] message) {
+        inbox.add(message);
+    }
+
+    /**
+     * Processes received messages, then sends this tick's batch of deltas. Call once per tick.
+     */
+    public void tick() {
+        Set<VoteSession> touched = new LinkedHashSet<>();
+        byte[] message;
+        while ((message = inbox.poll()) != null) {
+            try {
+                handle(message, touched);
+            } catch (IOException e) {
+                host.logDebug("Ignoring malformed cluster message: " + e.getMessage());
+            }
+        }
+        
+        if (coordinator) {
+            expireRemotes(touched);
+            for (VoteSession session : touched) {
+                host.onRemoteVotes(session);
+            }
+            return;
+        }
+        
+        // Send an empty batch now and then so the coordinator knows this node is alive
+        ticksSinceSend++;
+        if (!pending.isEmpty() || ticksSinceSend >= HEARTBEAT_TICKS) {
+            flush();
+        }
+    }
+
+    /**
+     * Finds the option that reached the threshold across all nodes. Only meaningful on the coordinator.
+     * 
+     * @param session The local session
+     * @param settings The current settings
+     * @return The passing option, or null
+     */
+    public VoteOption findPassingOption(VoteSession session, Settings settings) {
+        VoteOptionRegistry options = settings.options();
+        int[] totals = getTotals(session, options);
+        int voters = session.getQuorum().getEligibleVoters();
+        int weight = session.getQuorum().getEligibleWeight();
+        
+        for (RemoteNode remote : remotes.values()) {
+            RemoteSession remoteSession = remote.sessions.get(session.getName());
+            if (remoteSession != null) {
+                voters += remoteSession.voters;
+                weight += remoteSession.weight;
+            }
+        }
+        
+        if (voters < settings.minimumPlayers()) {
+            return null;
+        }
+        
+        int leader = -1;
+        for (int i = 0; i < totals.length; i++) {
+            if (totals[i] > 0 && (leader < 0 || totals[i] > totals[leader])) {
+                leader = i;
+            }
+        }
+        
+        return leader >= 0 && totals[leader] >= settings.requiredVotes(weight) ? options.get(leader) : null;
+    }
+
+    /**
+     * Gets the number of votes for an option across all nodes. Only meaningful on the coordinator.
+     * 
+     * @param session The local session
+     * @param option The option
+     * @return The total number of votes
+     */
+    public int getVoteCount(VoteSession session, VoteOption option) {
+        return getTotals(session, session.getTally().getOptions())[option.getId()];
+    }
+
+    private int[] getTotals(VoteSession session, VoteOptionRegistry options) {
+        int[] totals = new int[options.size()];
+        
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = session.getTally().getCount(options.get(i));
+        }
+        for (RemoteNode remote : remotes.values()) {
+            RemoteSession remoteSession = remote.sessions.get(session.getName());
+            if (remoteSession == null) {
+                continue;
+            }
+            for (int i = 0; i < totals.length && i < remoteSession.counts.length; i++) {
+                totals[i] += remoteSession.counts[i];
+            }
+        }
+        
+        return totals;
+    }
+
+    /**
+     * Tells all nodes that the coordinator changed the time and starts a new round
+     * 
+     * @param session The session whose time changed
+     * @param option The winning option
+     */
+    public void announceTimeChange(VoteSession session, VoteOption option) {
+        int round = rounds.merge(session.getName(), 1, Integer::sum);
+        for (RemoteNode remote : remotes.values()) {
+            RemoteSession remoteSession = remote.sessions.get(session.getName());
+            if (remoteSession != null) {
+                Arrays.fill(remoteSession.counts, 0);
+            }
+        }
+        
+        Pending entry = pending.get(session.getName());
+        if (entry != null) {
+            entry.deltas.clear();
+        }
+        
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = header(bytes, TYPE_TIME_CHANGE, 0);
+            out.writeUTF(session.getName());
+            out.writeUTF(option.getName());
+            out.writeInt(round);
+            transport.send(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode time change", e);
+        }
+    }
+
+    private void flush() {
+        ticksSinceSend = 0;
+        
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = header(bytes, TYPE_DELTA, ++sequence);
+            out.writeInt(pending.size());
+            for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+                VoteSession session = host.getSession(entry.getKey());
+                writeSession(out, entry.getKey(), session, entry.getValue().deltas);
+            }
+            pending.clear();
+            
+            transport.send(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode vote deltas", e);
+        }
+    }
+
+    private void sendSnapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = header(bytes, TYPE_SNAPSHOT, ++sequence);
+        
+        int count = 0;
+        for (VoteSession ignored : host.getSessions()) {
+            count++;
+        }
+        out.writeInt(count);
+        
+        for (VoteSession session : host.getSessions()) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            VoteOptionRegistry options = session.getTally().getOptions();
+            for (int i = 0; i < options.size(); i++) {
+                counts.put(options.get(i).getName(), session.getTally().getCount(options.get(i)));
+            }
+            writeSession(out, session.getName(), session, counts);
+        }
+        
+        pending.clear();
+        transport.send(bytes.toByteArray());
+    }
+
+    private void writeSession(DataOutputStream out, String name, VoteSession session,
+                              Map<String, Integer> values) throws IOException {
+        out.writeUTF(name);
+        out.writeInt(rounds.getOrDefault(name, 0));
+        out.writeInt(session != null ? session.getQuorum().getEligibleVoters() : 0);
+        out.writeInt(session != null ? session.getQuorum().getEligibleWeight() : 0);
+        out.writeInt(values.size());
+        for (Map.Entry<String, Integer> value : values.entrySet()) {
+            out.writeUTF(value.getKey());
+            out.writeInt(value.getValue());
+        }
+    }
+
+    private DataOutputStream header(ByteArrayOutputStream bytes, byte type, long seq) throws IOException {
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(PROTOCOL_VERSION);
+        out.writeByte(type);
+        out.writeUTF(nodeId);
+        out.writeLong(epoch);
+        out.writeLong(seq);
+        return out;
+    }
+
+    private void handle(byte[] message, Set<VoteSession> touched) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+        if (in.readUnsignedByte() != PROTOCOL_VERSION) {
+            return;
+        }
+        
+        byte type = in.readByte();
+        String sender = in.readUTF();
+        long senderEpoch = in.readLong();
+        long seq = in.readLong();
+        if (sender.equals(nodeId)) {
+            return;
+        }
+        
+        switch (type) {
+            case TYPE_DELTA:
+            case TYPE_SNAPSHOT:
+                if (coordinator) {
+                    receiveBatch(sender, senderEpoch, seq, type == TYPE_SNAPSHOT, message, touched);
+                }
+                break;
+            case TYPE_RESYNC:
+                if (!coordinator && in.readUTF().equals(nodeId)) {
+                    // The coordinator's rounds are authoritative, even if it restarted and they went down
+                    rounds.clear();
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        rounds.put(in.readUTF(), in.readInt());
+                    }
+                    host.logDebug("Cluster coordinator requested a snapshot");
+                    sendSnapshot();
+                }
+                break;
+            case TYPE_TIME_CHANGE:
+                if (!coordinator) {
+                    receiveTimeChange(in.readUTF(), in.readUTF(), in.readInt());
+                }
+                break;
+            default:
+                host.logDebug("Ignoring unknown cluster message type " + type);
+        }
+    }
+
+    private void receiveBatch(String sender, long senderEpoch, long seq, boolean snapshot,
+                              byte[] message, Set<VoteSession> touched) throws IOException {
+        RemoteNode remote = remotes.get(sender);
+        if (remote == null || remote.epoch != senderEpoch) {
+            // New node, or the node restarted and lost its state
+            remote = new RemoteNode(senderEpoch);
+            remotes.put(sender, remote);
+        }
+        remote.lastSeen = System.nanoTime();
+        
+        if (seq <= remote.lastSeq) {
+            return;
+        }
+        
+        if (snapshot) {
+            remote.sessions.clear();
+            remote.buffered.headMap(seq, true).clear();
+            remote.synced = true;
+            remote.resyncRequested = false;
+        } else if (!remote.synced || seq != remote.lastSeq + 1) {
+            // Hold early batches back until the gap closes, or give up and ask for a snapshot
+            remote.buffered.put(seq, message);
+            if (remote.buffered.size() > MAX_BUFFERED_BATCHES) {
+                remote.buffered.clear();
+                remote.resyncRequested = false;
+            }
+            if (!remote.resyncRequested && (!remote.synced || remote.buffered.isEmpty())) {
+                requestResync(sender);
+                remote.resyncRequested = true;
+            }
+            return;
+        }
+        
+        apply(remote, message, snapshot, touched);
+        remote.lastSeq = seq;
+        
+        // Drain batches that are now in order
+        Iterator<Map.Entry<Long, byte[]>> buffered = remote.buffered.entrySet().iterator();
+        while (buffered.hasNext()) {
+            Map.Entry<Long, byte[]> next = buffered.next();
+            if (next.getKey() != remote.lastSeq + 1) {
+                break;
+            }
+            apply(remote, next.getValue(), false, touched);
+            remote.lastSeq = next.getKey();
+            buffered.remove();
+        }
+    }
+
+    private void apply(RemoteNode remote, byte[] message, boolean snapshot, Set<VoteSession> touched)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+        in.readUnsignedByte();
+        in.readByte();
+        in.readUTF();
+        in.readLong();
+        in.readLong();
+        
+        VoteOptionRegistry options = host.getSettings().options();
+        int sessionCount = in.readInt();
+        for (int s = 0; s < sessionCount; s++) {
+            String name = in.readUTF();
+            int round = in.readInt();
+            int voters = in.readInt();
+            int weight = in.readInt();
+            int valueCount = in.readInt();
+            
+            RemoteSession remoteSession = remote.sessions.computeIfAbsent(name, n -> new RemoteSession(options.size()));
+            remoteSession.voters = voters;
+            remoteSession.weight = weight;
+            
+            // Deltas counted before the last time change belong to a finished vote
+            boolean current = round == rounds.getOrDefault(name, 0);
+            if (snapshot && current) {
+                Arrays.fill(remoteSession.counts, 0);
+            }
+            
+            for (int v = 0; v < valueCount; v++) {
+                VoteOption option = options.get(in.readUTF());
+                int value = in.readInt();
+                if (current && option != null && option.getId() < remoteSession.counts.length) {
+                    remoteSession.counts[option.getId()] += value;
+                }
+            }
+            
+            VoteSession session = host.getSession(name);
+            if (session != null) {
+                touched.add(session);
+            }
+        }
+    }
+
+    private void receiveTimeChange(String sessionName, String optionName, int round) {
+        if (round <= rounds.getOrDefault(sessionName, 0)) {
+            return;
+        }
+        rounds.put(sessionName, round);
+        
+        // Votes not yet sent belong to the finished round
+        Pending entry = pending.get(sessionName);
+        if (entry != null) {
+            entry.deltas.clear();
+        }
+        
+        VoteSession session = host.getSession(sessionName);
+        VoteOption option = host.getSettings().options().get(optionName);
+        if (session != null && option != null) {
+            host.onRemoteTimeChange(session, option);
+        }
+    }
+
+    private void requestResync(String target) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = header(bytes, TYPE_RESYNC, 0);
+        out.writeUTF(target);
+        out.writeInt(rounds.size());
+        for (Map.Entry<String, Integer> round : rounds.entrySet()) {
+            out.writeUTF(round.getKey());
+            out.writeInt(round.getValue());
+        }
+        transport.send(bytes.toByteArray());
+        host.logDebug("Requested a vote snapshot from cluster node " + target);
+    }
+
+    private void expireRemotes(Set<VoteSession> touched) {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, RemoteNode>> iterator = remotes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, RemoteNode> entry = iterator.next();
+            if (now - entry.getValue().lastSeen > NODE_TIMEOUT_NANOS) {
+                host.logDebug("Cluster node " + entry.getKey() + " timed out");
+                for (String name : entry.getValue().sessions.keySet()) {
+                    VoteSession session = host.getSession(name);
+                    if (session != null) {
+                        touched.add(session);
+                    }
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    private Pending pending(String session) {
+        return pending.computeIfAbsent(session, name -> new Pending());
+    }
+
+    /**
+     * Local changes not yet sent
+     */
+    private static final class Pending {
+        private final Map<String, Integer> deltas = new LinkedHashMap<>();
+
+        void delta(VoteOption option, int delta) {
+            deltas.merge(option.getName(), delta, Integer::sum);
+        }
+    }
+
+    /**
+     * What the coordinator knows about another node
+     */
+    private static final class RemoteNode {
+        private final long epoch;
+        private final Map<String, RemoteSession> sessions = new HashMap<>();
+        private final TreeMap<Long, byte[]> buffered = new TreeMap<>();
+        private long lastSeq;
+        private long lastSeen;
+        private boolean synced;
+        private boolean resyncRequested;
+
+        RemoteNode(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * Vote counts of one session on another node
+     */
+    private static final class RemoteSession {
+        private final int[] counts;
+        private int voters;
+        private int weight;
+
+        RemoteSession(int options) {
+            this.counts = new int[options];
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.mckenz.timevoting.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cluster messages between servers. Implementations only move opaque byte arrays;
+ * ordering, duplicates and batching are handled by {@link ClusterNode}.
+ */
+public interface ClusterTransport {
+    
+    /**
+     * Starts delivering messages from other nodes. The receiver may be called from any thread.
+     * 
+     * @param receiver Called with every message received from another node
+     */
+    void open(Consumer<byte[]> receiver);
+    
+    /**
+     * Sends a message to every other node. Delivery is best effort.
+     * 
+     * @param message The encoded message
+     */
+    void send(byte[] message);
+    
+    /**
+     * Stops delivering messages and releases resources
+     */
+    void close();
+}
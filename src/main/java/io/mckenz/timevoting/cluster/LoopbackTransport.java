@@ -0,0 +1,57 @@
+package io.mckenz.timevoting.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory transport connecting nodes in the same JVM, for running several nodes on one
+ * machine. Every node opened on the same {@link Hub} receives the messages of all others.
+ */
+public final class LoopbackTransport implements ClusterTransport {
+    private final Hub hub;
+    private volatile Consumer<byte[]> receiver;
+
+    /**
+     * Creates a transport attached to a hub
+     * 
+     * @param hub The hub shared by all nodes that should see each other
+     */
+    public LoopbackTransport(Hub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void open(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        hub.transports.add(this);
+    }
+
+    @Override
+    public void send(byte[] message) {
+        for (LoopbackTransport transport : hub.transports) {
+            Consumer<byte[]> target = transport.receiver;
+            if (transport != this && target != null) {
+                target.accept(message.clone());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        hub.transports.remove(this);
+        receiver = null;
+    }
+
+    /**
+     * A shared in-memory bus
+     */
+    public static final class Hub {
+        /**
+         * The hub used when the loopback transport is selected in config.yml
+         */
+        public static final Hub DEFAULT = new Hub();
+
+        private final List<LoopbackTransport> transports = new CopyOnWriteArrayList<>();
+    }
+}
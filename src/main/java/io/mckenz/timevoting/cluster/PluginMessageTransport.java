@@ -0,0 +1,89 @@
+package io.mckenz.timevoting.cluster;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Transport using the proxy's plugin messaging {@code Forward} channel. Plugin messages travel
+ * through a player connection, so nothing can be sent while this server has no players online.
+ */
+public final class PluginMessageTransport implements ClusterTransport, PluginMessageListener {
+    private static final String CHANNEL = "BungeeCord";
+    private static final String SUBCHANNEL = "TimeVoting";
+
+    private final Plugin plugin;
+    private volatile Consumer<byte[]> receiver;
+
+    /**
+     * Creates a plugin messaging transport
+     * 
+     * @param plugin The plugin instance used to register channels
+     */
+    public PluginMessageTransport(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void open(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL);
+        plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, CHANNEL, this);
+    }
+
+    @Override
+    public void send(byte[] message) {
+        Iterator<? extends Player> players = plugin.getServer().getOnlinePlayers().iterator();
+        if (!players.hasNext()) {
+            return;
+        }
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(message.length + 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF("Forward");
+            out.writeUTF("ALL");
+            out.writeUTF(SUBCHANNEL);
+            out.writeShort(message.length);
+            out.write(message);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode plugin message", e);
+        }
+        
+        players.next().sendPluginMessage(plugin, CHANNEL, bytes.toByteArray());
+    }
+
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        Consumer<byte[]> target = receiver;
+        if (!CHANNEL.equals(channel) || target == null) {
+            return;
+        }
+        
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            if (!SUBCHANNEL.equals(in.readUTF())) {
+                return;
+            }
+            
+            byte[] payload = new byte[in.readUnsignedShort()];
+            in.readFully(payload);
+            target.accept(payload);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Ignoring malformed cluster message: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        receiver = null;
+        plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, CHANNEL, this);
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, CHANNEL);
+    }
+}
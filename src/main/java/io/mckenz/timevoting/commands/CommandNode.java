@@ -0,0 +1,260 @@
+package io.mckenz.timevoting.commands;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * One command or subcommand in a {@link CommandTree}. A node has an optional permission, an
+ * executor for the arguments after it, subcommands kept in a sorted array and optionally a
+ * list of argument values to complete, such as the vote options.
+ * <p>
+ * Completions are the node's subcommands and argument values in sorted order, so the matches
+ * for a prefix are one contiguous range found by binary search. The sorted list is built once
+ * per permission profile and kept until the tree is invalidated.
+ */
+public final class CommandNode {
+    private static final List<String> NONE = Collections.emptyList();
+
+    private final String name;
+    private final String permission;
+    private final Executor executor;
+    private final Supplier<List<String>> arguments;
+    private final String[] childNames;
+    private final CommandNode[] children;
+    private final Map<Long, List<String>> completions = new ConcurrentHashMap<>();
+    private long permissionMask;
+
+    /**
+     * Runs a command
+     */
+    @FunctionalInterface
+    public interface Executor {
+        /**
+         * Runs the command
+         * 
+         * @param sender The command sender
+         * @param args The arguments after this node's name
+         * @return true if the command was handled
+         */
+        boolean execute(CommandSender sender, String[] args);
+    }
+
+    private CommandNode(Builder builder) {
+        this.name = builder.name;
+        this.permission = builder.permission;
+        this.executor = builder.executor;
+        this.arguments = builder.arguments;
+        
+        List<CommandNode> sorted = new ArrayList<>(builder.children);
+        sorted.sort(Comparator.comparing(CommandNode::getName));
+        this.children = sorted.toArray(new CommandNode[0]);
+        this.childNames = new String[children.length];
+        for (int i = 0; i < children.length; i++) {
+            childNames[i] = children[i].name;
+        }
+    }
+
+    /**
+     * Starts building a node
+     * 
+     * @param name The command or subcommand name, in lower case
+     * @return The builder
+     */
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Gets the command or subcommand name
+     * 
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the permission needed to use or complete this node
+     * 
+     * @return The permission, or null if everyone may use it
+     */
+    public String getPermission() {
+        return permission;
+    }
+
+    /**
+     * Gets the subcommands of this node
+     * 
+     * @return The subcommands, sorted by name
+     */
+    public List<CommandNode> getChildren() {
+        return Collections.unmodifiableList(Arrays.asList(children));
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Finds a subcommand by name
+     * 
+     * @param arg The argument as typed
+     * @return The subcommand, or null if there is none with that name
+     */
+    CommandNode getChild(String arg) {
+        int index = Arrays.binarySearch(childNames, arg.toLowerCase(Locale.ROOT));
+        return index >= 0 ? children[index] : null;
+    }
+
+    /**
+     * Sets the bit of this node's permission in a permission profile
+     * 
+     * @param mask The bit, or 0 if the node needs no permission
+     */
+    void setPermissionMask(long mask) {
+        this.permissionMask = mask;
+    }
+
+    /**
+     * Checks whether a permission profile allows this node
+     * 
+     * @param profile The permissions held, as a bit set
+     * @return true if the node needs no permission or the profile holds it
+     */
+    boolean allows(long profile) {
+        return (profile & permissionMask) == permissionMask;
+    }
+
+    /**
+     * Gets the completions for the last argument
+     * 
+     * @param profile The sender's permission profile
+     * @param prefix The argument typed so far
+     * @return The matching subcommands and argument values, unmodifiable
+     */
+    List<String> complete(long profile, String prefix) {
+        List<String> all = completions.computeIfAbsent(profile, this::buildCompletions);
+        if (prefix.isEmpty() || all.isEmpty()) {
+            return all;
+        }
+        
+        // Everything starting with the prefix sorts between the prefix and the prefix followed by the highest char
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        int from = insertionPoint(all, lower);
+        int to = insertionPoint(all, lower + Character.MAX_VALUE);
+        return from == to ? NONE : all.subList(from, to);
+    }
+
+    /**
+     * Drops the cached completions of this node and its subcommands
+     */
+    void invalidate() {
+        completions.clear();
+        for (CommandNode child : children) {
+            child.invalidate();
+        }
+    }
+
+    private List<String> buildCompletions(long profile) {
+        List<String> values = new ArrayList<>();
+        for (CommandNode child : children) {
+            if (child.allows(profile)) {
+                values.add(child.name);
+            }
+        }
+        if (arguments != null) {
+            for (String argument : arguments.get()) {
+                String lower = argument.toLowerCase(Locale.ROOT);
+                if (!values.contains(lower)) {
+                    values.add(lower);
+                }
+            }
+        }
+        
+        Collections.sort(values);
+        return Collections.unmodifiableList(Arrays.asList(values.toArray(new String[0])));
+    }
+
+    private static int insertionPoint(List<String> sorted, String key) {
+        int index = Collections.binarySearch(sorted, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Builds a {@link CommandNode}
+     */
+    public static final class Builder {
+        private final String name;
+        private final List<CommandNode> children = new ArrayList<>();
+        private String permission;
+        private Executor executor;
+        private Supplier<List<String>> arguments;
+        
+        private Builder(String name) {
+            this.name = name.toLowerCase(Locale.ROOT);
+        }
+        
+        /**
+         * Sets the permission needed to use and complete the node
+         * 
+         * @param permission The permission
+         * @return This builder
+         */
+        public Builder permission(String permission) {
+            this.permission = permission;
+            return this;
+        }
+        
+        /**
+         * Sets what runs when the command stops at this node
+         * 
+         * @param executor The executor
+         * @return This builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+        
+        /**
+         * Sets the argument values completed after this node. They are read again whenever
+         * the tree is invalidated, e.g. on reload.
+         * 
+         * @param arguments The argument values
+         * @return This builder
+         */
+        public Builder arguments(Supplier<List<String>> arguments) {
+            this.arguments = arguments;
+            return this;
+        }
+        
+        /**
+         * Adds a subcommand
+         * 
+         * @param child The subcommand
+         * @return This builder
+         */
+        public Builder child(Builder child) {
+            children.add(child.build());
+            return this;
+        }
+        
+        /**
+         * Builds the node
+         * 
+         * @return The node
+         */
+        public CommandNode build() {
+            return new CommandNode(this);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.mckenz.timevoting.commands;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.scheduler.PluginScheduler;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs and completes a command declared as a tree of {@link CommandNode}s.
+ * <p>
+ * A command walks down the tree as long as its arguments name subcommands and runs the
+ * executor of the deepest node, passing the remaining arguments. Running a command always
+ * checks the sender's permissions directly; completion uses the cached permission profile
+ * and the node's cached completions, so a keystroke costs a few array lookups.
+ */
+public class CommandTree implements CommandExecutor, TabCompleter {
+    private final TimeVoting plugin;
+    private final CommandNode root;
+    private final PermissionProfiles profiles;
+
+    /**
+     * Creates a new command tree
+     * 
+     * @param plugin The plugin instance
+     * @param root The command's root node
+     * @param profiles The permission profiles shared by all commands
+     */
+    public CommandTree(TimeVoting plugin, CommandNode root, PermissionProfiles profiles) {
+        this.plugin = plugin;
+        this.root = root;
+        this.profiles = profiles;
+        registerPermissions(root);
+    }
+
+    /**
+     * Gets the root node
+     * 
+     * @return The root node
+     */
+    public CommandNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Drops all cached completions, e.g. after a reload changed the vote options
+     */
+    public void invalidate() {
+        root.invalidate();
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        // Players' commands arrive on their region's thread on regionized servers
+        PluginScheduler scheduler = plugin.getPluginScheduler();
+        if (!scheduler.isOwnerThread()) {
+            scheduler.run(() -> onCommand(sender, command, label, args));
+            return true;
+        }
+        
+        CommandNode node = root;
+        if (!hasPermission(sender, node)) {
+            sender.sendMessage(plugin.getMessages().prefixed(Message.NO_PERMISSION));
+            return true;
+        }
+        
+        int depth = 0;
+        while (depth < args.length) {
+            CommandNode child = node.getChild(args[depth]);
+            if (child == null) {
+                break;
+            }
+            if (!hasPermission(sender, child)) {
+                sender.sendMessage(plugin.getMessages().prefixed(Message.NO_PERMISSION));
+                return true;
+            }
+            node = child;
+            depth++;
+        }
+        
+        if (node.getExecutor() == null) {
+            return false;
+        }
+        return node.getExecutor().execute(sender, Arrays.copyOfRange(args, depth, args.length));
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        long profile = profiles.get(sender);
+        CommandNode node = root;
+        if (args.length == 0 || !node.allows(profile)) {
+            return Collections.emptyList();
+        }
+        
+        for (int i = 0; i < args.length - 1; i++) {
+            node = node.getChild(args[i]);
+            if (node == null || !node.allows(profile)) {
+                return Collections.emptyList();
+            }
+        }
+        
+        return node.complete(profile, args[args.length - 1]);
+    }
+
+    private static boolean hasPermission(CommandSender sender, CommandNode node) {
+        return node.getPermission() == null || sender.hasPermission(node.getPermission());
+    }
+
+    private void registerPermissions(CommandNode node) {
+        node.setPermissionMask(profiles.register(node.getPermission()));
+        for (CommandNode child : node.getChildren()) {
+            registerPermissions(child);
+        }
+    }
+}
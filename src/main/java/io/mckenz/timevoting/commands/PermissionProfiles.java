@@ -0,0 +1,101 @@
+package io.mckenz.timevoting.commands;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which of the command permissions each player holds, as a bit set, so tab
+ * completion does not ask the permission plugin on every keystroke.
+ * <p>
+ * Bukkit has no event for permission changes, so a player's profile is checked again after a
+ * few seconds, when they leave and on reload.
+ */
+public final class PermissionProfiles {
+    private static final long PROFILE_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final List<String> permissions = new ArrayList<>();
+    private final Map<UUID, Profile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * A player's permissions at one moment
+     */
+    private record Profile(long mask, long checkedAt) {
+    }
+
+    /**
+     * Gets the bit standing for a permission, adding it if it is new
+     * 
+     * @param permission The permission, may be null
+     * @return The bit, or 0 for no permission
+     */
+    long register(String permission) {
+        if (permission == null) {
+            return 0;
+        }
+        
+        int index = permissions.indexOf(permission);
+        if (index < 0) {
+            if (permissions.size() == Long.SIZE) {
+                throw new IllegalStateException("Too many command permissions, at most " + Long.SIZE + " are supported");
+            }
+            permissions.add(permission);
+            index = permissions.size() - 1;
+            profiles.clear();
+        }
+        return 1L << index;
+    }
+
+    /**
+     * Gets the permissions a sender holds
+     * 
+     * @param sender The command sender
+     * @return The permission profile as a bit set
+     */
+    long get(CommandSender sender) {
+        if (!(sender instanceof Player player)) {
+            // The console and command blocks are rare, so they are not worth caching
+            return check(sender);
+        }
+        
+        long now = System.nanoTime();
+        Profile profile = profiles.get(player.getUniqueId());
+        if (profile == null || now - profile.checkedAt() > PROFILE_TTL_NANOS) {
+            profile = new Profile(check(sender), now);
+            profiles.put(player.getUniqueId(), profile);
+        }
+        return profile.mask();
+    }
+
+    /**
+     * Forgets a player's permissions, e.g. when they leave
+     * 
+     * @param playerId The player
+     */
+    public void remove(UUID playerId) {
+        profiles.remove(playerId);
+    }
+
+    /**
+     * Forgets all players' permissions
+     */
+    public void clear() {
+        profiles.clear();
+    }
+
+    private long check(CommandSender sender) {
+        long mask = 0;
+        for (int i = 0; i < permissions.size(); i++) {
+            if (sender.hasPermission(permissions.get(i))) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+}
@@ -1,22 +1,16 @@
 package io.mckenz.timevoting.commands;
 
 import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.messages.Message;
 
-import org.bukkit.GameRule;
 import org.bukkit.World;
-import org.bukkit.command.Command;
-import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
-import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Command handler for the timeforecast command
  */
-public class TimeForecastCommand implements CommandExecutor, TabCompleter {
+public class TimeForecastCommand {
     private final TimeVoting plugin;
 
     /**
@@ -28,15 +22,28 @@ public class TimeForecastCommand implements CommandExecutor, TabCompleter {
         this.plugin = plugin;
     }
 
-    @Override
-    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+    /**
+     * Declares the command: /timeforecast, without arguments
+     * 
+     * @return The command's root node
+     */
+    public CommandNode createCommand() {
+        return CommandNode.builder("timeforecast")
+                .permission("timevoting.forecast")
+                .executor(this::forecast)
+                .build();
+    }
+
+    /**
+     * Shows the forecast of the sender's world
+     * 
+     * @param sender The command sender
+     * @param args The arguments, unused
+     * @return true if the command was handled
+     */
+    private boolean forecast(CommandSender sender, String[] args) {
         if (!plugin.isPluginFunctionalityEnabled()) {
-            sender.sendMessage(plugin.getMessageWithPrefix("plugin-disabled"));
-            return true;
-        }
-        
-        if (!sender.hasPermission("timevoting.forecast")) {
-            sender.sendMessage(plugin.getMessageWithPrefix("no-permission"));
+            sender.sendMessage(plugin.getMessages().prefixed(Message.PLUGIN_DISABLED));
             return true;
         }
         
@@ -48,57 +55,9 @@ public class TimeForecastCommand implements CommandExecutor, TabCompleter {
             world = plugin.getServer().getWorlds().get(0);
         }
         
-        long time = world.getTime();
-        String timeString = getTimeString(time);
-        
-        boolean daylightCycle = world.getGameRuleValue(GameRule.getByName("doDaylightCycle")) != null &&
-                                Boolean.parseBoolean(world.getGameRuleValue(GameRule.getByName("doDaylightCycle")).toString());
-        
-        sender.sendMessage(plugin.getMessageWithPrefix("forecast")
-                .replace("%time%", timeString)
-                .replace("%enabled%", daylightCycle ? "enabled" : "disabled"));
+        // Rendered at most once per tick and world, however often the command is used
+        sender.sendMessage(plugin.getTimeForecast().getForecast(world));
         
         return true;
     }
-
-    /**
-     * Gets a human-readable string for the given time
-     * 
-     * @param time The time in ticks
-     * @return A human-readable string
-     */
-    private String getTimeString(long time) {
-        // Convert to 24-hour format
-        long hours = (time / 1000 + 6) % 24;
-        long minutes = (time % 1000) * 60 / 1000;
-        
-        String ampm = hours >= 12 ? "PM" : "AM";
-        hours = hours % 12;
-        if (hours == 0) {
-            hours = 12;
-        }
-        
-        String timeString = String.format("%d:%02d %s", hours, minutes, ampm);
-        
-        // Add a description
-        if (time >= 0 && time < 1000) {
-            return timeString + " (Sunrise)";
-        } else if (time >= 1000 && time < 6000) {
-            return timeString + " (Day)";
-        } else if (time >= 6000 && time < 12000) {
-            return timeString + " (Day)";
-        } else if (time >= 12000 && time < 13000) {
-            return timeString + " (Sunset)";
-        } else if (time >= 13000 && time < 18000) {
-            return timeString + " (Night)";
-        } else {
-            return timeString + " (Night)";
-        }
-    }
-
-    @Override
-    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-        // No tab completions for this command
-        return new ArrayList<>();
-    }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,22 +1,38 @@
 package io.mckenz.timevoting.commands;
 
 import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.audit.AuditLog;
+import io.mckenz.timevoting.audit.AuditRecord;
+import io.mckenz.timevoting.audit.AuditType;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.messages.Placeholder;
+import io.mckenz.timevoting.metrics.LatencyHistogram;
+import io.mckenz.timevoting.metrics.Metrics;
+import io.mckenz.timevoting.metrics.Operation;
+import io.mckenz.timevoting.metrics.Outcome;
+import io.mckenz.timevoting.voting.CooldownStore;
+import io.mckenz.timevoting.voting.VoteSession;
 
-import org.bukkit.command.Command;
-import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
-import org.bukkit.command.TabCompleter;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Command handler for the timevoting admin command
  */
-public class TimeVotingCommand implements CommandExecutor, TabCompleter {
+public class TimeVotingCommand {
+    private static final int HISTORY_LIMIT = 10;
+    private static final Pattern DURATION = Pattern.compile("(\\d+)([smhdw])");
+    private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+    
     private final TimeVoting plugin;
-    private final List<String> validSubcommands = Arrays.asList("status", "toggle", "reload", "debug");
 
     /**
      * Creates a new time voting command handler
@@ -27,56 +43,62 @@ public class TimeVotingCommand implements CommandExecutor, TabCompleter {
         this.plugin = plugin;
     }
 
-    @Override
-    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-        if (args.length == 0) {
-            showHelp(sender);
-            return true;
-        }
-        
-        String subCommand = args[0].toLowerCase();
-        
-        switch (subCommand) {
-            case "status":
-                return handleStatusCommand(sender);
-            case "toggle":
-                return handleToggleCommand(sender);
-            case "reload":
-                return handleReloadCommand(sender);
-            case "debug":
-                return handleDebugCommand(sender);
-            default:
-                showHelp(sender);
-                return true;
-        }
+    /**
+     * Declares the command and its subcommands, each with its own permission
+     * 
+     * @return The command's root node
+     */
+    public CommandNode createCommand() {
+        return CommandNode.builder("timevoting")
+                .executor(this::showHelp)
+                .child(CommandNode.builder("status")
+                        .permission("timevoting.status")
+                        .executor(this::handleStatusCommand))
+                .child(CommandNode.builder("toggle")
+                        .permission("timevoting.toggle")
+                        .executor(this::handleToggleCommand))
+                .child(CommandNode.builder("reload")
+                        .permission("timevoting.reload")
+                        .executor(this::handleReloadCommand))
+                .child(CommandNode.builder("debug")
+                        .permission("timevoting.debug")
+                        .executor(this::handleDebugCommand))
+                .child(CommandNode.builder("history")
+                        .permission("timevoting.history")
+                        .executor(this::handleHistoryCommand))
+                .child(CommandNode.builder("metrics")
+                        .permission("timevoting.metrics")
+                        .executor(this::handleMetricsCommand)
+                        .child(CommandNode.builder("reset")
+                                .executor(this::handleMetricsResetCommand)))
+                .build();
     }
 
     /**
      * Handles the status subcommand
      * 
      * @param sender The command sender
+     * @param args The arguments after the subcommand, unused
      * @return true if the command was handled
      */
-    private boolean handleStatusCommand(CommandSender sender) {
-        if (!sender.hasPermission("timevoting.status")) {
-            sender.sendMessage(plugin.getMessageWithPrefix("no-permission"));
-            return true;
-        }
+    private boolean handleStatusCommand(CommandSender sender, String[] args) {
+        sender.sendMessage(plugin.getMessages().prefixed(Message.STATUS_HEADER));
+        sender.sendMessage(plugin.getMessages().plain(Message.STATUS_ENABLED,
+                Placeholder.ENABLED, plugin.isPluginFunctionalityEnabled() ? "enabled" : "disabled"));
+        sender.sendMessage(plugin.getMessages().plain(Message.STATUS_DEBUG,
+                Placeholder.DEBUG, plugin.isDebugEnabled() ? "enabled" : "disabled"));
         
-        sender.sendMessage(plugin.getMessageWithPrefix("status-header"));
-        sender.sendMessage(plugin.getMessage("status-enabled")
-                .replace("%enabled%", plugin.isPluginFunctionalityEnabled() ? "enabled" : "disabled"));
-        sender.sendMessage(plugin.getMessage("status-debug")
-                .replace("%debug%", plugin.isDebugEnabled() ? "enabled" : "disabled"));
+        sender.sendMessage(plugin.getMessages().plain(Message.STATUS_ANNOUNCEMENTS,
+                Placeholder.COUNT, plugin.getAnnouncer().getBroadcastsSaved()));
+        CooldownStore cooldowns = plugin.getCooldowns();
+        sender.sendMessage(plugin.getMessages().plain(Message.STATUS_COOLDOWNS,
+                Placeholder.COUNT, cooldowns.size(),
+                Placeholder.EVICTED, cooldowns.getExpiredEvictions()));
         
         // Show vote counts
-        sender.sendMessage(plugin.getMessage("status-votes-header"));
-        List<String> timeTypes = Arrays.asList("day", "night", "sunrise", "sunset");
-        for (String timeType : timeTypes) {
-            sender.sendMessage(plugin.getMessage("status-votes-entry")
-                    .replace("%time%", timeType)
-                    .replace("%votes%", String.valueOf(plugin.getVoteCount(timeType)))
-                    .replace("%required%", String.valueOf(plugin.getRequiredVotes())));
+        sender.sendMessage(plugin.getMessages().plain(Message.STATUS_VOTES_HEADER));
+        for (VoteSession session : plugin.getSessionManager().getSessions()) {
+            sender.sendMessage(plugin.getStatusRenderer().getSessionStatus(session));
         }
         
         return true;
@@ -86,19 +108,15 @@ public class TimeVotingCommand implements CommandExecutor, TabCompleter {
      * Handles the toggle subcommand
      * 
      * @param sender The command sender
+     * @param args The arguments after the subcommand, unused
      * @return true if the command was handled
      */
-    private boolean handleToggleCommand(CommandSender sender) {
-        if (!sender.hasPermission("timevoting.toggle")) {
-            sender.sendMessage(plugin.getMessageWithPrefix("no-permission"));
-            return true;
-        }
-        
+    private boolean handleToggleCommand(CommandSender sender, String[] args) {
         boolean newState = !plugin.isPluginFunctionalityEnabled();
         plugin.setPluginFunctionalityEnabled(newState);
         
-        sender.sendMessage(plugin.getMessageWithPrefix("toggle-success")
-                .replace("%state%", newState ? "enabled" : "disabled"));
+        sender.sendMessage(plugin.getMessages().prefixed(Message.TOGGLE_SUCCESS,
+                Placeholder.STATE, newState ? "enabled" : "disabled"));
         
         return true;
     }
@@ -107,17 +125,16 @@ public class TimeVotingCommand implements CommandExecutor, TabCompleter {
      * Handles the reload subcommand
      * 
      * @param sender The command sender
+     * @param args The arguments after the subcommand, unused
      * @return true if the command was handled
      */
-    private boolean handleReloadCommand(CommandSender sender) {
-        if (!sender.hasPermission("timevoting.reload")) {
-            sender.sendMessage(plugin.getMessageWithPrefix("no-permission"));
-            return true;
+    private boolean handleReloadCommand(CommandSender sender, String[] args) {
+        if (plugin.loadConfig()) {
+            sender.sendMessage(plugin.getMessages().prefixed(Message.RELOAD_SUCCESS));
+        } else {
+            sender.sendMessage(plugin.getMessages().prefixed(Message.RELOAD_FAILED));
         }
         
-        plugin.loadConfig();
-        sender.sendMessage(plugin.getMessageWithPrefix("reload-success"));
-        
         return true;
     }
 
@@ -125,77 +142,219 @@ public class TimeVotingCommand implements CommandExecutor, TabCompleter {
      * Handles the debug subcommand
      * 
      * @param sender The command sender
+     * @param args The arguments after the subcommand, unused
      * @return true if the command was handled
      */
-    private boolean handleDebugCommand(CommandSender sender) {
-        if (!sender.hasPermission("timevoting.debug")) {
-            sender.sendMessage(plugin.getMessageWithPrefix("no-permission"));
+    private boolean handleDebugCommand(CommandSender sender, String[] args) {
+        boolean newState = !plugin.isDebugEnabled();
+        plugin.setDebugEnabled(newState);
+        
+        sender.sendMessage(plugin.getMessages().prefixed(Message.DEBUG_SUCCESS,
+                Placeholder.STATE, newState ? "enabled" : "disabled"));
+        
+        return true;
+    }
+
+    /**
+     * Handles the history subcommand. The history is read on another thread and the result is
+     * sent back from the main thread.
+     * 
+     * @param sender The command sender
+     * @param args The arguments after the subcommand: [player|world] [since]
+     * @return true if the command was handled
+     */
+    private boolean handleHistoryCommand(CommandSender sender, String[] args) {
+        AuditLog auditLog = plugin.getAuditLog();
+        if (auditLog == null) {
+            sender.sendMessage(plugin.getMessages().prefixed(Message.HISTORY_DISABLED));
             return true;
         }
         
-        boolean newState = !plugin.isDebugEnabled();
-        plugin.setDebugEnabled(newState);
+        String filter = null;
+        String sinceArg = null;
+        if (args.length >= 2) {
+            filter = args[0];
+            sinceArg = args[1];
+        } else if (args.length == 1) {
+            if (DURATION.matcher(args[0].toLowerCase(Locale.ROOT)).matches()) {
+                sinceArg = args[0];
+            } else {
+                filter = args[0];
+            }
+        }
         
-        sender.sendMessage(plugin.getMessageWithPrefix("debug-success")
-                .replace("%state%", newState ? "enabled" : "disabled"));
+        long since = 0;
+        if (sinceArg != null) {
+            long duration = parseDuration(sinceArg);
+            if (duration < 0) {
+                sender.sendMessage(plugin.getMessages().prefixed(Message.HISTORY_INVALID_SINCE,
+                        Placeholder.WHEN, sinceArg));
+                return true;
+            }
+            since = System.currentTimeMillis() - duration;
+        }
+        
+        String queryFilter = filter;
+        long querySince = since;
+        plugin.getPluginScheduler().runAsync(() -> {
+            AuditLog.Result result = auditLog.query(queryFilter, querySince, HISTORY_LIMIT);
+            plugin.getPluginScheduler().run(() -> showHistory(sender, result));
+        });
         
         return true;
     }
 
     /**
-     * Shows the help message
+     * Shows the result of a history query
      * 
      * @param sender The command sender
+     * @param result The matching records
      */
-    private void showHelp(CommandSender sender) {
-        sender.sendMessage(plugin.getMessageWithPrefix("help-header"));
+    private void showHistory(CommandSender sender, AuditLog.Result result) {
+        if (result.matches() == 0) {
+            sender.sendMessage(plugin.getMessages().prefixed(Message.HISTORY_EMPTY));
+            return;
+        }
+        
+        sender.sendMessage(plugin.getMessages().prefixed(Message.HISTORY_HEADER,
+                Placeholder.COUNT, result.matches()));
+        for (AuditRecord record : result.records()) {
+            String when = HISTORY_TIME.format(Instant.ofEpochMilli(record.timestamp()));
+            
+            // Threshold events have no player but a vote count
+            boolean threshold = record.type() == AuditType.THRESHOLD_REACHED;
+            sender.sendMessage(plugin.getMessages().plain(record.type().getMessage(),
+                    Placeholder.WHEN, when,
+                    threshold ? Placeholder.VOTES : Placeholder.PLAYER, threshold ? record.votes() : record.player(),
+                    Placeholder.TIME, record.option(),
+                    Placeholder.WORLD, record.session()));
+        }
+    }
+
+    /**
+     * Handles the metrics subcommand
+     * 
+     * @param sender The command sender
+     * @param args The arguments after the subcommand, unused
+     * @return true if the command was handled
+     */
+    private boolean handleMetricsCommand(CommandSender sender, String[] args) {
+        Metrics metrics = plugin.getMetrics();
+        sender.sendMessage(plugin.getMessages().prefixed(Message.METRICS_HEADER,
+                Placeholder.STATE, metrics.isEnabled() ? "enabled" : "disabled"));
+        for (Outcome outcome : Outcome.values()) {
+            sender.sendMessage(plugin.getMessages().plain(Message.METRICS_OUTCOME,
+                    Placeholder.NAME, outcome.getDisplayName(),
+                    Placeholder.COUNT, metrics.getCount(outcome)));
+        }
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram latency = metrics.getLatency(operation);
+            sender.sendMessage(plugin.getMessages().plain(Message.METRICS_LATENCY,
+                    Placeholder.NAME, operation.getDisplayName(),
+                    Placeholder.COUNT, latency.getCount(),
+                    Placeholder.P99, formatNanos(latency.getPercentileNanos(99)),
+                    Placeholder.MAX, formatNanos(latency.getMaxNanos())));
+        }
+        
+        return true;
+    }
+
+    /**
+     * Handles the metrics reset subcommand
+     * 
+     * @param sender The command sender
+     * @param args The arguments after the subcommand, unused
+     * @return true if the command was handled
+     */
+    private boolean handleMetricsResetCommand(CommandSender sender, String[] args) {
+        plugin.getMetrics().reset();
+        sender.sendMessage(plugin.getMessages().prefixed(Message.METRICS_RESET));
+        return true;
+    }
+
+    /**
+     * Formats a duration for display, e.g. 850ns, 12.5µs or 3.2ms
+     * 
+     * @param nanos The duration in nanoseconds
+     * @return The formatted duration
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fµs", nanos / 1_000.0);
+        }
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Parses a duration such as 30m, 2h or 1d
+     * 
+     * @param text The duration
+     * @return The duration in milliseconds, or -1 if it is invalid
+     */
+    private static long parseDuration(String text) {
+        Matcher matcher = DURATION.matcher(text.toLowerCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            return -1;
+        }
+        
+        long amount;
+        try {
+            amount = Long.parseLong(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        
+        switch (matcher.group(2)) {
+            case "s":
+                return TimeUnit.SECONDS.toMillis(amount);
+            case "m":
+                return TimeUnit.MINUTES.toMillis(amount);
+            case "h":
+                return TimeUnit.HOURS.toMillis(amount);
+            case "d":
+                return TimeUnit.DAYS.toMillis(amount);
+            default:
+                return TimeUnit.DAYS.toMillis(amount * 7);
+        }
+    }
+
+    /**
+     * Shows the help message, also used for unknown subcommands
+     * 
+     * @param sender The command sender
+     * @param args The arguments, unused
+     * @return true, the command is always handled
+     */
+    private boolean showHelp(CommandSender sender, String[] args) {
+        sender.sendMessage(plugin.getMessages().prefixed(Message.HELP_HEADER));
         
         if (sender.hasPermission("timevoting.status")) {
-            sender.sendMessage(plugin.getMessage("help-status"));
+            sender.sendMessage(plugin.getMessages().plain(Message.HELP_STATUS));
         }
         
         if (sender.hasPermission("timevoting.toggle")) {
-            sender.sendMessage(plugin.getMessage("help-toggle"));
+            sender.sendMessage(plugin.getMessages().plain(Message.HELP_TOGGLE));
         }
         
         if (sender.hasPermission("timevoting.reload")) {
-            sender.sendMessage(plugin.getMessage("help-reload"));
+            sender.sendMessage(plugin.getMessages().plain(Message.HELP_RELOAD));
         }
         
         if (sender.hasPermission("timevoting.debug")) {
-            sender.sendMessage(plugin.getMessage("help-debug"));
+            sender.sendMessage(plugin.getMessages().plain(Message.HELP_DEBUG));
         }
-    }
-
-    @Override
-    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-        if (args.length == 1) {
-            List<String> completions = new ArrayList<>();
-            String partialArg = args[0].toLowerCase();
-            
-            for (String subCommand : validSubcommands) {
-                if (subCommand.startsWith(partialArg)) {
-                    // Check permissions
-                    if (subCommand.equals("status") && !sender.hasPermission("timevoting.status")) {
-                        continue;
-                    }
-                    if (subCommand.equals("toggle") && !sender.hasPermission("timevoting.toggle")) {
-                        continue;
-                    }
-                    if (subCommand.equals("reload") && !sender.hasPermission("timevoting.reload")) {
-                        continue;
-                    }
-                    if (subCommand.equals("debug") && !sender.hasPermission("timevoting.debug")) {
-                        continue;
-                    }
-                    
-                    completions.add(subCommand);
-                }
-            }
-            
-            return completions;
+        
+        if (sender.hasPermission("timevoting.metrics")) {
+            sender.sendMessage(plugin.getMessages().plain(Message.HELP_METRICS));
         }
         
-        return new ArrayList<>();
+        if (sender.hasPermission("timevoting.history")) {
+            sender.sendMessage(plugin.getMessages().plain(Message.HELP_HISTORY));
+        }
+        
+        return true;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
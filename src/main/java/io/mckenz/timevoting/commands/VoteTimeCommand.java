@@ -1,28 +1,28 @@
 package io.mckenz.timevoting.commands;
 
 import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.api.VoteResult;
+import io.mckenz.timevoting.audit.AuditType;
+import io.mckenz.timevoting.config.Settings;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.messages.Placeholder;
+import io.mckenz.timevoting.metrics.Metrics;
+import io.mckenz.timevoting.metrics.Operation;
+import io.mckenz.timevoting.metrics.Outcome;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteOptionRegistry;
+import io.mckenz.timevoting.voting.VoteSession;
 
-import org.bukkit.Bukkit;
-import org.bukkit.command.Command;
-import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
-import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Command handler for the votetime command
  */
-public class VoteTimeCommand implements CommandExecutor, TabCompleter {
+public class VoteTimeCommand {
     private final TimeVoting plugin;
-    private final Map<UUID, Long> lastVoteTime = new HashMap<>();
-    private final List<String> validTimeTypes = Arrays.asList("day", "night", "sunrise", "sunset");
 
     /**
      * Creates a new vote time command handler
@@ -33,143 +33,162 @@ public class VoteTimeCommand implements CommandExecutor, TabCompleter {
         this.plugin = plugin;
     }
 
-    @Override
-    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-        if (!plugin.isPluginFunctionalityEnabled()) {
-            sender.sendMessage(plugin.getMessageWithPrefix("plugin-disabled"));
-            return true;
-        }
-        
-        if (!(sender instanceof Player)) {
-            sender.sendMessage(plugin.getMessageWithPrefix("player-only"));
-            return true;
-        }
-        
-        Player player = (Player) sender;
-        
-        if (!player.hasPermission("timevoting.vote")) {
-            player.sendMessage(plugin.getMessageWithPrefix("no-permission"));
-            return true;
-        }
-        
-        // Check if there are enough players online
-        int onlinePlayers = Bukkit.getOnlinePlayers().size();
-        int minimumPlayers = plugin.getConfig().getInt("voting.minimum-players", 2);
-        
-        if (onlinePlayers < minimumPlayers) {
-            player.sendMessage(plugin.getMessageWithPrefix("not-enough-players")
-                    .replace("%required%", String.valueOf(minimumPlayers)));
-            return true;
-        }
-        
-        // Check cooldown
-        int voteCooldown = plugin.getConfig().getInt("cooldowns.between-votes", 60);
-        long currentTime = System.currentTimeMillis();
-        
-        if (lastVoteTime.containsKey(player.getUniqueId())) {
-            long lastVote = lastVoteTime.get(player.getUniqueId());
-            long timeElapsed = (currentTime - lastVote) / 1000;
+    /**
+     * Declares the command: /votetime [option], completing the vote options
+     * 
+     * @return The command's root node
+     */
+    public CommandNode createCommand() {
+        return CommandNode.builder("votetime")
+                .permission("timevoting.vote")
+                .executor(this::vote)
+                .arguments(() -> plugin.getVoteOptions().getNames())
+                .build();
+    }
+
+    /**
+     * Shows the vote status or votes for a time option
+     * 
+     * @param sender The command sender
+     * @param args The arguments: [option]
+     * @return true if the command was handled
+     */
+    private boolean vote(CommandSender sender, String[] args) {
+        Metrics metrics = plugin.getMetrics();
+        long start = metrics.start();
+        try {
+            if (!plugin.isPluginFunctionalityEnabled()) {
+                sender.sendMessage(plugin.getMessages().prefixed(Message.PLUGIN_DISABLED));
+                return true;
+            }
             
-            if (timeElapsed < voteCooldown) {
-                player.sendMessage(plugin.getMessageWithPrefix("vote-cooldown")
-                        .replace("%seconds%", String.valueOf(voteCooldown - timeElapsed)));
+            if (!(sender instanceof Player)) {
+                sender.sendMessage(plugin.getMessages().prefixed(Message.PLAYER_ONLY));
                 return true;
             }
-        }
-        
-        // Check time change cooldown
-        int timeChangeCooldown = plugin.getTimeChangeCooldown();
-        if (timeChangeCooldown > 0) {
-            player.sendMessage(plugin.getMessageWithPrefix("change-cooldown")
-                    .replace("%seconds%", String.valueOf(timeChangeCooldown)));
-            return true;
-        }
-        
-        // If no arguments, show current vote status
-        if (args.length == 0) {
-            showVoteStatus(player);
-            return true;
-        }
-        
-        // Check if the time type is valid
-        String timeType = args[0].toLowerCase();
-        if (!validTimeTypes.contains(timeType)) {
-            player.sendMessage(plugin.getMessageWithPrefix("invalid-time"));
-            return true;
-        }
-        
-        // Register the vote
-        boolean isNewVote = plugin.registerVote(player, timeType);
-        
-        // Update the last vote time
-        lastVoteTime.put(player.getUniqueId(), currentTime);
-        
-        // Send messages
-        if (isNewVote) {
-            String previousVote = plugin.getPlayerVote(player.getUniqueId());
             
-            if (previousVote != null) {
-                player.sendMessage(plugin.getMessageWithPrefix("vote-changed")
-                        .replace("%time%", timeType));
+            Player player = (Player) sender;
+            
+            // Check if voting is enabled in this world
+            VoteSession session = plugin.getSession(player.getWorld());
+            if (session == null) {
+                player.sendMessage(plugin.getMessages().prefixed(Message.WORLD_DISABLED));
+                return true;
+            }
+            
+            Settings settings = plugin.getSettings();
+            
+            // Check if there are enough players online
+            int onlinePlayers = session.getQuorum().getEligibleVoters();
+            int minimumPlayers = settings.minimumPlayers();
+            
+            if (onlinePlayers < minimumPlayers) {
+                metrics.count(Outcome.REJECTED_NOT_ENOUGH_PLAYERS);
+                player.sendMessage(plugin.getMessages().prefixed(Message.NOT_ENOUGH_PLAYERS,
+                        Placeholder.REQUIRED, minimumPlayers));
+                return true;
+            }
+            
+            // Check cooldown
+            long currentTime = System.nanoTime();
+            long remaining = plugin.getCooldowns().getRemainingNanos(player.getUniqueId(),
+                    currentTime, settings.voteCooldownNanos());
+            
+            if (remaining > 0) {
+                metrics.count(Outcome.REJECTED_VOTE_COOLDOWN);
+                plugin.recordHistory(AuditType.COOLDOWN_BLOCKED, session, player.getName(), "vote", 0);
+                player.sendMessage(plugin.getMessages().prefixed(Message.VOTE_COOLDOWN,
+                        Placeholder.SECONDS, TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L)));
+                return true;
+            }
+            
+            // Check time change cooldown
+            int timeChangeCooldown = plugin.getTimeChangeCooldown(session);
+            if (timeChangeCooldown > 0) {
+                metrics.count(Outcome.REJECTED_CHANGE_COOLDOWN);
+                plugin.recordHistory(AuditType.COOLDOWN_BLOCKED, session, player.getName(), "time change", 0);
+                player.sendMessage(plugin.getMessages().prefixed(Message.CHANGE_COOLDOWN,
+                        Placeholder.SECONDS, timeChangeCooldown));
+                return true;
+            }
+            
+            // If no arguments, show current vote status
+            if (args.length == 0) {
+                showVoteStatus(player, session);
+                return true;
+            }
+            
+            // Check if the time type is valid
+            VoteOptionRegistry options = plugin.getVoteOptions();
+            VoteOption option = options.get(args[0]);
+            if (option == null) {
+                metrics.count(Outcome.REJECTED_INVALID_OPTION);
+                player.sendMessage(plugin.getMessages().prefixed(Message.INVALID_TIME,
+                        Placeholder.OPTIONS, options.getDisplayList()));
+                return true;
+            }
+            String timeType = option.getName();
+            
+            // Register the vote; a plugin that cancels it is responsible for telling the player
+            VoteResult result = plugin.castVote(session, player.getUniqueId(), player.getName(), option);
+            if (result == VoteResult.CANCELLED) {
+                metrics.count(Outcome.VOTE_CANCELLED);
+                return true;
+            }
+            if (result == VoteResult.ROUND_CLOSED) {
+                metrics.count(Outcome.REJECTED_ROUND_CLOSED);
+                player.sendMessage(plugin.getMessages().prefixed(Message.VOTING_CLOSED));
+                return true;
+            }
+            
+            // Update the last vote time
+            plugin.getCooldowns().record(player.getUniqueId(), currentTime, settings.voteCooldownNanos());
+            plugin.getStateStore().recordCooldown(player.getUniqueId());
+            
+            // Send messages
+            if (result.isCounted()) {
+                metrics.count(result == VoteResult.CHANGED ? Outcome.VOTE_CHANGED : Outcome.VOTE_CAST);
+                if (result == VoteResult.CHANGED) {
+                    player.sendMessage(plugin.getMessages().prefixed(Message.VOTE_CHANGED,
+                            Placeholder.TIME, timeType));
+                } else {
+                    player.sendMessage(plugin.getMessages().prefixed(Message.VOTE_CAST,
+                            Placeholder.TIME, timeType));
+                }
+                
+                // Announce the vote to all players in the session, combined with other recent votes.
+                // A vote that reached the threshold was already cleared with the rest and is not announced.
+                if (session.getTally().getVote(player.getUniqueId()) == option) {
+                    plugin.getAnnouncer().announce(session, option, player.getName());
+                }
             } else {
-                player.sendMessage(plugin.getMessageWithPrefix("vote-cast")
-                        .replace("%time%", timeType));
+                metrics.count(Outcome.VOTE_REPEATED);
+                player.sendMessage(plugin.getMessages().prefixed(Message.VOTE_ALREADY_CAST,
+                        Placeholder.TIME, timeType));
             }
             
-            // Announce the vote to all players
-            Bukkit.broadcastMessage(plugin.getMessageWithPrefix("vote-announcement")
-                    .replace("%player%", player.getName())
-                    .replace("%time%", timeType)
-                    .replace("%votes%", String.valueOf(plugin.getVoteCount(timeType)))
-                    .replace("%required%", String.valueOf(plugin.getRequiredVotes())));
-        } else {
-            player.sendMessage(plugin.getMessageWithPrefix("vote-already-cast")
-                    .replace("%time%", timeType));
+            return true;
+        } finally {
+            metrics.stop(Operation.VOTE_COMMAND, start);
         }
-        
-        return true;
     }
 
     /**
      * Shows the current vote status to a player
      * 
      * @param player The player to show the status to
+     * @param session The session the player votes in
      */
-    private void showVoteStatus(Player player) {
-        player.sendMessage(plugin.getMessageWithPrefix("vote-status-header"));
+    private void showVoteStatus(Player player, VoteSession session) {
+        // The option lines only change with the votes, so they are rendered once per snapshot
+        player.sendMessage(plugin.getStatusRenderer().getVoteStatus(session));
         
-        for (String timeType : validTimeTypes) {
-            int votes = plugin.getVoteCount(timeType);
-            player.sendMessage(plugin.getMessage("vote-status-entry")
-                    .replace("%time%", timeType)
-                    .replace("%votes%", String.valueOf(votes))
-                    .replace("%required%", String.valueOf(plugin.getRequiredVotes())));
-        }
-        
-        String playerVote = plugin.getPlayerVote(player.getUniqueId());
+        VoteOption playerVote = session.getTally().getVote(player.getUniqueId());
         if (playerVote != null) {
-            player.sendMessage(plugin.getMessage("vote-status-your-vote")
-                    .replace("%time%", playerVote));
+            player.sendMessage(plugin.getMessages().plain(Message.VOTE_STATUS_YOUR_VOTE,
+                    Placeholder.TIME, playerVote.getName()));
         } else {
-            player.sendMessage(plugin.getMessage("vote-status-no-vote"));
-        }
-    }
-
-    @Override
-    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-        if (args.length == 1) {
-            List<String> completions = new ArrayList<>();
-            String partialArg = args[0].toLowerCase();
-            
-            for (String timeType : validTimeTypes) {
-                if (timeType.startsWith(partialArg)) {
-                    completions.add(timeType);
-                }
-            }
-            
-            return completions;
+            player.sendMessage(plugin.getMessages().plain(Message.VOTE_STATUS_NO_VOTE));
         }
-        
-        return new ArrayList<>();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package io.mckenz.timevoting.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+
+/**
+ * Settings for the vote history journal, from the {@code audit} section of config.yml
+ * 
+ * @param enabled Whether votes and time changes are recorded
+ * @param segmentBytes The size at which the journal starts a new segment file
+ * @param maxSegments How many segment files are kept before the oldest is deleted
+ */
+public record AuditSettings(boolean enabled, long segmentBytes, int maxSegments) {
+    private static final int DEFAULT_SEGMENT_KB = 1024;
+    private static final int DEFAULT_MAX_SEGMENTS = 16;
+
+    /**
+     * Reads and validates the {@code audit} section
+     * 
+     * @param section The audit section, may be null to use the defaults
+     * @param errors The list validation errors are added to
+     * @return The audit settings
+     */
+    static AuditSettings load(ConfigurationSection section, List<String> errors) {
+        if (section == null) {
+            return new AuditSettings(true, DEFAULT_SEGMENT_KB * 1024L, DEFAULT_MAX_SEGMENTS);
+        }
+        
+        int segmentKb = section.getInt("segment-size-kb", DEFAULT_SEGMENT_KB);
+        int maxSegments = section.getInt("max-segments", DEFAULT_MAX_SEGMENTS);
+        
+        if (segmentKb < 16 || segmentKb > 1024 * 1024) {
+            errors.add("audit.segment-size-kb: must be between 16 and " + (1024 * 1024) + ", was " + segmentKb);
+            segmentKb = DEFAULT_SEGMENT_KB;
+        }
+        if (maxSegments < 1 || maxSegments > 1000) {
+            errors.add("audit.max-segments: must be between 1 and 1000, was " + maxSegments);
+            maxSegments = DEFAULT_MAX_SEGMENTS;
+        }
+        
+        return new AuditSettings(section.getBoolean("enabled", true), segmentKb * 1024L, maxSegments);
+    }
+}
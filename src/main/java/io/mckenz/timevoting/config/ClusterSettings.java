@@ -0,0 +1,58 @@
+package io.mckenz.timevoting.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Settings for sharing votes between several servers, from the {@code cluster} section of config.yml
+ * 
+ * @param enabled Whether cluster mode is enabled
+ * @param nodeId The unique name of this server in the cluster
+ * @param coordinatorId The node id of the server that decides when the threshold is reached
+ * @param transport The transport used to exchange votes, {@code plugin-messaging} or {@code loopback}
+ */
+public record ClusterSettings(boolean enabled, String nodeId, String coordinatorId, String transport) {
+    public static final String TRANSPORT_PLUGIN_MESSAGING = "plugin-messaging";
+    public static final String TRANSPORT_LOOPBACK = "loopback";
+
+    /**
+     * Reads and validates the {@code cluster} section
+     * 
+     * @param section The cluster section, may be null to disable cluster mode
+     * @param errors The list validation errors are added to
+     * @return The cluster settings
+     */
+    static ClusterSettings load(ConfigurationSection section, List<String> errors) {
+        if (section == null || !section.getBoolean("enabled", false)) {
+            return new ClusterSettings(false, "", "", TRANSPORT_PLUGIN_MESSAGING);
+        }
+        
+        String nodeId = section.getString("node-id", "").trim();
+        String coordinatorId = section.getString("coordinator", "").trim();
+        String transport = section.getString("transport", TRANSPORT_PLUGIN_MESSAGING).toLowerCase(Locale.ROOT);
+        
+        if (nodeId.isEmpty()) {
+            errors.add("cluster.node-id: must be set when cluster mode is enabled");
+        }
+        if (coordinatorId.isEmpty()) {
+            errors.add("cluster.coordinator: must be set when cluster mode is enabled");
+        }
+        if (!transport.equals(TRANSPORT_PLUGIN_MESSAGING) && !transport.equals(TRANSPORT_LOOPBACK)) {
+            errors.add("cluster.transport: must be '" + TRANSPORT_PLUGIN_MESSAGING + "' or '"
+                    + TRANSPORT_LOOPBACK + "', was '" + transport + "'");
+        }
+        
+        return new ClusterSettings(true, nodeId, coordinatorId, transport);
+    }
+
+    /**
+     * Checks whether this node is the coordinator
+     * 
+     * @return true if this node decides when the threshold is reached
+     */
+    public boolean isCoordinator() {
+        return nodeId.equals(coordinatorId);
+    }
+}
@@ -0,0 +1,57 @@
+package io.mckenz.timevoting.config;
+
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Settings for the live vote display, from the {@code display} section of config.yml
+ * 
+ * @param bossBar Whether a boss bar shows the leading option while a vote is open
+ * @param updateIntervalTicks The minimum number of ticks between updates sent to players
+ * @param color The boss bar color
+ * @param style The boss bar style
+ */
+public record DisplaySettings(boolean bossBar, int updateIntervalTicks, BarColor color, BarStyle style) {
+    private static final int DEFAULT_UPDATE_INTERVAL = 10;
+
+    /**
+     * Reads and validates the {@code display} section
+     * 
+     * @param section The display section, may be null to use the defaults
+     * @param errors The list validation errors are added to
+     * @return The display settings
+     */
+    static DisplaySettings load(ConfigurationSection section, List<String> errors) {
+        if (section == null) {
+            return new DisplaySettings(true, DEFAULT_UPDATE_INTERVAL, BarColor.YELLOW, BarStyle.SOLID);
+        }
+        
+        int updateInterval = section.getInt("update-interval-ticks", DEFAULT_UPDATE_INTERVAL);
+        if (updateInterval < 1 || updateInterval > 20 * 60) {
+            errors.add("display.update-interval-ticks: must be between 1 and " + (20 * 60) + ", was " + updateInterval);
+            updateInterval = DEFAULT_UPDATE_INTERVAL;
+        }
+        
+        BarColor color = BarColor.YELLOW;
+        String colorName = section.getString("color", color.name());
+        try {
+            color = BarColor.valueOf(colorName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add("display.color: unknown boss bar color '" + colorName + "'");
+        }
+        
+        BarStyle style = BarStyle.SOLID;
+        String styleName = section.getString("style", style.name());
+        try {
+            style = BarStyle.valueOf(styleName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add("display.style: unknown boss bar style '" + styleName + "'");
+        }
+        
+        return new DisplaySettings(section.getBoolean("boss-bar", true), updateInterval, color, style);
+    }
+}
@@ -0,0 +1,101 @@
+package io.mckenz.timevoting.config;
+
+import io.mckenz.timevoting.rounds.CronExpression;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scheduled vote rounds, from the {@code rounds} section of config.yml
+ * 
+ * @param closedBetweenRounds Whether sessions with rounds only accept votes while a round is open
+ * @param rounds The scheduled rounds, in config order
+ */
+public record RoundSettings(boolean closedBetweenRounds, List<Round> rounds) {
+    private static final int TICKS_PER_DAY = 24000;
+    private static final int DEFAULT_DURATION = 60;
+
+    /**
+     * A vote round that opens on a schedule. Exactly one of the triggers is set.
+     * 
+     * @param name The round name from the config
+     * @param world The world whose session the round is held in
+     * @param atTime The time of day in ticks the round opens at, or -1 to use the cron expression
+     * @param cron The real-time schedule the round opens on, or null to use the time of day
+     * @param durationTicks How long the round stays open in ticks
+     */
+    public record Round(String name, String world, int atTime, CronExpression cron, long durationTicks) {
+    }
+
+    /**
+     * Reads and validates the {@code rounds} section
+     * 
+     * @param section The rounds section, may be null for no rounds
+     * @param errors The list validation errors are added to
+     * @return The round settings
+     */
+    static RoundSettings load(ConfigurationSection section, List<String> errors) {
+        if (section == null) {
+            return new RoundSettings(true, List.of());
+        }
+        
+        List<Round> rounds = new ArrayList<>();
+        ConfigurationSection schedule = section.getConfigurationSection("schedule");
+        if (schedule != null) {
+            for (String name : schedule.getKeys(false)) {
+                Round round = loadRound(name, schedule.getConfigurationSection(name), errors);
+                if (round != null) {
+                    rounds.add(round);
+                }
+            }
+        }
+        
+        return new RoundSettings(section.getBoolean("close-between-rounds", true), List.copyOf(rounds));
+    }
+
+    private static Round loadRound(String name, ConfigurationSection section, List<String> errors) {
+        String path = "rounds.schedule." + name;
+        if (section == null) {
+            errors.add(path + ": expected a section with world, duration and at-time or cron");
+            return null;
+        }
+        
+        String world = section.getString("world");
+        if (world == null || world.isEmpty()) {
+            errors.add(path + ".world: a world is required");
+            return null;
+        }
+        
+        int duration = section.getInt("duration", DEFAULT_DURATION);
+        if (duration < 1 || duration > 60 * 60) {
+            errors.add(path + ".duration: must be between 1 and " + (60 * 60) + ", was " + duration);
+            return null;
+        }
+        
+        boolean hasTime = section.isSet("at-time");
+        boolean hasCron = section.isSet("cron");
+        if (hasTime == hasCron) {
+            errors.add(path + ": set either at-time or cron");
+            return null;
+        }
+        
+        if (hasTime) {
+            int atTime = section.getInt("at-time", -1);
+            if (!section.isInt("at-time") || atTime < 0 || atTime >= TICKS_PER_DAY) {
+                errors.add(path + ".at-time: must be a tick of the day between 0 and " + (TICKS_PER_DAY - 1)
+                        + ", was '" + section.get("at-time") + "'");
+                return null;
+            }
+            return new Round(name, world, atTime, null, duration * 20L);
+        }
+        
+        try {
+            return new Round(name, world, -1, CronExpression.parse(section.getString("cron", "")), duration * 20L);
+        } catch (IllegalArgumentException e) {
+            errors.add(path + ".cron: " + e.getMessage());
+            return null;
+        }
+    }
+}
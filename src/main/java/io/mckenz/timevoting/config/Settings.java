@@ -0,0 +1,176 @@
+package io.mckenz.timevoting.config;
+
+import io.mckenz.timevoting.messages.Messages;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteOptionRegistry;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable, validated snapshot of config.yml. A new snapshot is built on every load and
+ * published as a whole, so runtime code never reads the configuration tree.
+ * 
+ * @param thresholdPercentage Percentage of online players needed to change the time (0-100)
+ * @param minimumPlayers Minimum number of online players required for voting
+ * @param voteLifetimeTicks How long a vote counts before it expires in ticks, 0 to keep votes until the time changes
+ * @param durationTicks How long a voted time lasts in ticks, 0 to disable
+ * @param changeCooldownNanos Cooldown between time changes in nanoseconds
+ * @param voteCooldownNanos Cooldown between votes of the same player in nanoseconds
+ * @param tickBudgetNanos Main-thread time per tick that may be spent changing world time
+ * @param fastForwardTicks Ticks over which time is advanced to the voted time, 0 to jump instantly
+ * @param announcementWindowTicks Ticks over which vote announcements are combined, 0 to disable
+ * @param options The time options that can be voted for
+ * @param worlds Which worlds vote together and which are excluded
+ * @param cluster How votes are shared with other servers
+ * @param audit How the vote history is recorded
+ * @param display How the vote progress is shown while a vote is open
+ * @param weights How much each player's vote counts
+ * @param rounds When scheduled vote rounds open
+ * @param metricsEnabled Whether vote counters and timings are collected
+ * @param messages The compiled messages
+ * @param updateCheckerEnabled Whether the update checker is enabled
+ * @param updateResourceId The SpigotMC resource ID used by the update checker
+ * @param notifyAdmins Whether to notify admins about updates when they join
+ */
+public record Settings(
+        int thresholdPercentage,
+        int minimumPlayers,
+        long voteLifetimeTicks,
+        long durationTicks,
+        long changeCooldownNanos,
+        long voteCooldownNanos,
+        long tickBudgetNanos,
+        int fastForwardTicks,
+        long announcementWindowTicks,
+        VoteOptionRegistry options,
+        WorldSettings worlds,
+        ClusterSettings cluster,
+        AuditSettings audit,
+        DisplaySettings display,
+        WeightSettings weights,
+        RoundSettings rounds,
+        boolean metricsEnabled,
+        Messages messages,
+        boolean updateCheckerEnabled,
+        int updateResourceId,
+        boolean notifyAdmins) {
+
+    private static final long TICKS_PER_DAY = 24000L;
+
+    /**
+     * Validates the configuration and builds a settings snapshot
+     * 
+     * @param config The loaded configuration
+     * @return The settings
+     * @throws InvalidConfigurationException If any value is missing its expected type or out of range,
+     *         with every problem listed in the message
+     */
+    public static Settings load(ConfigurationSection config) throws InvalidConfigurationException {
+        List<String> errors = new ArrayList<>();
+        
+        int thresholdPercentage = readInt(config, "voting.threshold-percentage", 50, 0, 100, errors);
+        int minimumPlayers = readInt(config, "voting.minimum-players", 2, 0, Integer.MAX_VALUE, errors);
+        int voteLifetime = readInt(config, "voting.vote-lifetime", 0, 0, 24 * 60 * 60, errors);
+        int duration = readInt(config, "time.duration", 300, 0, Integer.MAX_VALUE, errors);
+        int changeCooldown = readInt(config, "cooldowns.between-changes", 300, 0, Integer.MAX_VALUE, errors);
+        int voteCooldown = readInt(config, "cooldowns.between-votes", 60, 0, Integer.MAX_VALUE, errors);
+        int tickBudget = readInt(config, "time-application.tick-budget-micros", 500, 1, 50_000, errors);
+        int fastForwardTicks = readInt(config, "time-application.fast-forward-ticks", 0, 0, 20 * 60, errors);
+        int announcementWindow = readInt(config, "announcements.window-ticks", 40, 0, 20 * 60, errors);
+        int resourceId = readInt(config, "update-checker.resource-id", 0, 0, Integer.MAX_VALUE, errors);
+        
+        VoteOptionRegistry options = VoteOptionRegistry.fromConfig(config.getConfigurationSection("time"));
+        if (options.size() == 0) {
+            errors.add("time: no time options are defined (e.g. 'day: 1000')");
+        }
+        for (int i = 0; i < options.size(); i++) {
+            VoteOption option = options.get(i);
+            if (option.getTicks() < 0 || option.getTicks() > TICKS_PER_DAY) {
+                errors.add("time." + option.getName() + ": must be between 0 and " + TICKS_PER_DAY
+                        + " ticks, was " + option.getTicks());
+            }
+        }
+        
+        WorldSettings worlds = WorldSettings.load(config.getConfigurationSection("worlds"), errors);
+        ClusterSettings cluster = ClusterSettings.load(config.getConfigurationSection("cluster"), errors);
+        AuditSettings audit = AuditSettings.load(config.getConfigurationSection("audit"), errors);
+        DisplaySettings display = DisplaySettings.load(config.getConfigurationSection("display"), errors);
+        WeightSettings weights = WeightSettings.load(config.getConfigurationSection("voting.weights"), errors);
+        RoundSettings rounds = RoundSettings.load(config.getConfigurationSection("rounds"), errors);
+        
+        if (!errors.isEmpty()) {
+            throw new InvalidConfigurationException(String.join("; ", errors));
+        }
+        
+        return new Settings(
+                thresholdPercentage,
+                minimumPlayers,
+                voteLifetime * 20L,
+                duration * 20L,
+                TimeUnit.SECONDS.toNanos(changeCooldown),
+                TimeUnit.SECONDS.toNanos(voteCooldown),
+                TimeUnit.MICROSECONDS.toNanos(tickBudget),
+                fastForwardTicks,
+                announcementWindow,
+                options,
+                worlds,
+                cluster,
+                audit,
+                display,
+                weights,
+                rounds,
+                config.getBoolean("metrics.enabled", true),
+                Messages.compile(config.getConfigurationSection("messages")),
+                config.getBoolean("update-checker.enabled", true),
+                resourceId,
+                config.getBoolean("update-checker.notify-admins", true));
+    }
+
+    /**
+     * Returns a copy of these settings using another option registry
+     * 
+     * @param options The option registry to use
+     * @return The new settings
+     */
+    public Settings withOptions(VoteOptionRegistry options) {
+        return new Settings(thresholdPercentage, minimumPlayers, voteLifetimeTicks, durationTicks, changeCooldownNanos,
+                voteCooldownNanos, tickBudgetNanos, fastForwardTicks, announcementWindowTicks, options, worlds, cluster, audit, display, weights, rounds, metricsEnabled, messages, updateCheckerEnabled, updateResourceId, notifyAdmins);
+    }
+
+    /**
+     * Gets the number of votes needed to change the time. With weighted votes both sides are
+     * weights: the summed weight of the votes has to reach this share of the eligible weight.
+     * 
+     * @param eligibleWeight The summed vote weight of the players who can vote
+     * @return The required number of votes, at least 1
+     */
+    public int requiredVotes(int eligibleWeight) {
+        return Math.max(1, (int) ((thresholdPercentage * (long) eligibleWeight + 99) / 100));
+    }
+
+    private static int readInt(ConfigurationSection config, String path, int def, int min, int max,
+                               List<String> errors) {
+        if (!config.isSet(path)) {
+            return def;
+        }
+        
+        if (!config.isInt(path)) {
+            errors.add(path + ": expected a whole number, was '" + config.get(path) + "'");
+            return def;
+        }
+        
+        int value = config.getInt(path);
+        if (value < min || value > max) {
+            errors.add(path + ": must be " + (max == Integer.MAX_VALUE ? "at least " + min
+                    : "between " + min + " and " + max) + ", was " + value);
+            return def;
+        }
+        
+        return value;
+    }
+}
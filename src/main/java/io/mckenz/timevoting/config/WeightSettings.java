@@ -0,0 +1,70 @@
+package io.mckenz.timevoting.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How much each player's vote counts, from the {@code voting.weights} section of config.yml
+ * 
+ * @param defaultWeight The weight of players without any of the rank permissions
+ * @param ranks The weighted ranks, in config order
+ */
+public record WeightSettings(int defaultWeight, List<Rank> ranks) {
+    private static final String PERMISSION_PREFIX = "timevoting.weight.";
+    private static final String DEFAULT_KEY = "default";
+    private static final int MAX_WEIGHT = 1000;
+
+    /**
+     * A rank whose players' votes count differently
+     * 
+     * @param name The rank name from the config
+     * @param permission The permission that puts a player in this rank
+     * @param weight The weight of a vote
+     */
+    public record Rank(String name, String permission, int weight) {
+    }
+
+    /**
+     * Reads and validates the {@code voting.weights} section
+     * 
+     * @param section The weights section, may be null to give every vote a weight of 1
+     * @param errors The list validation errors are added to
+     * @return The weight settings
+     */
+    static WeightSettings load(ConfigurationSection section, List<String> errors) {
+        if (section == null) {
+            return new WeightSettings(1, List.of());
+        }
+        
+        int defaultWeight = readWeight(section, DEFAULT_KEY, 1, errors);
+        List<Rank> ranks = new ArrayList<>();
+        for (String name : section.getKeys(false)) {
+            if (!name.equals(DEFAULT_KEY)) {
+                ranks.add(new Rank(name, PERMISSION_PREFIX + name, readWeight(section, name, defaultWeight, errors)));
+            }
+        }
+        
+        return new WeightSettings(defaultWeight, List.copyOf(ranks));
+    }
+
+    private static int readWeight(ConfigurationSection section, String key, int def, List<String> errors) {
+        if (!section.isSet(key)) {
+            return def;
+        }
+        
+        if (!section.isInt(key)) {
+            errors.add("voting.weights." + key + ": expected a whole number, was '" + section.get(key) + "'");
+            return def;
+        }
+        
+        int weight = section.getInt(key);
+        if (weight < 0 || weight > MAX_WEIGHT) {
+            errors.add("voting.weights." + key + ": must be between 0 and " + MAX_WEIGHT + ", was " + weight);
+            return def;
+        }
+        
+        return weight;
+    }
+}
@@ -0,0 +1,89 @@
+package io.mckenz.timevoting.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settings deciding which worlds vote together, from the {@code worlds} section of config.yml
+ * 
+ * @param perWorld Whether ungrouped worlds each get their own vote instead of sharing one
+ * @param excluded Names of worlds where voting is disabled and time is never changed
+ * @param groups Map of world name to the name of the group it belongs to
+ */
+public record WorldSettings(boolean perWorld, Set<String> excluded, Map<String, String> groups) {
+    /**
+     * Name of the session shared by all ungrouped worlds in global mode
+     */
+    public static final String GLOBAL_SESSION = "global";
+
+    /**
+     * Reads and validates the {@code worlds} section
+     * 
+     * @param section The worlds section, may be null to use defaults
+     * @param errors The list validation errors are added to
+     * @return The world settings
+     */
+    static WorldSettings load(ConfigurationSection section, List<String> errors) {
+        if (section == null) {
+            return new WorldSettings(false, Collections.emptySet(), Collections.emptyMap());
+        }
+        
+        String mode = section.getString("mode", "global").toLowerCase(Locale.ROOT);
+        boolean perWorld = mode.equals("per-world");
+        if (!perWorld && !mode.equals("global")) {
+            errors.add("worlds.mode: must be 'global' or 'per-world', was '" + mode + "'");
+        }
+        
+        Set<String> excluded = new HashSet<>(section.getStringList("excluded"));
+        Map<String, String> groups = new HashMap<>();
+        
+        ConfigurationSection groupSection = section.getConfigurationSection("groups");
+        if (groupSection != null) {
+            for (String group : groupSection.getKeys(false)) {
+                if (group.equalsIgnoreCase(GLOBAL_SESSION)) {
+                    errors.add("worlds.groups." + group + ": '" + GLOBAL_SESSION + "' is a reserved name");
+                    continue;
+                }
+                
+                for (String world : groupSection.getStringList(group)) {
+                    String previous = groups.put(world, group);
+                    if (previous != null) {
+                        errors.add("worlds.groups: world '" + world + "' is in both '" + previous
+                                + "' and '" + group + "'");
+                    }
+                    if (excluded.contains(world)) {
+                        errors.add("worlds.groups." + group + ": world '" + world + "' is also excluded");
+                    }
+                }
+            }
+        }
+        
+        return new WorldSettings(perWorld, Collections.unmodifiableSet(excluded), Collections.unmodifiableMap(groups));
+    }
+
+    /**
+     * Resolves the name of the vote session a world belongs to
+     * 
+     * @param worldName The world name
+     * @return The session name, or null if the world is excluded from voting
+     */
+    public String sessionFor(String worldName) {
+        if (excluded.contains(worldName)) {
+            return null;
+        }
+        
+        String group = groups.get(worldName);
+        if (group != null) {
+            return group;
+        }
+        
+        return perWorld ? worldName : GLOBAL_SESSION;
+    }
+}
@@ -0,0 +1,191 @@
+package io.mckenz.timevoting.display;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.config.DisplaySettings;
+import io.mckenz.timevoting.config.Settings;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.messages.Placeholder;
+import io.mckenz.timevoting.scheduler.PluginTask;
+import io.mckenz.timevoting.voting.SessionManager;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteSession;
+import io.mckenz.timevoting.voting.VoteSnapshot;
+
+import org.bukkit.World;
+import org.bukkit.boss.BossBar;
+import org.bukkit.entity.Player;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shows the leading option's progress towards the required votes in a boss bar while a vote
+ * is open, one bar per session shared by all its players.
+ * <p>
+ * Nothing runs while nobody votes. The first vote starts a timer that runs once per update
+ * interval, which caps how often players get updates. Each run compares every session's
+ * snapshot version with the one last shown and only touches bars whose votes or voters
+ * changed; a bar is only sent the title or progress that actually differs. When a session
+ * has no votes left its bar is hidden and dropped, and once no bars remain the timer stops.
+ * Must only be used on the main thread.
+ */
+public class VoteBossBar {
+    private final TimeVoting plugin;
+    private final Map<VoteSession, Bar> bars = new IdentityHashMap<>();
+    private PluginTask task;
+
+    /**
+     * A session's boss bar and what it currently shows
+     */
+    private static final class Bar {
+        private final BossBar bossBar;
+        private final DisplaySettings display;
+        private final Set<Player> viewers = new HashSet<>();
+        private long version = -1;
+        private Settings settings;
+        
+        private Bar(BossBar bossBar, DisplaySettings display) {
+            this.bossBar = bossBar;
+            this.display = display;
+        }
+    }
+
+    /**
+     * Creates a new boss bar display
+     * 
+     * @param plugin The plugin instance
+     */
+    public VoteBossBar(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts the update timer if it is not running, e.g. after a vote was cast
+     */
+    public void wake() {
+        if (task != null || !plugin.getSettings().display().bossBar()) {
+            return;
+        }
+        
+        long interval = plugin.getSettings().display().updateIntervalTicks();
+        task = plugin.getPluginScheduler().runTimer(this::refresh, 1L, interval);
+    }
+
+    /**
+     * Gets the number of boss bars currently shown
+     * 
+     * @return The number of sessions with a visible bar
+     */
+    public int getActiveBars() {
+        return bars.size();
+    }
+
+    /**
+     * Hides every bar and stops the update timer
+     */
+    public void shutdown() {
+        stop();
+        for (Bar bar : bars.values()) {
+            bar.bossBar.removeAll();
+        }
+        bars.clear();
+    }
+
+    private void refresh() {
+        Settings settings = plugin.getSettings();
+        SessionManager sessions = plugin.getSessionManager();
+        if (!settings.display().bossBar() || sessions == null) {
+            shutdown();
+            return;
+        }
+        
+        // Drop bars of sessions replaced by a reload, and bars whose look was reconfigured
+        Iterator<Map.Entry<VoteSession, Bar>> iterator = bars.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<VoteSession, Bar> entry = iterator.next();
+            if (sessions.getSession(entry.getKey().getName()) != entry.getKey()
+                    || !entry.getValue().display.equals(settings.display())) {
+                entry.getValue().bossBar.removeAll();
+                iterator.remove();
+            }
+        }
+        
+        for (VoteSession session : sessions.getSessions()) {
+            VoteSnapshot snapshot = session.getSnapshot();
+            Bar bar = bars.get(session);
+            
+            if (snapshot.getLeader() == null) {
+                if (bar != null) {
+                    bar.bossBar.removeAll();
+                    bars.remove(session);
+                }
+                continue;
+            }
+            
+            if (bar == null) {
+                bar = new Bar(plugin.getServer().createBossBar("", settings.display().color(),
+                        settings.display().style()), settings.display());
+                bars.put(session, bar);
+            } else if (bar.version == snapshot.getVersion() && bar.settings == settings) {
+                continue;
+            }
+            
+            show(bar, session, snapshot, settings);
+        }
+        
+        if (bars.isEmpty()) {
+            stop();
+        }
+    }
+
+    private void show(Bar bar, VoteSession session, VoteSnapshot snapshot, Settings settings) {
+        VoteOption leader = snapshot.getLeader();
+        int votes = snapshot.getCount(leader);
+        int required = snapshot.getRequiredVotes(settings);
+        
+        String title = settings.messages().plain(Message.BOSS_BAR,
+                Placeholder.TIME, leader.getName(),
+                Placeholder.VOTES, votes,
+                Placeholder.REQUIRED, required);
+        double progress = Math.min(1.0, (double) votes / required);
+        
+        if (!title.equals(bar.bossBar.getTitle())) {
+            bar.bossBar.setTitle(title);
+        }
+        if (progress != bar.bossBar.getProgress()) {
+            bar.bossBar.setProgress(progress);
+        }
+        
+        // Voters only change with joins, quits and world changes, which also bump the version
+        Set<Player> current = new HashSet<>();
+        for (World world : session.getWorlds()) {
+            current.addAll(world.getPlayers());
+        }
+        for (Player player : current) {
+            if (bar.viewers.add(player)) {
+                bar.bossBar.addPlayer(player);
+            }
+        }
+        Iterator<Player> viewers = bar.viewers.iterator();
+        while (viewers.hasNext()) {
+            Player player = viewers.next();
+            if (!current.contains(player)) {
+                bar.bossBar.removePlayer(player);
+                viewers.remove();
+            }
+        }
+        
+        bar.version = snapshot.getVersion();
+        bar.settings = settings;
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package io.mckenz.timevoting.expiry;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel counting in ticks. Four levels of 64 slots cover delays of up to
+ * 64<sup>4</sup> ticks (about nine days); longer delays are cut to that.
+ * <p>
+ * Scheduling, rescheduling and cancelling a timer only link or unlink it from a slot, and
+ * advancing by one tick only looks at the slot that is due, so the cost per tick does not grow
+ * with the number of timers. A timer far in the future sits in a coarse slot of a higher level
+ * and moves down a level each time that slot comes up, at most three times in its life.
+ * Timers are reused on reschedule, so a timer that is pushed back again and again never
+ * allocates. Not thread-safe.
+ * 
+ * @param <T> The type of value the timers carry
+ */
+public final class TimingWheel<T> {
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final Timer<T>[] slots;
+    private long now;
+    private int size;
+
+    /**
+     * A scheduled value. Timers are linked into their slot directly, so the wheel never
+     * searches for one.
+     * 
+     * @param <T> The type of the value
+     */
+    public static final class Timer<T> {
+        private final T value;
+        private long deadline;
+        private Timer<T> previous;
+        private Timer<T> next;
+        
+        private Timer(T value) {
+            this.value = value;
+        }
+        
+        /**
+         * Gets the value this timer carries
+         * 
+         * @return The value
+         */
+        public T getValue() {
+            return value;
+        }
+        
+        /**
+         * Checks whether this timer is waiting to fire
+         * 
+         * @return true if the timer is scheduled
+         */
+        public boolean isScheduled() {
+            return previous != null;
+        }
+    }
+
+    /**
+     * Creates an empty wheel at tick 0
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel() {
+        this.slots = new Timer[LEVELS * SLOTS];
+        for (int i = 0; i < slots.length; i++) {
+            Timer<T> head = new Timer<>(null);
+            head.previous = head;
+            head.next = head;
+            slots[i] = head;
+        }
+    }
+
+    /**
+     * Schedules a new timer
+     * 
+     * @param value The value handed back when the timer fires
+     * @param delayTicks The number of ticks until it fires, at least 1
+     * @return The timer, which can be rescheduled or cancelled
+     */
+    public Timer<T> schedule(T value, long delayTicks) {
+        Timer<T> timer = new Timer<>(value);
+        reschedule(timer, delayTicks);
+        return timer;
+    }
+
+    /**
+     * Moves a timer to a new deadline, scheduling it again if it already fired or was cancelled
+     * 
+     * @param timer The timer
+     * @param delayTicks The number of ticks from now until it fires, at least 1
+     */
+    public void reschedule(Timer<T> timer, long delayTicks) {
+        cancel(timer);
+        timer.deadline = now + Math.min(Math.max(1, delayTicks), MAX_DELAY);
+        link(timer);
+        size++;
+    }
+
+    /**
+     * Cancels a timer. Does nothing if it is not scheduled.
+     * 
+     * @param timer The timer
+     */
+    public void cancel(Timer<T> timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    /**
+     * Advances the wheel by one tick and fires every timer that is now due
+     * 
+     * @param expired Receives the value of each fired timer. It may schedule new timers.
+     */
+    public void advance(Consumer<? super T> expired) {
+        now++;
+        
+        // Bring the next coarse slot of each level down once the levels below it have wrapped
+        for (int level = 1; level < LEVELS && (now & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+            Timer<T> head = slots[level * SLOTS + (int) ((now >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            while (head.next != head) {
+                Timer<T> timer = head.next;
+                unlink(timer);
+                link(timer);
+            }
+        }
+        
+        Timer<T> head = slots[(int) (now & SLOT_MASK)];
+        while (head.next != head) {
+            Timer<T> timer = head.next;
+            unlink(timer);
+            size--;
+            expired.accept(timer.value);
+        }
+    }
+
+    /**
+     * Cancels every timer
+     */
+    public void clear() {
+        for (Timer<T> head : slots) {
+            while (head.next != head) {
+                unlink(head.next);
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Gets the number of scheduled timers
+     * 
+     * @return The number of timers waiting to fire
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether no timers are scheduled
+     * 
+     * @return true if the wheel is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void link(Timer<T> timer) {
+        long delay = timer.deadline - now;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        
+        Timer<T> head = slots[level * SLOTS + (int) ((timer.deadline >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        timer.previous = head.previous;
+        timer.next = head;
+        head.previous.next = timer;
+        head.previous = timer;
+    }
+
+    private static <T> void unlink(Timer<T> timer) {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous = null;
+        timer.next = null;
+    }
+}
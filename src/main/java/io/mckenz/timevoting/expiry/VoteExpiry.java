@@ -0,0 +1,210 @@
+package io.mckenz.timevoting.expiry;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.audit.AuditType;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.messages.Placeholder;
+import io.mckenz.timevoting.metrics.Outcome;
+import io.mckenz.timevoting.scheduler.PluginTask;
+import io.mckenz.timevoting.voting.Ballot;
+import io.mckenz.timevoting.voting.SessionManager;
+import io.mckenz.timevoting.voting.VoteSession;
+
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Takes votes back once they are older than the configured vote lifetime.
+ * <p>
+ * Every vote gets a timer on one {@link TimingWheel}, advanced by a single task that only runs
+ * while votes are waiting to expire. Casting or changing a vote pushes its timer back, so the
+ * lifetime counts from the player's latest vote. An expired vote is removed through the vote
+ * engine like any other removal, so the tally, journal and cluster are updated for that vote
+ * alone. Must only be used on the main thread.
+ */
+public final class VoteExpiry {
+    private final TimeVoting plugin;
+    private final TimingWheel<Entry> wheel = new TimingWheel<>();
+    private final Map<VoteSession, Map<UUID, TimingWheel.Timer<Entry>>> timers = new IdentityHashMap<>();
+    private PluginTask task;
+
+    /**
+     * A vote waiting to expire. The ballot is the one in the tally when the timer was last set,
+     * so a vote replaced in the meantime is never taken back by an old timer.
+     */
+    private static final class Entry {
+        private final VoteSession session;
+        private final UUID playerId;
+        private Ballot ballot;
+        
+        private Entry(VoteSession session, UUID playerId, Ballot ballot) {
+            this.session = session;
+            this.playerId = playerId;
+            this.ballot = ballot;
+        }
+    }
+
+    /**
+     * Creates a new vote expiry
+     * 
+     * @param plugin The plugin instance
+     */
+    public VoteExpiry(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts or restarts the lifetime of a vote, e.g. after it was cast or changed
+     * 
+     * @param session The session the vote is in
+     * @param playerId The player
+     * @param ballot The player's ballot
+     */
+    public void schedule(VoteSession session, UUID playerId, Ballot ballot) {
+        long lifetime = plugin.getSettings().voteLifetimeTicks();
+        if (lifetime <= 0) {
+            return;
+        }
+        
+        Map<UUID, TimingWheel.Timer<Entry>> sessionTimers = timers.computeIfAbsent(session, s -> new HashMap<>());
+        TimingWheel.Timer<Entry> timer = sessionTimers.get(playerId);
+        if (timer == null) {
+            sessionTimers.put(playerId, wheel.schedule(new Entry(session, playerId, ballot), lifetime));
+        } else {
+            timer.getValue().ballot = ballot;
+            wheel.reschedule(timer, lifetime);
+        }
+        
+        if (task == null) {
+            task = plugin.getPluginScheduler().runTimer(this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Updates the ballot of a vote without restarting its lifetime, e.g. after it was reweighed
+     * 
+     * @param session The session the vote is in
+     * @param playerId The player
+     * @param ballot The player's new ballot
+     */
+    public void update(VoteSession session, UUID playerId, Ballot ballot) {
+        Map<UUID, TimingWheel.Timer<Entry>> sessionTimers = timers.get(session);
+        TimingWheel.Timer<Entry> timer = sessionTimers != null ? sessionTimers.get(playerId) : null;
+        if (timer != null) {
+            timer.getValue().ballot = ballot;
+        }
+    }
+
+    /**
+     * Stops tracking a vote that was removed
+     * 
+     * @param session The session the vote was in
+     * @param playerId The player
+     */
+    public void cancel(VoteSession session, UUID playerId) {
+        Map<UUID, TimingWheel.Timer<Entry>> sessionTimers = timers.get(session);
+        TimingWheel.Timer<Entry> timer = sessionTimers != null ? sessionTimers.remove(playerId) : null;
+        if (timer != null) {
+            wheel.cancel(timer);
+            if (sessionTimers.isEmpty()) {
+                timers.remove(session);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking every vote of a session, e.g. after its votes were cleared
+     * 
+     * @param session The session
+     */
+    public void clear(VoteSession session) {
+        Map<UUID, TimingWheel.Timer<Entry>> sessionTimers = timers.remove(session);
+        if (sessionTimers != null) {
+            for (TimingWheel.Timer<Entry> timer : sessionTimers.values()) {
+                wheel.cancel(timer);
+            }
+        }
+    }
+
+    /**
+     * Forgets all timers and gives every current vote a full lifetime, e.g. after the votes were
+     * restored or the lifetime was reconfigured
+     */
+    public void reset() {
+        wheel.clear();
+        timers.clear();
+        
+        SessionManager sessions = plugin.getSessionManager();
+        if (sessions == null) {
+            return;
+        }
+        for (VoteSession session : sessions.getSessions()) {
+            for (Map.Entry<UUID, Ballot> vote : session.getTally().getVotes().entrySet()) {
+                schedule(session, vote.getKey(), vote.getValue());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of votes waiting to expire
+     * 
+     * @return The number of scheduled timers
+     */
+    public int size() {
+        return wheel.size();
+    }
+
+    /**
+     * Forgets all timers and stops the task
+     */
+    public void shutdown() {
+        wheel.clear();
+        timers.clear();
+        stop();
+    }
+
+    private void tick() {
+        wheel.advance(this::expire);
+        if (wheel.isEmpty()) {
+            stop();
+        }
+    }
+
+    private void expire(Entry entry) {
+        Map<UUID, TimingWheel.Timer<Entry>> sessionTimers = timers.get(entry.session);
+        if (sessionTimers != null) {
+            sessionTimers.remove(entry.playerId);
+            if (sessionTimers.isEmpty()) {
+                timers.remove(entry.session);
+            }
+        }
+        
+        // A session replaced by a reload took its votes with it
+        SessionManager sessions = plugin.getSessionManager();
+        if (sessions == null || sessions.getSession(entry.session.getName()) != entry.session
+                || !plugin.getVoteEngine().expire(entry.session, entry.playerId, entry.ballot)) {
+            return;
+        }
+        
+        String option = entry.ballot.option().getName();
+        Player player = plugin.getServer().getPlayer(entry.playerId);
+        plugin.getMetrics().count(Outcome.VOTE_EXPIRED);
+        plugin.recordHistory(AuditType.VOTE_EXPIRED, entry.session,
+                player != null ? player.getName() : entry.playerId.toString(), option, 0);
+        if (player != null) {
+            player.sendMessage(plugin.getMessages().prefixed(Message.VOTE_EXPIRED, Placeholder.TIME, option));
+        }
+        plugin.logDebug("Vote for " + option + " from " + entry.playerId + " expired in " + entry.session.getName());
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.mckenz.timevoting.listeners;
 
 import io.mckenz.timevoting.TimeVoting;
 
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
@@ -28,8 +29,9 @@ public class PlayerJoinListener implements Listener {
      */
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        // This is handled by the UpdateChecker class
-        // Additional player join logic can be added here if needed
-        plugin.logDebug("Player joined: " + event.getPlayer().getName());
+        // Update notifications are handled by the UpdateChecker class
+        Player player = event.getPlayer();
+        plugin.getPluginScheduler().execute(() -> plugin.handlePlayerJoin(player));
+        plugin.logDebug("Player joined: " + player.getName());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,37 @@
+package io.mckenz.timevoting.listeners;
+
+import io.mckenz.timevoting.TimeVoting;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener for player quit events
+ */
+public class PlayerQuitListener implements Listener {
+    private final TimeVoting plugin;
+
+    /**
+     * Creates a new player quit listener
+     * 
+     * @param plugin The plugin instance
+     */
+    public PlayerQuitListener(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Handles player quit events
+     * 
+     * @param event The player quit event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        plugin.getPluginScheduler().execute(() -> plugin.handlePlayerQuit(player));
+        plugin.logDebug("Player left: " + player.getName());
+    }
+}
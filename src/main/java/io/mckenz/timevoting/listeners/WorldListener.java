@@ -0,0 +1,64 @@
+package io.mckenz.timevoting.listeners;
+
+import io.mckenz.timevoting.TimeVoting;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Listener keeping vote sessions in sync with loaded worlds and player locations. On servers
+ * with regionized multithreading these events arrive on region threads and are handed to the
+ * owner thread of the vote state.
+ */
+public class WorldListener implements Listener {
+    private final TimeVoting plugin;
+
+    /**
+     * Creates a new world listener
+     * 
+     * @param plugin The plugin instance
+     */
+    public WorldListener(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Handles world load events
+     * 
+     * @param event The world load event
+     */
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        World world = event.getWorld();
+        plugin.getPluginScheduler().execute(() -> plugin.handleWorldLoad(world));
+    }
+
+    /**
+     * Handles world unload events
+     * 
+     * @param event The world unload event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        World world = event.getWorld();
+        plugin.getPluginScheduler().execute(() -> plugin.handleWorldUnload(world));
+    }
+
+    /**
+     * Handles players moving between worlds
+     * 
+     * @param event The player changed world event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        Player player = event.getPlayer();
+        World from = event.getFrom();
+        plugin.getPluginScheduler().execute(() -> plugin.handlePlayerChangedWorld(player, from));
+    }
+}
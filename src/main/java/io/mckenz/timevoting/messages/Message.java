@@ -0,0 +1,123 @@
+package io.mckenz.timevoting.messages;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * All configurable messages, keyed by their path under {@code messages} in config.yml
+ */
+public enum Message {
+    VOTE_CAST("vote-cast", "&7You voted for &e%time%&7."),
+    VOTE_ALREADY_CAST("vote-already-cast", "&7You already voted for &e%time%&7."),
+    VOTE_CHANGED("vote-changed", "&7You changed your vote to &e%time%&7."),
+    VOTE_EXPIRED("vote-expired", "&7Your vote for &e%time%&7 has expired."),
+    VOTE_ANNOUNCEMENT("vote-announcement", "&e%player% &7voted for &e%time%&7. (&f%votes%&7/&f%required%&7)"),
+    VOTE_ANNOUNCEMENT_SUMMARY("vote-announcement-summary", "&e%count% &7players voted for &e%time%&7. (&f%votes%&7/&f%required%&7)"),
+    TIME_CHANGED("time-changed", "&7The time has been changed to &e%time%&7!"),
+    TIME_ALREADY("time-already", "&7The time is already &e%time%&7."),
+    VOTE_COOLDOWN("vote-cooldown", "&7You must wait &f%seconds%&7 seconds before voting again."),
+    CHANGE_COOLDOWN("change-cooldown", "&7Time was recently changed. Please wait &f%seconds%&7 seconds."),
+    NOT_ENOUGH_PLAYERS("not-enough-players", "&7At least &f%required%&7 players must be online to vote."),
+    FORECAST("forecast", "&7Current time: &e%time%&7. Natural time cycle is &e%enabled%&7."),
+    FORECAST_NEXT("forecast-next", "&e%time% &7in &f%seconds%&7 seconds"),
+    TIME_RESET("time-reset", "&7The time has been reset to the natural cycle."),
+    PLUGIN_DISABLED("plugin-disabled", "&7The TimeVoting plugin is currently disabled."),
+    PLAYER_ONLY("player-only", "&7This command can only be used by players."),
+    NO_PERMISSION("no-permission", "&7You don't have permission to use this command."),
+    INVALID_TIME("invalid-time", "&7Invalid time type. Use one of: &e%options%&7."),
+    WORLD_DISABLED("world-disabled", "&7Time voting is disabled in this world."),
+
+    VOTE_STATUS_HEADER("vote-status-header", "&6Time Vote Status"),
+    VOTE_STATUS_ENTRY("vote-status-entry", "&e%time%&7: &f%votes%&7/&f%required% &7votes"),
+    VOTE_STATUS_YOUR_VOTE("vote-status-your-vote", "&7Your vote: &e%time%"),
+    VOTE_STATUS_NO_VOTE("vote-status-no-vote", "&7You haven't voted yet."),
+
+    BOSS_BAR("boss-bar", "&e%time% &7leads with &f%votes%&7/&f%required% &7votes"),
+
+    ROUND_OPENED("round-opened", "&7A time vote is open for &f%seconds%&7 seconds! Vote with &e/votetime <%options%>&7."),
+    ROUND_WON("round-won", "&7The vote is over: &e%time%&7 won with &f%votes%&7 votes."),
+    ROUND_NO_RESULT("round-no-result", "&7The vote is over without a result."),
+    VOTING_CLOSED("voting-closed", "&7Voting is closed until the next scheduled vote."),
+
+    HELP_HEADER("help-header", "&6TimeVoting Commands"),
+    HELP_STATUS("help-status", "&f/timevoting status &7- Show plugin status"),
+    HELP_TOGGLE("help-toggle", "&f/timevoting toggle &7- Enable/disable the plugin"),
+    HELP_RELOAD("help-reload", "&f/timevoting reload &7- Reload the configuration"),
+    HELP_DEBUG("help-debug", "&f/timevoting debug &7- Toggle debug mode"),
+    HELP_METRICS("help-metrics", "&f/timevoting metrics [reset] &7- Show vote counters and timings"),
+    HELP_HISTORY("help-history", "&f/timevoting history [player|world] [since] &7- Show recent votes and time changes"),
+
+    STATUS_HEADER("status-header", "&6TimeVoting Status"),
+    STATUS_ENABLED("status-enabled", "&7Plugin: &e%enabled%"),
+    STATUS_DEBUG("status-debug", "&7Debug mode: &e%debug%"),
+    STATUS_ANNOUNCEMENTS("status-announcements", "&7Announcements: &f%count%&7 broadcasts saved"),
+    STATUS_COOLDOWNS("status-cooldowns", "&7Vote cooldowns: &f%count%&7 tracked, &f%evicted%&7 evicted"),
+    STATUS_VOTES_HEADER("status-votes-header", "&6Vote Counts"),
+    STATUS_SESSION("status-session", "&e%world% &7(&f%players%&7 players)"),
+    STATUS_VOTES_ENTRY("status-votes-entry", "&e%time%&7: &f%votes%&7/&f%required%"),
+
+    HISTORY_HEADER("history-header", "&6Vote History &7(&f%count%&7 matching, newest last)"),
+    HISTORY_EMPTY("history-empty", "&7No matching history."),
+    HISTORY_DISABLED("history-disabled", "&7The vote history is disabled in config.yml."),
+    HISTORY_INVALID_SINCE("history-invalid-since", "&7Invalid duration &e%when%&7. Use e.g. 30m, 2h or 1d."),
+    HISTORY_VOTE("history-vote", "&7%when% &e%player% &7voted for &e%time% &7in &f%world%"),
+    HISTORY_VOTE_CHANGED("history-vote-changed", "&7%when% &e%player% &7changed their vote to &e%time% &7in &f%world%"),
+    HISTORY_VOTE_EXPIRED("history-vote-expired", "&7%when% &e%player%&7's vote for &e%time% &7expired in &f%world%"),
+    HISTORY_COOLDOWN("history-cooldown", "&7%when% &e%player% &7was blocked by the &f%time% &7cooldown in &f%world%"),
+    HISTORY_THRESHOLD("history-threshold", "&7%when% &e%time% &7won with &f%votes% &7votes in &f%world%"),
+    HISTORY_TIME_CHANGED("history-time-changed", "&7%when% &7Time changed to &e%time% &7in &f%world%"),
+
+    METRICS_HEADER("metrics-header", "&6TimeVoting Metrics &7(collection %state%)"),
+    METRICS_OUTCOME("metrics-outcome", "&7%name%: &f%count%"),
+    METRICS_LATENCY("metrics-latency", "&7%name%: &f%count%&7 calls, p99 &f%p99%&7, max &f%max%"),
+    METRICS_RESET("metrics-reset", "&7Metrics have been reset."),
+    
+    TOGGLE_SUCCESS("toggle-success", "&7TimeVoting has been &e%state%&7."),
+    RELOAD_SUCCESS("reload-success", "&7Configuration reloaded."),
+    RELOAD_FAILED("reload-failed", "&cConfiguration has errors, see the console. The previous settings are still active."),
+    DEBUG_SUCCESS("debug-success", "&7Debug mode has been &e%state%&7.");
+
+    private static final Map<String, Message> BY_KEY = new HashMap<>();
+
+    static {
+        for (Message message : values()) {
+            BY_KEY.put(message.key, message);
+        }
+    }
+
+    private final String key;
+    private final String defaultText;
+
+    Message(String key, String defaultText) {
+        this.key = key;
+        this.defaultText = defaultText;
+    }
+
+    /**
+     * Gets the config key of this message, relative to {@code messages}
+     * 
+     * @return The message key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the text used when the key is missing from config.yml
+     * 
+     * @return The default message text
+     */
+    public String getDefaultText() {
+        return defaultText;
+    }
+
+    /**
+     * Looks up a message by its config key
+     * 
+     * @param key The message key, e.g. {@code vote-cast}
+     * @return The message, or null if the key is unknown
+     */
+    public static Message fromKey(String key) {
+        return BY_KEY.get(key);
+    }
+}
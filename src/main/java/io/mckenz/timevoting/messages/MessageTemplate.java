@@ -0,0 +1,131 @@
+package io.mckenz.timevoting.messages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message parsed once into colorized literal segments and placeholder slots.
+ * Literal {@code i} is followed by slot {@code i}; there is always one more literal than slots.
+ */
+public final class MessageTemplate {
+    private static final Placeholder[] NO_SLOTS = new Placeholder[0];
+
+    private final String[] literals;
+    private final Placeholder[] slots;
+    private final String constant;
+
+    private MessageTemplate(String[] literals, Placeholder[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        this.constant = slots.length == 0 ? literals[0] : null;
+    }
+
+    /**
+     * Compiles a raw config message. Color codes are translated here so rendering never has to.
+     * 
+     * @param raw The raw message text with {@code &} color codes
+     * @return The compiled template
+     */
+    public static MessageTemplate compile(String raw) {
+        String text = Messages.colorize(raw);
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> slots = new ArrayList<>();
+        
+        int start = 0;
+        int index = text.indexOf('%');
+        while (index >= 0) {
+            Placeholder placeholder = Placeholder.match(text, index);
+            if (placeholder != null) {
+                literals.add(text.substring(start, index));
+                slots.add(placeholder);
+                start = index + placeholder.getToken().length();
+                index = text.indexOf('%', start);
+            } else {
+                index = text.indexOf('%', index + 1);
+            }
+        }
+        literals.add(text.substring(start));
+        
+        return new MessageTemplate(literals.toArray(new String[0]),
+                slots.isEmpty() ? NO_SLOTS : slots.toArray(NO_SLOTS));
+    }
+
+    /**
+     * Prepends a literal to this template, used to bake the prefix in
+     * 
+     * @param prefix The colorized literal to prepend
+     * @return A new template starting with the prefix
+     */
+    MessageTemplate withPrefix(String prefix) {
+        String[] prefixed = literals.clone();
+        prefixed[0] = prefix + prefixed[0];
+        return new MessageTemplate(prefixed, slots);
+    }
+
+    /**
+     * Checks whether this template contains no placeholders
+     * 
+     * @return true if the template renders to the same text every time
+     */
+    public boolean isConstant() {
+        return constant != null;
+    }
+
+    /**
+     * Renders this template in a single pass. Slots without a matching value are left empty.
+     * 
+     * @param out The builder to append to
+     * @param a First placeholder, or null
+     * @param av Value for the first placeholder
+     * @param b Second placeholder, or null
+     * @param bv Value for the second placeholder
+     * @param c Third placeholder, or null
+     * @param cv Value for the third placeholder
+     * @param d Fourth placeholder, or null
+     * @param dv Value for the fourth placeholder
+     */
+    void render(StringBuilder out,
+                Placeholder a, Object av, Placeholder b, Object bv,
+                Placeholder c, Object cv, Placeholder d, Object dv) {
+        if (constant != null) {
+            out.append(constant);
+            return;
+        }
+        
+        out.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            Placeholder slot = slots[i];
+            
+            if (slot == a) {
+                append(out, av);
+            } else if (slot == b) {
+                append(out, bv);
+            } else if (slot == c) {
+                append(out, cv);
+            } else if (slot == d) {
+                append(out, dv);
+            }
+            
+            out.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Gets the rendered text of a template without placeholders
+     * 
+     * @return The constant text, or null if this template has placeholders
+     */
+    String getConstant() {
+        return constant;
+    }
+
+    private static void append(StringBuilder out, Object value) {
+        if (value instanceof Integer) {
+            out.append(((Integer) value).intValue());
+        } else if (value instanceof Long) {
+            out.append(((Long) value).longValue());
+        } else {
+            out.append(value);
+        }
+    }
+}
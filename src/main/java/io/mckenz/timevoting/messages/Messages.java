@@ -0,0 +1,254 @@
+package io.mckenz.timevoting.messages;
+
+import io.mckenz.timevoting.metrics.Metrics;
+import io.mckenz.timevoting.metrics.Operation;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Immutable set of compiled message templates. A new instance is built on every config load
+ * and swapped in as a whole, so rendering never reads the YAML tree.
+ */
+public final class Messages {
+    private static final String DEFAULT_PREFIX = "&8[&bTimeVoting&8] ";
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+    private static volatile Metrics metrics;
+
+    private final String prefix;
+    private final MessageTemplate[] plain;
+    private final MessageTemplate[] prefixed;
+
+    private Messages(String prefix, MessageTemplate[] plain, MessageTemplate[] prefixed) {
+        this.prefix = prefix;
+        this.plain = plain;
+        this.prefixed = prefixed;
+    }
+
+    /**
+     * Compiles every known message from the {@code messages} section of the config
+     * 
+     * @param section The messages section, may be null to use defaults
+     * @return The compiled messages
+     */
+    public static Messages compile(ConfigurationSection section) {
+        String prefix = colorize(section != null ? section.getString("prefix", DEFAULT_PREFIX) : DEFAULT_PREFIX);
+        Message[] keys = Message.values();
+        MessageTemplate[] plain = new MessageTemplate[keys.length];
+        MessageTemplate[] prefixed = new MessageTemplate[keys.length];
+        
+        for (Message key : keys) {
+            String raw = section != null ? section.getString(key.getKey(), key.getDefaultText()) : key.getDefaultText();
+            MessageTemplate template = MessageTemplate.compile(raw);
+            plain[key.ordinal()] = template;
+            prefixed[key.ordinal()] = template.withPrefix(prefix);
+        }
+        
+        return new Messages(prefix, plain, prefixed);
+    }
+
+    /**
+     * Converts color codes in a string
+     * 
+     * @param message The message to colorize
+     * @return The colorized message
+     */
+    public static String colorize(String message) {
+        return message.replace('&', '§');
+    }
+
+    /**
+     * Gets the colorized prefix
+     * 
+     * @return The prefix
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Gets the compiled template of a message
+     * 
+     * @param message The message
+     * @param withPrefix Whether to get the variant with the prefix baked in
+     * @return The template
+     */
+    public MessageTemplate getTemplate(Message message, boolean withPrefix) {
+        return (withPrefix ? prefixed : plain)[message.ordinal()];
+    }
+
+    /**
+     * Renders a message with the prefix
+     * 
+     * @param message The message
+     * @return The rendered message
+     */
+    public String prefixed(Message message) {
+        return render(prefixed[message.ordinal()], null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Renders a message with the prefix
+     * 
+     * @param message The message
+     * @param a The placeholder to fill
+     * @param av The value for the placeholder
+     * @return The rendered message
+     */
+    public String prefixed(Message message, Placeholder a, Object av) {
+        return render(prefixed[message.ordinal()], a, av, null, null, null, null, null, null);
+    }
+
+    /**
+     * Renders a message with the prefix
+     * 
+     * @param message The message
+     * @param a The first placeholder to fill
+     * @param av The value for the first placeholder
+     * @param b The second placeholder to fill
+     * @param bv The value for the second placeholder
+     * @return The rendered message
+     */
+    public String prefixed(Message message, Placeholder a, Object av, Placeholder b, Object bv) {
+        return render(prefixed[message.ordinal()], a, av, b, bv, null, null, null, null);
+    }
+
+    /**
+     * Renders a message with the prefix
+     * 
+     * @param message The message
+     * @param a The first placeholder to fill
+     * @param av The value for the first placeholder
+     * @param b The second placeholder to fill
+     * @param bv The value for the second placeholder
+     * @param c The third placeholder to fill
+     * @param cv The value for the third placeholder
+     * @return The rendered message
+     */
+    public String prefixed(Message message, Placeholder a, Object av, Placeholder b, Object bv,
+                           Placeholder c, Object cv) {
+        return render(prefixed[message.ordinal()], a, av, b, bv, c, cv, null, null);
+    }
+
+    /**
+     * Renders a message with the prefix
+     * 
+     * @param message The message
+     * @param a The first placeholder to fill
+     * @param av The value for the first placeholder
+     * @param b The second placeholder to fill
+     * @param bv The value for the second placeholder
+     * @param c The third placeholder to fill
+     * @param cv The value for the third placeholder
+     * @param d The fourth placeholder to fill
+     * @param dv The value for the fourth placeholder
+     * @return The rendered message
+     */
+    public String prefixed(Message message, Placeholder a, Object av, Placeholder b, Object bv,
+                           Placeholder c, Object cv, Placeholder d, Object dv) {
+        return render(prefixed[message.ordinal()], a, av, b, bv, c, cv, d, dv);
+    }
+
+    /**
+     * Renders a message without the prefix
+     * 
+     * @param message The message
+     * @return The rendered message
+     */
+    public String plain(Message message) {
+        return render(plain[message.ordinal()], null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Renders a message without the prefix
+     * 
+     * @param message The message
+     * @param a The placeholder to fill
+     * @param av The value for the placeholder
+     * @return The rendered message
+     */
+    public String plain(Message message, Placeholder a, Object av) {
+        return render(plain[message.ordinal()], a, av, null, null, null, null, null, null);
+    }
+
+    /**
+     * Renders a message without the prefix
+     * 
+     * @param message The message
+     * @param a The first placeholder to fill
+     * @param av The value for the first placeholder
+     * @param b The second placeholder to fill
+     * @param bv The value for the second placeholder
+     * @return The rendered message
+     */
+    public String plain(Message message, Placeholder a, Object av, Placeholder b, Object bv) {
+        return render(plain[message.ordinal()], a, av, b, bv, null, null, null, null);
+    }
+
+    /**
+     * Renders a message without the prefix
+     * 
+     * @param message The message
+     * @param a The first placeholder to fill
+     * @param av The value for the first placeholder
+     * @param b The second placeholder to fill
+     * @param bv The value for the second placeholder
+     * @param c The third placeholder to fill
+     * @param cv The value for the third placeholder
+     * @return The rendered message
+     */
+    public String plain(Message message, Placeholder a, Object av, Placeholder b, Object bv,
+                        Placeholder c, Object cv) {
+        return render(plain[message.ordinal()], a, av, b, bv, c, cv, null, null);
+    }
+
+    /**
+     * Renders a message without the prefix
+     * 
+     * @param message The message
+     * @param a The first placeholder to fill
+     * @param av The value for the first placeholder
+     * @param b The second placeholder to fill
+     * @param bv The value for the second placeholder
+     * @param c The third placeholder to fill
+     * @param cv The value for the third placeholder
+     * @param d The fourth placeholder to fill
+     * @param dv The value for the fourth placeholder
+     * @return The rendered message
+     */
+    public String plain(Message message, Placeholder a, Object av, Placeholder b, Object bv,
+                        Placeholder c, Object cv, Placeholder d, Object dv) {
+        return render(plain[message.ordinal()], a, av, b, bv, c, cv, d, dv);
+    }
+
+    /**
+     * Sets where message rendering times are recorded. Rendering happens deep inside commands
+     * and announcements, so this is shared by all instances rather than passed along.
+     * 
+     * @param metrics The plugin's metrics, or null to stop recording
+     */
+    public static void setMetrics(Metrics metrics) {
+        Messages.metrics = metrics;
+    }
+
+    private static String render(MessageTemplate template,
+                                 Placeholder a, Object av, Placeholder b, Object bv,
+                                 Placeholder c, Object cv, Placeholder d, Object dv) {
+        String constant = template.getConstant();
+        if (constant != null) {
+            return constant;
+        }
+        
+        Metrics metrics = Messages.metrics;
+        long start = metrics != null ? metrics.start() : 0;
+        
+        StringBuilder out = BUILDER.get();
+        out.setLength(0);
+        template.render(out, a, av, b, bv, c, cv, d, dv);
+        String rendered = out.toString();
+        
+        if (metrics != null) {
+            metrics.stop(Operation.RENDER_MESSAGE, start);
+        }
+        return rendered;
+    }
+}
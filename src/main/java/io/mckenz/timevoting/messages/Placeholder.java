@@ -0,0 +1,55 @@
+package io.mckenz.timevoting.messages;
+
+/**
+ * Placeholders that can appear in configured messages
+ */
+public enum Placeholder {
+    TIME("%time%"),
+    VOTES("%votes%"),
+    REQUIRED("%required%"),
+    PLAYER("%player%"),
+    SECONDS("%seconds%"),
+    ENABLED("%enabled%"),
+    DEBUG("%debug%"),
+    STATE("%state%"),
+    OPTIONS("%options%"),
+    WORLD("%world%"),
+    PLAYERS("%players%"),
+    COUNT("%count%"),
+    EVICTED("%evicted%"),
+    WHEN("%when%"),
+    NAME("%name%"),
+    P99("%p99%"),
+    MAX("%max%");
+
+    private final String token;
+
+    Placeholder(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Gets the token as written in config.yml, e.g. {@code %time%}
+     * 
+     * @return The placeholder token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Finds the placeholder whose token starts at the given position
+     * 
+     * @param text The text to inspect
+     * @param index The index of the opening {@code %}
+     * @return The placeholder, or null if no known token starts there
+     */
+    static Placeholder match(String text, int index) {
+        for (Placeholder placeholder : values()) {
+            if (text.startsWith(placeholder.token, index)) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,98 @@
+package io.mckenz.timevoting.messages;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.config.Settings;
+import io.mckenz.timevoting.voting.VoteOptionRegistry;
+import io.mckenz.timevoting.voting.VoteSession;
+import io.mckenz.timevoting.voting.VoteSnapshot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the vote status lines of a session and keeps them until the session's snapshot or
+ * the settings change, so repeated status queries between votes only send cached strings.
+ * Safe to use from any thread.
+ */
+public class StatusRenderer {
+    private final TimeVoting plugin;
+    private final Map<String, Rendered> voteStatus = new ConcurrentHashMap<>();
+    private final Map<String, Rendered> sessionStatus = new ConcurrentHashMap<>();
+
+    /**
+     * Lines rendered from one snapshot with one set of settings
+     */
+    private record Rendered(VoteSession session, long version, Settings settings, String[] lines) {
+        boolean matches(VoteSession session, VoteSnapshot snapshot, Settings settings) {
+            return this.session == session && version == snapshot.getVersion() && this.settings == settings;
+        }
+    }
+
+    /**
+     * Creates a new status renderer
+     * 
+     * @param plugin The plugin instance
+     */
+    public StatusRenderer(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Gets the lines of /votetime without arguments: the header and one line per option.
+     * The caller adds the player's own vote.
+     * 
+     * @param session The session
+     * @return The rendered lines; must not be modified
+     */
+    public String[] getVoteStatus(VoteSession session) {
+        return render(voteStatus, session, true);
+    }
+
+    /**
+     * Gets the lines of a session in /timevoting status: the session line and one line per option
+     * 
+     * @param session The session
+     * @return The rendered lines; must not be modified
+     */
+    public String[] getSessionStatus(VoteSession session) {
+        return render(sessionStatus, session, false);
+    }
+
+    /**
+     * Drops all cached lines
+     */
+    public void clear() {
+        voteStatus.clear();
+        sessionStatus.clear();
+    }
+
+    private String[] render(Map<String, Rendered> cache, VoteSession session, boolean player) {
+        Settings settings = plugin.getSettings();
+        VoteSnapshot snapshot = session.getSnapshot();
+        
+        Rendered cached = cache.get(session.getName());
+        if (cached != null && cached.matches(session, snapshot, settings)) {
+            return cached.lines();
+        }
+        
+        Messages messages = settings.messages();
+        VoteOptionRegistry options = snapshot.getOptions();
+        int requiredVotes = snapshot.getRequiredVotes(settings);
+        String[] lines = new String[options.size() + 1];
+        
+        lines[0] = player
+                ? messages.prefixed(Message.VOTE_STATUS_HEADER)
+                : messages.plain(Message.STATUS_SESSION,
+                        Placeholder.WORLD, session.getName(),
+                        Placeholder.PLAYERS, snapshot.getEligibleVoters());
+        for (int i = 0; i < options.size(); i++) {
+            lines[i + 1] = messages.plain(player ? Message.VOTE_STATUS_ENTRY : Message.STATUS_VOTES_ENTRY,
+                    Placeholder.TIME, options.get(i).getName(),
+                    Placeholder.VOTES, snapshot.getCount(options.get(i)),
+                    Placeholder.REQUIRED, requiredVotes);
+        }
+        
+        cache.put(session.getName(), new Rendered(session, snapshot.getVersion(), settings, lines));
+        return lines;
+    }
+}
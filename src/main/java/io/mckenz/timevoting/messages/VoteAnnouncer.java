@@ -0,0 +1,177 @@
+package io.mckenz.timevoting.messages;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.config.Settings;
+import io.mckenz.timevoting.scheduler.PluginTask;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteOptionRegistry;
+import io.mckenz.timevoting.voting.VoteSession;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects vote announcements over a short window and broadcasts one summary line per option
+ * instead of one line per vote
+ */
+public class VoteAnnouncer {
+    private final TimeVoting plugin;
+    private final Map<VoteSession, Pending> pending = new LinkedHashMap<>();
+    private PluginTask flushTask;
+    private long votesAnnounced;
+    private long broadcastsSent;
+
+    /**
+     * Creates a new vote announcer
+     * 
+     * @param plugin The plugin instance
+     */
+    public VoteAnnouncer(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Announces a vote, either right away or with the next summary
+     * 
+     * @param session The session the vote was cast in
+     * @param option The option voted for
+     * @param playerName The name of the voting player
+     */
+    public void announce(VoteSession session, VoteOption option, String playerName) {
+        votesAnnounced++;
+        
+        long window = plugin.getSettings().announcementWindowTicks();
+        if (window <= 0) {
+            send(session, option, 1, playerName);
+            return;
+        }
+        
+        // Ids are resolved through the session's own options, which a reload may replace
+        Pending entry = pending.computeIfAbsent(session, key -> new Pending(key.getTally().getOptions()));
+        if (option.getId() < entry.counts.length && entry.options.get(option.getId()) == option) {
+            entry.counts[option.getId()]++;
+            entry.lastPlayer[option.getId()] = playerName;
+        }
+        
+        // The window starts with the first vote, so nothing runs while nobody votes
+        if (flushTask == null) {
+            flushTask = plugin.getPluginScheduler().runLater(this::flush, window);
+        }
+    }
+
+    /**
+     * Drops pending announcements of a session, used when its votes were reset. The dropped
+     * votes no longer count as announced, so they are not reported as saved broadcasts.
+     * 
+     * @param session The session
+     */
+    public void discard(VoteSession session) {
+        Pending dropped = pending.remove(session);
+        if (dropped != null) {
+            for (int count : dropped.counts) {
+                votesAnnounced -= count;
+            }
+        }
+    }
+
+    /**
+     * Broadcasts all pending summaries
+     */
+    public void flush() {
+        flushTask = null;
+        
+        for (Map.Entry<VoteSession, Pending> entry : pending.entrySet()) {
+            Pending votes = entry.getValue();
+            for (int id = 0; id < votes.counts.length; id++) {
+                if (votes.counts[id] > 0) {
+                    send(entry.getKey(), votes.options.get(id), votes.counts[id], votes.lastPlayer[id]);
+                }
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * Cancels the pending flush and sends everything collected so far
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        flush();
+    }
+
+    private void send(VoteSession session, VoteOption option, int count, String playerName) {
+        Settings settings = plugin.getSettings();
+        Messages messages = settings.messages();
+        int votes = session.getTally().getCount(option);
+        int required = session.getQuorum().getRequiredVotes(settings);
+        
+        String message;
+        if (count == 1) {
+            message = messages.prefixed(Message.VOTE_ANNOUNCEMENT,
+                    Placeholder.PLAYER, playerName,
+                    Placeholder.TIME, option.getName(),
+                    Placeholder.VOTES, votes,
+                    Placeholder.REQUIRED, required);
+        } else {
+            message = messages.prefixed(Message.VOTE_ANNOUNCEMENT_SUMMARY,
+                    Placeholder.COUNT, count,
+                    Placeholder.TIME, option.getName(),
+                    Placeholder.VOTES, votes,
+                    Placeholder.REQUIRED, required);
+        }
+        
+        plugin.broadcast(session, message);
+        broadcastsSent++;
+    }
+
+    /**
+     * Gets the number of votes that were announced
+     * 
+     * @return The number of announced votes
+     */
+    public long getVotesAnnounced() {
+        return votesAnnounced;
+    }
+
+    /**
+     * Gets the number of announcement broadcasts that were sent
+     * 
+     * @return The number of broadcasts
+     */
+    public long getBroadcastsSent() {
+        return broadcastsSent;
+    }
+
+    /**
+     * Gets the number of broadcasts saved by combining announcements
+     * 
+     * @return Announced votes minus broadcasts sent, counting pending votes as not yet sent
+     */
+    public long getBroadcastsSaved() {
+        long pendingVotes = 0;
+        for (Pending entry : pending.values()) {
+            for (int count : entry.counts) {
+                pendingVotes += count;
+            }
+        }
+        
+        return votesAnnounced - pendingVotes - broadcastsSent;
+    }
+
+    /**
+     * Votes collected for one session in the current window
+     */
+    private static final class Pending {
+        private final VoteOptionRegistry options;
+        private final int[] counts;
+        private final String[] lastPlayer;
+
+        Pending(VoteOptionRegistry options) {
+            this.options = options;
+            this.counts = new int[options.size()];
+            this.lastPlayer = new String[options.size()];
+        }
+    }
+}
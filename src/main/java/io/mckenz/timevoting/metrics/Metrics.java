@@ -0,0 +1,135 @@
+package io.mckenz.timevoting.metrics;
+
+import jdk.jfr.EventType;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for vote processing. Every measurement is also emitted as a
+ * flight recorder event.
+ * <p>
+ * Timing follows a start/stop pattern: {@link #start()} returns 0 while metrics are disabled,
+ * and {@link #stop(Operation, long)} ignores a start of 0, so a disabled instance costs one
+ * field read per call site.
+ */
+public final class Metrics {
+    // Checked before an event is created, so nothing is allocated while no recording wants them
+    private static final EventType OPERATION_EVENT = EventType.getEventType(OperationEvent.class);
+    private static final EventType OUTCOME_EVENT = EventType.getEventType(OutcomeEvent.class);
+
+    private final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+    private volatile boolean enabled;
+
+    /**
+     * Creates a new, disabled metrics instance
+     */
+    public Metrics() {
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Checks if metrics are being collected
+     * 
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables collecting metrics. Values collected so far are kept.
+     * 
+     * @param enabled Whether to collect metrics
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts timing an operation
+     * 
+     * @return The start time to pass to {@link #stop(Operation, long)}, or 0 if disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Finishes timing an operation
+     * 
+     * @param operation The operation
+     * @param start The value returned by {@link #start()}
+     */
+    public void stop(Operation operation, long start) {
+        if (start == 0) {
+            return;
+        }
+        
+        long elapsed = System.nanoTime() - start;
+        latencies[operation.ordinal()].record(elapsed);
+        
+        if (OPERATION_EVENT.isEnabled()) {
+            OperationEvent event = new OperationEvent();
+            event.operation = operation.getDisplayName();
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts an outcome
+     * 
+     * @param outcome The outcome
+     */
+    public void count(Outcome outcome) {
+        if (!enabled) {
+            return;
+        }
+        
+        outcomes[outcome.ordinal()].increment();
+        
+        if (OUTCOME_EVENT.isEnabled()) {
+            OutcomeEvent event = new OutcomeEvent();
+            event.outcome = outcome.getDisplayName();
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets how often an outcome happened
+     * 
+     * @param outcome The outcome
+     * @return The count
+     */
+    public long getCount(Outcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    /**
+     * Gets the latency histogram of an operation
+     * 
+     * @param operation The operation
+     * @return The histogram
+     */
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    /**
+     * Clears all counters and histograms
+     */
+    public void reset() {
+        for (LongAdder outcome : outcomes) {
+            outcome.reset();
+        }
+        for (LatencyHistogram latency : latencies) {
+            latency.reset();
+        }
+    }
+}
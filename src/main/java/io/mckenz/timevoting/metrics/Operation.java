@@ -0,0 +1,28 @@
+package io.mckenz.timevoting.metrics;
+
+/**
+ * Timed operations. Timings are inclusive, so registering a vote also counts the threshold
+ * check and time change it triggers.
+ */
+public enum Operation {
+    VOTE_COMMAND("Vote command"),
+    REGISTER_VOTE("Register vote"),
+    CHECK_THRESHOLD("Check threshold"),
+    CHANGE_TIME("Change time"),
+    RENDER_MESSAGE("Render message");
+
+    private final String displayName;
+
+    Operation(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the name shown by /timevoting metrics
+     * 
+     * @return The display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,26 @@
+package io.mckenz.timevoting.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for a timed operation
+ */
+@Name("io.mckenz.timevoting.Operation")
+@Label("TimeVoting Operation")
+@Category("TimeVoting")
+@Description("Main-thread time spent by TimeVoting on one operation")
+@StackTrace(false)
+final class OperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -0,0 +1,33 @@
+package io.mckenz.timevoting.metrics;
+
+/**
+ * Counted results of vote commands and threshold checks
+ */
+public enum Outcome {
+    VOTE_CAST("Votes cast"),
+    VOTE_CHANGED("Votes changed"),
+    VOTE_REPEATED("Repeated votes"),
+    VOTE_CANCELLED("Votes cancelled by other plugins"),
+    VOTE_EXPIRED("Votes expired"),
+    REJECTED_VOTE_COOLDOWN("Rejected: vote cooldown"),
+    REJECTED_CHANGE_COOLDOWN("Rejected: time change cooldown"),
+    REJECTED_NOT_ENOUGH_PLAYERS("Rejected: not enough players"),
+    REJECTED_INVALID_OPTION("Rejected: invalid option"),
+    REJECTED_ROUND_CLOSED("Rejected: no round open"),
+    TIME_CHANGED("Time changes");
+
+    private final String displayName;
+
+    Outcome(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the name shown by /timevoting metrics
+     * 
+     * @return The display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+}
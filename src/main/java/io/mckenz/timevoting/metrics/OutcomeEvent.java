@@ -0,0 +1,21 @@
+package io.mckenz.timevoting.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a counted vote outcome
+ */
+@Name("io.mckenz.timevoting.Outcome")
+@Label("TimeVoting Outcome")
+@Category("TimeVoting")
+@Description("A vote, rejected vote or time change")
+@StackTrace(false)
+final class OutcomeEvent extends Event {
+    @Label("Outcome")
+    String outcome;
+}
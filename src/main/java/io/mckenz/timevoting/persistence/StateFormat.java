@@ -0,0 +1,137 @@
+package io.mckenz.timevoting.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of the state snapshot and journal files.
+ * <p>
+ * Both files start with a magic number, a format version and a generation. The snapshot holds
+ * one checksummed block with the complete state; the journal holds checksummed records that
+ * apply on top of the snapshot with the same generation. A record whose length or checksum does
+ * not match marks a torn write, and everything from there on is ignored.
+ */
+final class StateFormat {
+    static final int SNAPSHOT_MAGIC = 0x5456534E; // "TVSN"
+    static final int JOURNAL_MAGIC = 0x54564A4C; // "TVJL"
+    static final int VERSION = 1;
+
+    static final byte VOTE = 1;
+    static final byte REMOVE_VOTE = 2;
+    static final byte CLEAR_VOTES = 3;
+    static final byte TIME_CHANGE = 4;
+    static final byte COOLDOWN = 5;
+    static final byte TIME_LOCK = 7;
+    static final byte TIME_UNLOCK = 8;
+
+    private static final int MAX_BLOCK_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * Writes data into a byte array
+     */
+    @FunctionalInterface
+    interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private StateFormat() {
+    }
+
+    /**
+     * Writes the header shared by both files
+     * 
+     * @param out The stream to write to
+     * @param magic The file's magic number
+     * @param generation The snapshot generation
+     * @throws IOException If the stream fails
+     */
+    static void writeHeader(DataOutputStream out, int magic, long generation) throws IOException {
+        out.writeInt(magic);
+        out.writeShort(VERSION);
+        out.writeLong(generation);
+    }
+
+    /**
+     * Reads and validates a file header
+     * 
+     * @param in The stream to read from
+     * @param magic The expected magic number
+     * @return The generation stored in the header
+     * @throws IOException If the header is missing, foreign or from an unsupported version
+     */
+    static long readHeader(DataInputStream in, int magic) throws IOException {
+        if (in.readInt() != magic) {
+            throw new IOException("not a TimeVoting state file");
+        }
+        int version = in.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("unsupported state format version " + version);
+        }
+        return in.readLong();
+    }
+
+    /**
+     * Encodes a block as its length, its bytes and their CRC-32
+     * 
+     * @param writer Writes the block contents
+     * @return The framed block
+     * @throws IOException If the writer fails
+     */
+    static byte[] frame(Writer writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        writer.write(new DataOutputStream(bytes));
+        byte[] payload = bytes.toByteArray();
+        
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        
+        ByteArrayOutputStream framed = new ByteArrayOutputStream(payload.length + 8);
+        DataOutputStream out = new DataOutputStream(framed);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+        return framed.toByteArray();
+    }
+
+    /**
+     * Reads a framed block
+     * 
+     * @param in The stream to read from
+     * @return The block contents, or null at the end of the stream or if the block is torn
+     * @throws IOException If the stream fails
+     */
+    static byte[] readFrame(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        try {
+            int length = data.readInt();
+            if (length <= 0 || length > MAX_BLOCK_LENGTH) {
+                return null;
+            }
+            
+            byte[] payload = new byte[length];
+            data.readFully(payload);
+            int checksum = data.readInt();
+            
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,639 @@
+package io.mckenz.timevoting.persistence;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.time.WorldLock;
+import io.mckenz.timevoting.voting.Ballot;
+import io.mckenz.timevoting.voting.CooldownStore;
+import io.mckenz.timevoting.voting.SessionManager;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteSession;
+import io.mckenz.timevoting.voting.VoteTally;
+
+import org.bukkit.entity.Player;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Keeps votes, time change cooldowns, time locks and vote cooldowns on disk so they survive
+ * restarts, reloads and crashes.
+ * <p>
+ * State is stored as a snapshot plus an append-only journal of changes since that snapshot.
+ * Changes are recorded on the main thread and written by a single background thread; once the
+ * journal grows long enough it is folded into a new snapshot. Times are stored as wall-clock
+ * milliseconds because {@link System#nanoTime()} does not carry over between JVMs.
+ * <p>
+ * Like live votes, restored votes only count while their player is online. Votes of players
+ * who are offline when the state is restored are parked and cast again when they join.
+ */
+public final class VoteStateStore {
+    private static final int COMPACT_AFTER_RECORDS = 4096;
+
+    private final TimeVoting plugin;
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final ExecutorService writer;
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final Map<UUID, ParkedVote> parkedVotes = new HashMap<>();
+    private long generation;
+    private int journalRecords;
+    private boolean writable = true;
+
+    // Only touched by the writer thread
+    private DataOutputStream journal;
+
+    /**
+     * Creates a new state store
+     * 
+     * @param plugin The plugin instance
+     * @param directory The directory holding the state files
+     */
+    public VoteStateStore(TimeVoting plugin, Path directory) {
+        this.plugin = plugin;
+        this.snapshotFile = directory.resolve("state.bin");
+        this.journalFile = directory.resolve("state.journal");
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TimeVoting-State");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the saved state into the plugin's sessions and cooldowns, then starts a fresh
+     * snapshot and journal. Votes for sessions or options that no longer exist are dropped.
+     * Files that cannot be read are moved aside with a {@code .corrupt} suffix instead of being
+     * overwritten; if that fails, nothing is saved until they are removed.
+     */
+    public void restore() {
+        long start = System.nanoTime();
+        SavedState state = new SavedState();
+        
+        try {
+            generation = readSnapshot(state);
+            int replayed = readJournal(state, generation);
+            apply(state);
+            plugin.logDebug("Restored vote state (" + replayed + " journal records) in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not restore saved votes, starting fresh", e);
+            
+            // The journal only applies on top of its snapshot, so both go
+            boolean movedSnapshot = moveAside(snapshotFile);
+            boolean movedJournal = moveAside(journalFile);
+            if (!movedSnapshot || !movedJournal) {
+                writable = false;
+                plugin.getLogger().warning("Vote state will not be saved until the unreadable files are removed");
+                return;
+            }
+        }
+        
+        compact();
+    }
+
+    /**
+     * Takes the parked vote of a player who just joined. A vote parked in another session stays
+     * behind in that session's worlds and is dropped, like the vote of a player changing worlds.
+     * 
+     * @param playerId The player
+     * @param session The session the player joined, may be null
+     * @return The option to cast again in the session, or null if there is none
+     */
+    public VoteOption takeParkedVote(UUID playerId, VoteSession session) {
+        ParkedVote parked = parkedVotes.remove(playerId);
+        if (parked == null) {
+            return null;
+        }
+        if (parked.session() != session) {
+            recordRemoval(parked.session(), playerId);
+            return null;
+        }
+        return parked.option();
+    }
+
+    /**
+     * Records a vote
+     * 
+     * @param session The session voted in
+     * @param playerId The voting player
+     * @param option The option voted for
+     */
+    public void recordVote(VoteSession session, UUID playerId, VoteOption option) {
+        String name = session.getName();
+        String optionName = option.getName();
+        append(out -> {
+            out.writeByte(StateFormat.VOTE);
+            out.writeUTF(name);
+            StateFormat.writeUuid(out, playerId);
+            out.writeUTF(optionName);
+        });
+    }
+
+    /**
+     * Records that a player's vote was removed
+     * 
+     * @param session The session the vote was in
+     * @param playerId The player
+     */
+    public void recordRemoval(VoteSession session, UUID playerId) {
+        String name = session.getName();
+        append(out -> {
+            out.writeByte(StateFormat.REMOVE_VOTE);
+            out.writeUTF(name);
+            StateFormat.writeUuid(out, playerId);
+        });
+    }
+
+    /**
+     * Records that all votes in a session were cleared
+     * 
+     * @param session The session
+     */
+    public void recordClear(VoteSession session) {
+        parkedVotes.values().removeIf(parked -> parked.session() == session);
+        String name = session.getName();
+        append(out -> {
+            out.writeByte(StateFormat.CLEAR_VOTES);
+            out.writeUTF(name);
+        });
+    }
+
+    /**
+     * Records that a session's time was just changed
+     * 
+     * @param session The session
+     */
+    public void recordTimeChange(VoteSession session) {
+        String name = session.getName();
+        long now = System.currentTimeMillis();
+        append(out -> {
+            out.writeByte(StateFormat.TIME_CHANGE);
+            out.writeUTF(name);
+            out.writeLong(now);
+        });
+    }
+
+    /**
+     * Records that a world's time was locked, or that its lock was extended
+     * 
+     * @param lock The lock
+     */
+    public void recordTimeLock(WorldLock lock) {
+        append(out -> {
+            out.writeByte(StateFormat.TIME_LOCK);
+            writeLock(out, lock);
+        });
+    }
+
+    /**
+     * Records that a world's time was restored
+     * 
+     * @param world The world name
+     */
+    public void recordTimeUnlock(String world) {
+        append(out -> {
+            out.writeByte(StateFormat.TIME_UNLOCK);
+            out.writeUTF(world);
+        });
+    }
+
+    /**
+     * Records that a player just voted and their vote cooldown started
+     * 
+     * @param playerId The player
+     */
+    public void recordCooldown(UUID playerId) {
+        long now = System.currentTimeMillis();
+        append(out -> {
+            out.writeByte(StateFormat.COOLDOWN);
+            StateFormat.writeUuid(out, playerId);
+            out.writeLong(now);
+        });
+    }
+
+    /**
+     * Writes a snapshot of the current state and starts a new, empty journal. Call this after
+     * sessions were rebuilt so the journal does not refer to sessions that no longer exist.
+     */
+    public void compact() {
+        if (!writable) {
+            return;
+        }
+        
+        byte[] snapshot;
+        try {
+            snapshot = StateFormat.frame(this::writeState);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not encode vote state", e);
+            return;
+        }
+        
+        long nextGeneration = ++generation;
+        journalRecords = 0;
+        submit(() -> writeSnapshot(snapshot, nextGeneration));
+    }
+
+    /**
+     * Writes a final snapshot and waits for all pending writes to finish
+     */
+    public void close() {
+        compact();
+        submit(this::closeJournal);
+        writer.shutdown();
+        
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out saving vote state");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(StateFormat.Writer record) {
+        if (++journalRecords > COMPACT_AFTER_RECORDS) {
+            compact();
+            return;
+        }
+        
+        submit(() -> {
+            if (journal == null) {
+                return;
+            }
+            
+            try {
+                journal.write(StateFormat.frame(record));
+                
+                // Hand batches to the OS once the queue drains; fsync is left to snapshots
+                if (pendingWrites.get() == 1) {
+                    journal.flush();
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not write vote journal, "
+                        + "changes are kept in memory until the next snapshot", e);
+                closeJournal();
+            }
+        });
+    }
+
+    private void submit(Runnable task) {
+        pendingWrites.incrementAndGet();
+        try {
+            writer.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    pendingWrites.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingWrites.decrementAndGet();
+        }
+    }
+
+    private void writeState(DataOutputStream out) throws IOException {
+        long nowNanos = System.nanoTime();
+        long nowMillis = System.currentTimeMillis();
+        
+        // Parked votes go the same way as live votes when their session is rebuilt
+        SessionManager sessionManager = plugin.getSessionManager();
+        parkedVotes.values().removeIf(parked -> sessionManager.getSession(parked.session().getName()) != parked.session());
+        
+        List<VoteSession> sessions = new ArrayList<>(sessionManager.getSessions());
+        out.writeInt(sessions.size());
+        for (VoteSession session : sessions) {
+            out.writeUTF(session.getName());
+            out.writeLong(session.hasTimeChanged()
+                    ? toMillis(session.getLastTimeChange(), nowNanos, nowMillis) : 0);
+            
+            Map<UUID, Ballot> votes = session.getTally().getVotes();
+            Map<UUID, VoteOption> parked = new LinkedHashMap<>();
+            for (Map.Entry<UUID, ParkedVote> vote : parkedVotes.entrySet()) {
+                if (vote.getValue().session() == session && !votes.containsKey(vote.getKey())) {
+                    parked.put(vote.getKey(), vote.getValue().option());
+                }
+            }
+            
+            out.writeInt(votes.size() + parked.size());
+            for (Map.Entry<UUID, Ballot> vote : votes.entrySet()) {
+                StateFormat.writeUuid(out, vote.getKey());
+                out.writeUTF(vote.getValue().option().getName());
+            }
+            for (Map.Entry<UUID, VoteOption> vote : parked.entrySet()) {
+                StateFormat.writeUuid(out, vote.getKey());
+                out.writeUTF(vote.getValue().getName());
+            }
+        }
+        
+        CooldownStore cooldowns = plugin.getCooldowns();
+        out.writeInt(cooldowns.size());
+        IOException[] failure = new IOException[1];
+        cooldowns.forEach((playerId, votedAt) -> {
+            try {
+                StateFormat.writeUuid(out, playerId);
+                out.writeLong(toMillis(votedAt, nowNanos, nowMillis));
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        
+        List<WorldLock> locks = plugin.getTimeLock().getLocks();
+        out.writeInt(locks.size());
+        for (WorldLock lock : locks) {
+            writeLock(out, lock);
+        }
+    }
+
+    private static void writeLock(DataOutputStream out, WorldLock lock) throws IOException {
+        out.writeUTF(lock.world());
+        out.writeLong(lock.previousTime());
+        out.writeLong(lock.lockedAt());
+        out.writeBoolean(lock.daylightCycle());
+        out.writeLong(lock.expiresAt());
+    }
+
+    private static WorldLock readLock(DataInputStream in) throws IOException {
+        return new WorldLock(in.readUTF(), in.readLong(), in.readLong(), in.readBoolean(), in.readLong());
+    }
+
+    private void writeSnapshot(byte[] snapshot, long snapshotGeneration) {
+        closeJournal();
+        
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            
+            // Write aside and move into place so a crash never leaves a half-written snapshot
+            Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+                StateFormat.writeHeader(out, StateFormat.SNAPSHOT_MAGIC, snapshotGeneration);
+                out.write(snapshot);
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            // The old journal is now part of the snapshot; its generation no longer matches either way
+            FileOutputStream file = new FileOutputStream(journalFile.toFile());
+            journal = new DataOutputStream(new BufferedOutputStream(file));
+            StateFormat.writeHeader(journal, StateFormat.JOURNAL_MAGIC, snapshotGeneration);
+            journal.flush();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not save vote state", e);
+            closeJournal();
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        
+        try {
+            journal.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not close vote journal", e);
+        }
+        journal = null;
+    }
+
+    private long readSnapshot(SavedState state) throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+        
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(snapshotFile))) {
+            long snapshotGeneration = StateFormat.readHeader(new DataInputStream(file), StateFormat.SNAPSHOT_MAGIC);
+            byte[] payload = StateFormat.readFrame(file);
+            if (payload == null) {
+                throw new IOException("snapshot is truncated or corrupt");
+            }
+            
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            int sessionCount = in.readInt();
+            for (int i = 0; i < sessionCount; i++) {
+                SavedSession session = state.session(in.readUTF());
+                session.changedAt = in.readLong();
+                
+                int voteCount = in.readInt();
+                for (int j = 0; j < voteCount; j++) {
+                    session.votes.put(StateFormat.readUuid(in), in.readUTF());
+                }
+            }
+            
+            int cooldownCount = in.readInt();
+            for (int i = 0; i < cooldownCount; i++) {
+                state.cooldowns.put(StateFormat.readUuid(in), in.readLong());
+            }
+            
+            int lockCount = in.readInt();
+            for (int i = 0; i < lockCount; i++) {
+                WorldLock lock = readLock(in);
+                state.locks.put(lock.world(), lock);
+            }
+            
+            return snapshotGeneration;
+        }
+    }
+
+    private int readJournal(SavedState state, long snapshotGeneration) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+        
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(journalFile))) {
+            long journalGeneration;
+            try {
+                journalGeneration = StateFormat.readHeader(new DataInputStream(file), StateFormat.JOURNAL_MAGIC);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Ignoring unreadable vote journal: " + e.getMessage());
+                return 0;
+            }
+            
+            // A journal from another generation was already folded into the snapshot
+            if (journalGeneration != snapshotGeneration) {
+                return 0;
+            }
+            
+            int replayed = 0;
+            while (true) {
+                file.mark(1);
+                if (file.read() == -1) {
+                    return replayed;
+                }
+                file.reset();
+                
+                byte[] record = StateFormat.readFrame(file);
+                if (record == null) {
+                    plugin.getLogger().warning("Vote journal ends in a torn write after " + replayed
+                            + " records; the rest was discarded");
+                    return replayed;
+                }
+                
+                // Keep everything up to a record that cannot be read rather than the whole state
+                try {
+                    applyRecord(state, new DataInputStream(new ByteArrayInputStream(record)));
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Vote journal has an unreadable record after " + replayed
+                            + " records (" + e.getMessage() + "); the rest was discarded");
+                    return replayed;
+                }
+                replayed++;
+            }
+        }
+    }
+
+    private void applyRecord(SavedState state, DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case StateFormat.VOTE:
+                state.session(in.readUTF()).votes.put(StateFormat.readUuid(in), in.readUTF());
+                break;
+            case StateFormat.REMOVE_VOTE:
+                state.session(in.readUTF()).votes.remove(StateFormat.readUuid(in));
+                break;
+            case StateFormat.CLEAR_VOTES:
+                state.session(in.readUTF()).votes.clear();
+                break;
+            case StateFormat.TIME_CHANGE:
+                state.session(in.readUTF()).changedAt = in.readLong();
+                break;
+            case StateFormat.COOLDOWN:
+                UUID playerId = StateFormat.readUuid(in);
+                // Re-inserting keeps the cooldowns ordered from oldest to newest
+                state.cooldowns.remove(playerId);
+                state.cooldowns.put(playerId, in.readLong());
+                break;
+            case StateFormat.TIME_LOCK:
+                WorldLock lock = readLock(in);
+                state.locks.put(lock.world(), lock);
+                break;
+            case StateFormat.TIME_UNLOCK:
+                state.locks.remove(in.readUTF());
+                break;
+            default:
+                throw new IOException("unknown journal record type " + type);
+        }
+    }
+
+    private boolean moveAside(Path file) {
+        if (!Files.exists(file)) {
+            return true;
+        }
+        
+        Path target = file.resolveSibling(file.getFileName() + ".corrupt");
+        try {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            plugin.getLogger().warning("Moved unreadable " + file.getFileName() + " to " + target.getFileName());
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not move aside " + file.getFileName(), e);
+            return false;
+        }
+    }
+
+    private void apply(SavedState state) {
+        long nowNanos = System.nanoTime();
+        long nowMillis = System.currentTimeMillis();
+        
+        for (Map.Entry<String, SavedSession> entry : state.sessions.entrySet()) {
+            VoteSession session = plugin.getSessionManager().getSession(entry.getKey());
+            if (session == null) {
+                continue;
+            }
+            
+            SavedSession saved = entry.getValue();
+            // Weights are not saved; online players were already weighed when the sessions were built
+            VoteTally tally = session.getTally();
+            for (Map.Entry<UUID, String> vote : saved.votes.entrySet()) {
+                VoteOption option = tally.getOptions().get(vote.getValue());
+                if (option == null) {
+                    continue;
+                }
+                
+                // The quorum only counts online players, so votes of players who left must not count either
+                Player player = plugin.getServer().getPlayer(vote.getKey());
+                if (player != null && plugin.getSessionManager().getSession(player.getWorld()) == session) {
+                    tally.cast(vote.getKey(), new Ballot(option, plugin.getVoteWeights().get(vote.getKey())));
+                } else {
+                    parkedVotes.put(vote.getKey(), new ParkedVote(session, option));
+                }
+            }
+            
+            if (saved.changedAt > 0) {
+                session.markTimeChanged(toNanos(saved.changedAt, nowNanos, nowMillis));
+            }
+        }
+        
+        // Locks outlive sessions and reloads; a crash may have left these worlds frozen
+        for (WorldLock lock : state.locks.values()) {
+            plugin.getTimeLock().recover(lock);
+        }
+        
+        long cooldownNanos = plugin.getSettings().voteCooldownNanos();
+        for (Map.Entry<UUID, Long> cooldown : state.cooldowns.entrySet()) {
+            plugin.getCooldowns().record(cooldown.getKey(),
+                    toNanos(cooldown.getValue(), nowNanos, nowMillis), cooldownNanos);
+        }
+    }
+
+    private static long toMillis(long nanos, long nowNanos, long nowMillis) {
+        return nowMillis - TimeUnit.NANOSECONDS.toMillis(nowNanos - nanos);
+    }
+
+    private static long toNanos(long millis, long nowNanos, long nowMillis) {
+        // Never place a saved time in the future, even if the clock went backwards
+        return nowNanos - TimeUnit.MILLISECONDS.toNanos(Math.max(0, nowMillis - millis));
+    }
+
+    /**
+     * A restored vote waiting for its player to come back
+     * 
+     * @param session The session the vote was cast in
+     * @param option The option voted for
+     */
+    private record ParkedVote(VoteSession session, VoteOption option) {
+    }
+
+    /**
+     * State read back from disk, before it is applied to the live sessions
+     */
+    private static final class SavedState {
+        final Map<String, SavedSession> sessions = new LinkedHashMap<>();
+        final LinkedHashMap<UUID, Long> cooldowns = new LinkedHashMap<>();
+        final Map<String, WorldLock> locks = new LinkedHashMap<>();
+        
+        SavedSession session(String name) {
+            return sessions.computeIfAbsent(name, key -> new SavedSession());
+        }
+    }
+
+    private static final class SavedSession {
+        final Map<UUID, String> votes = new LinkedHashMap<>();
+        long changedAt;
+    }
+}
@@ -0,0 +1,150 @@
+package io.mckenz.timevoting.rounds;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A standard five-field cron expression: minute, hour, day of month, month and day of week.
+ * <p>
+ * Each field accepts {@code *}, single values, ranges ({@code 1-5}), lists ({@code 0,30}) and
+ * steps ({@code *}{@code /15}, {@code 8-18/2}). Days of the week are 0-7 with both 0 and 7
+ * meaning Sunday. As in cron, when both day fields are restricted a day matches if either
+ * does. Every field is kept as a bit mask, so matching a time is a few bit tests.
+ */
+public final class CronExpression {
+    private static final int MAX_YEARS = 5;
+
+    private final String expression;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    private CronExpression(String expression, long[] fields, boolean anyDayOfMonth, boolean anyDayOfWeek) {
+        this.expression = expression;
+        this.minutes = fields[0];
+        this.hours = fields[1];
+        this.daysOfMonth = fields[2];
+        this.months = fields[3];
+        // Sunday is both 0 and 7; fold it onto 7 to match java.time's numbering
+        this.daysOfWeek = (fields[4] & 1) != 0 ? fields[4] | 1L << 7 : fields[4];
+        this.anyDayOfMonth = anyDayOfMonth;
+        this.anyDayOfWeek = anyDayOfWeek;
+    }
+
+    /**
+     * Parses a cron expression
+     * 
+     * @param expression The expression, e.g. {@code 0 20 * * *} for every day at 20:00
+     * @return The parsed expression
+     * @throws IllegalArgumentException If the expression is not valid
+     */
+    public static CronExpression parse(String expression) {
+        String[] parts = expression.trim().split("\\s+");
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("expected 5 fields (minute hour day month weekday), got " + parts.length);
+        }
+        
+        long[] fields = {
+            parseField(parts[0], 0, 59, "minute"),
+            parseField(parts[1], 0, 23, "hour"),
+            parseField(parts[2], 1, 31, "day of month"),
+            parseField(parts[3], 1, 12, "month"),
+            parseField(parts[4], 0, 7, "day of week")
+        };
+        return new CronExpression(expression.trim(), fields, parts[2].startsWith("*"), parts[4].startsWith("*"));
+    }
+
+    /**
+     * Finds the first matching minute after a time
+     * 
+     * @param after The time to search from, exclusive
+     * @return The next matching time, or null if none comes within the next few years
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        ZonedDateTime limit = after.plusYears(MAX_YEARS);
+        
+        // Skip whole months, days and hours that cannot match before looking at minutes
+        while (time.isBefore(limit)) {
+            if (!has(months, time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!has(hours, time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!has(minutes, time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private boolean matchesDay(ZonedDateTime time) {
+        boolean dayOfMonth = has(daysOfMonth, time.getDayOfMonth());
+        boolean dayOfWeek = has(daysOfWeek, time.getDayOfWeek().getValue());
+        if (anyDayOfMonth || anyDayOfWeek) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private static boolean has(long mask, int value) {
+        return (mask & 1L << value) != 0;
+    }
+
+    private static long parseField(String field, int min, int max, String name) {
+        long mask = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, name);
+                part = part.substring(0, slash);
+            }
+            
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else if (part.indexOf('-') > 0) {
+                from = parseNumber(part.substring(0, part.indexOf('-')), min, max, name);
+                to = parseNumber(part.substring(part.indexOf('-') + 1), min, max, name);
+                if (to < from) {
+                    throw new IllegalArgumentException(name + " range " + part + " is backwards");
+                }
+            } else {
+                from = parseNumber(part, min, max, name);
+                to = slash >= 0 ? max : from;
+            }
+            
+            for (int value = from; value <= to; value += step) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int parseNumber(String text, int min, int max, String name) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException(name + " must be between " + min + " and " + max + ", was " + value);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " '" + text + "' is not a number");
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package io.mckenz.timevoting.rounds;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.config.RoundSettings;
+import io.mckenz.timevoting.config.RoundSettings.Round;
+import io.mckenz.timevoting.config.Settings;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.messages.Placeholder;
+import io.mckenz.timevoting.scheduler.PluginTask;
+import io.mckenz.timevoting.time.WorldLock;
+import io.mckenz.timevoting.voting.RoundResult;
+import io.mckenz.timevoting.voting.SessionManager;
+import io.mckenz.timevoting.voting.VoteOption;
+import io.mckenz.timevoting.voting.VoteRound;
+import io.mckenz.timevoting.voting.VoteSession;
+
+import org.bukkit.GameRule;
+import org.bukkit.World;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Opens and closes scheduled vote rounds.
+ * <p>
+ * Every upcoming opening and closing is kept in one priority queue ordered by its deadline, and
+ * a single task sleeps until the earliest one instead of checking every tick. Deadlines are in
+ * real time; rounds tied to the in-game time of day estimate theirs from the world's time and
+ * check the world again when they wake, so lag or a changed time only moves the wake-up.
+ * While a vote holds a world's time, its rounds follow the day the world would have had.
+ * The task never sleeps longer than a minute at a time, which keeps real-time rounds on time
+ * while the server lags. Must only be used on the main thread.
+ */
+public final class RoundScheduler {
+    private static final long TICK_MILLIS = 50;
+    private static final int TICKS_PER_DAY = 24000;
+    private static final long MAX_SLEEP_TICKS = 20 * 60;
+    private static final long RETRY_TICKS = 20 * 60;
+    private static final int LATE_WINDOW_TICKS = 200;
+
+    private final TimeVoting plugin;
+    private final PriorityQueue<Wakeup> queue = new PriorityQueue<>(Comparator.comparingLong(Wakeup::at));
+    private PluginTask task;
+    private long armedFor;
+
+    /**
+     * An upcoming opening or closing
+     * 
+     * @param at When it is due, in milliseconds since the epoch
+     * @param round The configured round
+     * @param session The session to close the round in, or null to open it
+     * @param open The round to close, or null to open it
+     */
+    private record Wakeup(long at, Round round, VoteSession session, VoteRound open) {
+    }
+
+    /**
+     * Creates a new round scheduler
+     * 
+     * @param plugin The plugin instance
+     */
+    public RoundScheduler(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Schedules every configured round from now on, e.g. on enable or after a reload. Rounds
+     * that are open stay open until their planned close.
+     */
+    public void start() {
+        queue.clear();
+        RoundSettings settings = plugin.getSettings().rounds();
+        SessionManager sessions = plugin.getSessionManager();
+        long now = System.currentTimeMillis();
+        
+        Set<VoteSession> withRounds = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Round round : settings.rounds()) {
+            VoteSession session = getSession(round);
+            if (session != null) {
+                withRounds.add(session);
+            }
+            scheduleOpening(round, now);
+        }
+        
+        for (VoteSession session : sessions.getSessions()) {
+            session.setClosedBetweenRounds(settings.closedBetweenRounds() && withRounds.contains(session));
+            VoteRound open = session.getRound();
+            if (open != null) {
+                queue.add(new Wakeup(open.closesAt(), null, session, open));
+            }
+        }
+        
+        stop();
+        arm();
+    }
+
+    /**
+     * Ends the open round of a session because an option reached the threshold. Must be called
+     * before the session's votes are cleared.
+     * 
+     * @param session The session
+     * @param option The winning option, or null if the time change was cancelled
+     * @param votes The votes for the winning option
+     */
+    public void thresholdReached(VoteSession session, VoteOption option, int votes) {
+        VoteRound open = session.getRound();
+        if (open != null) {
+            finish(session, open, option, votes);
+        }
+    }
+
+    /**
+     * Gets the number of upcoming openings and closings
+     * 
+     * @return The queue size
+     */
+    public int getScheduled() {
+        return queue.size();
+    }
+
+    /**
+     * Drops every upcoming round and stops the task
+     */
+    public void shutdown() {
+        queue.clear();
+        stop();
+    }
+
+    private void run() {
+        task = null;
+        long now = System.currentTimeMillis();
+        
+        Wakeup next;
+        while ((next = queue.peek()) != null && next.at() <= now + TICK_MILLIS / 2) {
+            queue.poll();
+            if (next.open() != null) {
+                close(next.session(), next.open());
+            } else {
+                fire(next.round(), now);
+            }
+        }
+        
+        arm();
+    }
+
+    private void arm() {
+        Wakeup next = queue.peek();
+        if (next == null) {
+            stop();
+            return;
+        }
+        if (task != null && armedFor <= next.at()) {
+            return;
+        }
+        
+        stop();
+        long now = System.currentTimeMillis();
+        long ticks = Math.max(1, Math.min(MAX_SLEEP_TICKS, (next.at() - now + TICK_MILLIS - 1) / TICK_MILLIS));
+        armedFor = now + ticks * TICK_MILLIS;
+        task = plugin.getPluginScheduler().runLater(this::run, ticks);
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void scheduleOpening(Round round, long now) {
+        if (round.cron() != null) {
+            ZonedDateTime next = round.cron().next(ZonedDateTime.now());
+            if (next != null) {
+                queue.add(new Wakeup(next.toInstant().toEpochMilli(), round, null, null));
+            }
+            return;
+        }
+        
+        World world = plugin.getServer().getWorld(round.world());
+        long time = world != null ? getDayTime(world) : -1;
+        long ticks = time >= 0 ? ticksUntil(round.atTime(), time) : RETRY_TICKS;
+        queue.add(new Wakeup(now + ticks * TICK_MILLIS, round, null, null));
+    }
+
+    private void fire(Round round, long now) {
+        if (round.cron() == null) {
+            // The estimate may be off after lag or a time change, so the world's clock decides
+            World world = plugin.getServer().getWorld(round.world());
+            long time = world != null ? getDayTime(world) : -1;
+            if (time < 0) {
+                queue.add(new Wakeup(now + RETRY_TICKS * TICK_MILLIS, round, null, null));
+                return;
+            }
+            long late = Math.floorMod(time - round.atTime(), TICKS_PER_DAY);
+            queue.add(new Wakeup(now + (TICKS_PER_DAY - late) * TICK_MILLIS, round, null, null));
+            if (late >= LATE_WINDOW_TICKS) {
+                return;
+            }
+        } else {
+            scheduleOpening(round, now);
+        }
+        
+        open(round, now);
+    }
+
+    private void open(Round round, long now) {
+        VoteSession session = getSession(round);
+        if (session == null || session.getRound() != null || !plugin.isPluginEnabled()) {
+            return;
+        }
+        
+        // A round is a fresh poll; votes from before it do not count
+        plugin.clearVotes(session);
+        VoteRound open = new VoteRound(round.name(), now, now + round.durationTicks() * TICK_MILLIS);
+        session.setRound(open);
+        queue.add(new Wakeup(open.closesAt(), round, session, open));
+        
+        Settings settings = plugin.getSettings();
+        plugin.broadcast(session, settings.messages().prefixed(Message.ROUND_OPENED,
+                Placeholder.SECONDS, round.durationTicks() / 20,
+                Placeholder.OPTIONS, settings.options().getDisplayList()));
+        plugin.logDebug("Round " + round.name() + " opened in " + session.getName());
+    }
+
+    private void close(VoteSession session, VoteRound open) {
+        // The round may have ended early, or the session may have been replaced by a reload
+        if (session.getRound() != open || plugin.getSessionManager().getSession(session.getName()) != session) {
+            return;
+        }
+        
+        // The leader wins without the threshold, as long as enough players are online. Like a
+        // threshold win it waits for the change cooldown and can be cancelled by listeners.
+        VoteOption leader = session.getTally().getLeader();
+        int votes = leader != null ? session.getTally().getCount(leader) : 0;
+        boolean won = leader != null && session.getQuorum().hasMinimumPlayers(plugin.getSettings())
+                && plugin.approveTimeChange(session, leader, votes) && plugin.changeTime(session, leader);
+        finish(session, open, won ? leader : null, votes);
+        plugin.clearVotes(session);
+    }
+
+    private void finish(VoteSession session, VoteRound open, VoteOption winner, int votes) {
+        session.setRound(null);
+        plugin.getVoteEngine().recordRoundResult(new RoundResult(open.name(), session.getName(),
+                winner != null ? winner.getName() : null, votes, session.getSnapshot().getTotalVotes(),
+                System.currentTimeMillis()));
+        
+        Settings settings = plugin.getSettings();
+        if (winner != null) {
+            plugin.broadcast(session, settings.messages().prefixed(Message.ROUND_WON,
+                    Placeholder.TIME, winner.getName(),
+                    Placeholder.VOTES, votes));
+        } else {
+            plugin.broadcast(session, settings.messages().prefixed(Message.ROUND_NO_RESULT));
+        }
+        plugin.logDebug("Round " + open.name() + " closed in " + session.getName()
+                + (winner != null ? " with " + winner.getName() : " without a result"));
+    }
+
+    private VoteSession getSession(Round round) {
+        World world = plugin.getServer().getWorld(round.world());
+        SessionManager sessions = plugin.getSessionManager();
+        return world != null && sessions != null ? sessions.getSession(world) : null;
+    }
+
+    /**
+     * Gets the time of day rounds of a world follow. A world whose time is held by a vote keeps
+     * its own day underneath, which is the time it gets back when the lock ends.
+     * 
+     * @param world The world
+     * @return The time of day in ticks, or -1 if an admin stopped the daylight cycle
+     */
+    private long getDayTime(World world) {
+        WorldLock lock = plugin.getTimeLock().getLock(world);
+        if (lock != null) {
+            return lock.daylightCycle() ? Math.floorMod(lock.getNaturalTime(world.getGameTime()), TICKS_PER_DAY) : -1;
+        }
+        return Boolean.TRUE.equals(world.getGameRuleValue(GameRule.DO_DAYLIGHT_CYCLE)) ? world.getTime() : -1;
+    }
+
+    private static long ticksUntil(int atTime, long time) {
+        return Math.floorMod(atTime - time, TICKS_PER_DAY);
+    }
+}
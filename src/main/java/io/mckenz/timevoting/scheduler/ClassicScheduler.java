@@ -0,0 +1,61 @@
+package io.mckenz.timevoting.scheduler;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+/**
+ * Schedules through the {@link BukkitScheduler}, with the main thread as the owner thread
+ */
+final class ClassicScheduler implements PluginScheduler {
+    private final Plugin plugin;
+
+    /**
+     * Creates a new classic scheduler
+     * 
+     * @param plugin The plugin owning the tasks
+     */
+    ClassicScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "Bukkit";
+    }
+
+    @Override
+    public boolean isOwnerThread() {
+        return plugin.getServer().isPrimaryThread();
+    }
+
+    @Override
+    public PluginTask run(Runnable task) {
+        return plugin.getServer().getScheduler().runTask(plugin, task)::cancel;
+    }
+
+    @Override
+    public PluginTask runLater(Runnable task, long delayTicks) {
+        return plugin.getServer().getScheduler().runTaskLater(plugin, task, delayTicks)::cancel;
+    }
+
+    @Override
+    public PluginTask runTimer(Runnable task, long delayTicks, long periodTicks) {
+        return plugin.getServer().getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks)::cancel;
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task, long delayTicks) {
+        // Players live on the main thread too; only skip those who left in the meantime
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            if (player.isOnline()) {
+                task.run();
+            }
+        }, delayTicks);
+    }
+}
@@ -0,0 +1,98 @@
+package io.mckenz.timevoting.scheduler;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs the plugin's tasks on the threads the server expects them on.
+ * <p>
+ * Vote state and world time belong to one owner thread. On a classic server that is the main
+ * thread. On a server with regionized multithreading it is the global region thread, which owns
+ * world time and game rules there. Everything that touches them is scheduled through here.
+ * Events and commands that arrive on another thread move onto the owner thread with
+ * {@link #execute(Runnable)}. The implementation is picked once, from the classes the running
+ * server provides.
+ */
+public interface PluginScheduler {
+
+    /**
+     * Creates the scheduler that fits the running server
+     * 
+     * @param plugin The plugin owning the tasks
+     * @return The regionized scheduler on servers that have one, the Bukkit scheduler otherwise
+     */
+    static PluginScheduler create(Plugin plugin) {
+        return RegionizedScheduler.isSupported() ? new RegionizedScheduler(plugin) : new ClassicScheduler(plugin);
+    }
+
+    /**
+     * Gets a short name for logs
+     * 
+     * @return The scheduler name
+     */
+    String getName();
+
+    /**
+     * Checks whether the calling thread owns vote state and world time
+     * 
+     * @return true on the owner thread
+     */
+    boolean isOwnerThread();
+
+    /**
+     * Runs a task on the owner thread, right away if already on it
+     * 
+     * @param task The task
+     */
+    default void execute(Runnable task) {
+        if (isOwnerThread()) {
+            task.run();
+        } else {
+            run(task);
+        }
+    }
+
+    /**
+     * Runs a task on the owner thread on the next tick
+     * 
+     * @param task The task
+     * @return The scheduled task
+     */
+    PluginTask run(Runnable task);
+
+    /**
+     * Runs a task on the owner thread after a delay
+     * 
+     * @param task The task
+     * @param delayTicks The delay in ticks, at least 1
+     * @return The scheduled task
+     */
+    PluginTask runLater(Runnable task, long delayTicks);
+
+    /**
+     * Runs a task on the owner thread repeatedly until it is cancelled
+     * 
+     * @param task The task
+     * @param delayTicks The delay before the first run in ticks, at least 1
+     * @param periodTicks The ticks between runs, at least 1
+     * @return The scheduled task
+     */
+    PluginTask runTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task off the server threads, e.g. for I/O
+     * 
+     * @param task The task
+     */
+    void runAsync(Runnable task);
+
+    /**
+     * Runs a task on the thread that owns a player after a delay. The task is dropped if the
+     * player leaves first.
+     * 
+     * @param player The player
+     * @param task The task
+     * @param delayTicks The delay in ticks, at least 1
+     */
+    void runForPlayer(Player player, Runnable task, long delayTicks);
+}
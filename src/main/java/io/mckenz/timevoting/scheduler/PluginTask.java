@@ -0,0 +1,13 @@
+package io.mckenz.timevoting.scheduler;
+
+/**
+ * A task scheduled through a {@link PluginScheduler}
+ */
+@FunctionalInterface
+public interface PluginTask {
+
+    /**
+     * Cancels the task. Does nothing if it already ran or was cancelled.
+     */
+    void cancel();
+}
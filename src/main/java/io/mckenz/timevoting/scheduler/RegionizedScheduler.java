@@ -0,0 +1,155 @@
+package io.mckenz.timevoting.scheduler;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+/**
+ * Schedules through the global region, async and entity schedulers of servers with regionized
+ * multithreading, with the global region thread as the owner thread.
+ * <p>
+ * The plugin is built against the Bukkit API, which does not have these schedulers, so they are
+ * looked up once by reflection and called through method handles afterwards.
+ */
+final class RegionizedScheduler implements PluginScheduler {
+    private static final String REGIONIZED_SERVER = "io.papermc.paper.threadedregions.RegionizedServer";
+    private static final String SCHEDULER_PACKAGE = "io.papermc.paper.threadedregions.scheduler.";
+
+    private final Plugin plugin;
+    private final Object globalScheduler;
+    private final Object asyncScheduler;
+    private final MethodHandle isGlobalTickThread;
+    private final MethodHandle run;
+    private final MethodHandle runDelayed;
+    private final MethodHandle runAtFixedRate;
+    private final MethodHandle runNow;
+    private final MethodHandle getEntityScheduler;
+    private final MethodHandle runForEntity;
+    private final MethodHandle cancel;
+
+    /**
+     * Checks whether the running server has regionized multithreading
+     * 
+     * @return true if the regionized schedulers are available
+     */
+    static boolean isSupported() {
+        try {
+            Class.forName(REGIONIZED_SERVER);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a new regionized scheduler
+     * 
+     * @param plugin The plugin owning the tasks
+     * @throws IllegalStateException If the server does not have the expected schedulers
+     */
+    RegionizedScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        try {
+            Server server = plugin.getServer();
+            Class<?> global = Class.forName(SCHEDULER_PACKAGE + "GlobalRegionScheduler");
+            Class<?> async = Class.forName(SCHEDULER_PACKAGE + "AsyncScheduler");
+            Class<?> entity = Class.forName(SCHEDULER_PACKAGE + "EntityScheduler");
+            Class<?> task = Class.forName(SCHEDULER_PACKAGE + "ScheduledTask");
+            
+            this.globalScheduler = Server.class.getMethod("getGlobalRegionScheduler").invoke(server);
+            this.asyncScheduler = Server.class.getMethod("getAsyncScheduler").invoke(server);
+            this.isGlobalTickThread = find(Server.class, "isGlobalTickThread");
+            this.run = find(global, "run", Plugin.class, Consumer.class);
+            this.runDelayed = find(global, "runDelayed", Plugin.class, Consumer.class, long.class);
+            this.runAtFixedRate = find(global, "runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+            this.runNow = find(async, "runNow", Plugin.class, Consumer.class);
+            this.getEntityScheduler = find(Entity.class, "getScheduler");
+            this.runForEntity = find(entity, "runDelayed", Plugin.class, Consumer.class, Runnable.class, long.class);
+            this.cancel = find(task, "cancel");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Regionized schedulers are not available", e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "regionized";
+    }
+
+    @Override
+    public boolean isOwnerThread() {
+        try {
+            Object result = (Object) isGlobalTickThread.invokeExact((Object) plugin.getServer());
+            return (Boolean) result;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public PluginTask run(Runnable task) {
+        return wrap(call(run, globalScheduler, plugin, consumer(task)));
+    }
+
+    @Override
+    public PluginTask runLater(Runnable task, long delayTicks) {
+        return wrap(call(runDelayed, globalScheduler, plugin, consumer(task), Math.max(1, delayTicks)));
+    }
+
+    @Override
+    public PluginTask runTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(call(runAtFixedRate, globalScheduler, plugin, consumer(task),
+                Math.max(1, delayTicks), Math.max(1, periodTicks)));
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        call(runNow, asyncScheduler, plugin, consumer(task));
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task, long delayTicks) {
+        // The entity scheduler drops the task by itself if the player leaves
+        Object scheduler = call(getEntityScheduler, player);
+        call(runForEntity, scheduler, plugin, consumer(task), null, Math.max(1, delayTicks));
+    }
+
+    private PluginTask wrap(Object task) {
+        return () -> call(cancel, task);
+    }
+
+    private static Consumer<Object> consumer(Runnable task) {
+        return scheduled -> task.run();
+    }
+
+    private static MethodHandle find(Class<?> owner, String name, Class<?>... parameters)
+            throws ReflectiveOperationException {
+        Method method = owner.getMethod(name, parameters);
+        MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+        return handle.asType(handle.type().generic());
+    }
+
+    private static Object call(MethodHandle handle, Object... arguments) {
+        try {
+            return handle.invokeWithArguments(arguments);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,65 @@
+package io.mckenz.timevoting.time;
+
+/**
+ * The parts of a Minecraft day shown by /timeforecast, in the order they occur
+ */
+public enum DayPhase {
+    SUNRISE(0, "Sunrise"),
+    DAY(1000, "Day"),
+    SUNSET(12000, "Sunset"),
+    NIGHT(13000, "Night");
+
+    private static final DayPhase[] PHASES = values();
+
+    private final long start;
+    private final String displayName;
+
+    DayPhase(long start, String displayName) {
+        this.start = start;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the phase a time of day falls into
+     * 
+     * @param time The time of day in ticks (0-24000)
+     * @return The phase
+     */
+    public static DayPhase at(long time) {
+        for (int i = PHASES.length - 1; i > 0; i--) {
+            if (time >= PHASES[i].start) {
+                return PHASES[i];
+            }
+        }
+        return SUNRISE;
+    }
+
+    /**
+     * Gets the time of day this phase starts at
+     * 
+     * @return The start in ticks
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the name shown by /timeforecast
+     * 
+     * @return The display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the game ticks until this phase starts next
+     * 
+     * @param time The current time of day in ticks (0-24000)
+     * @return The ticks until the next start, a full day if it starts right now
+     */
+    public long ticksUntil(long time) {
+        long ticks = Math.floorMod(start - time, TimeOfDay.TICKS_PER_DAY);
+        return ticks == 0 ? TimeOfDay.TICKS_PER_DAY : ticks;
+    }
+}
@@ -0,0 +1,197 @@
+package io.mckenz.timevoting.time;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.config.Settings;
+import io.mckenz.timevoting.scheduler.PluginTask;
+import io.mckenz.timevoting.voting.VoteSession;
+
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies voted times to worlds spread over several ticks. Each tick spends at most the
+ * configured budget, always updating worlds with the most players first. Time can either jump
+ * straight to the target or fast-forward towards it over a number of ticks.
+ */
+public class TimeApplier {
+    private static final long TICKS_PER_DAY = 24000L;
+    private static final Comparator<World> BUSIEST_FIRST = Comparator
+            .comparingInt((World world) -> world.getPlayers().size()).reversed()
+            .thenComparing(World::getName);
+
+    private final TimeVoting plugin;
+    private final Map<VoteSession, Job> jobs = new LinkedHashMap<>();
+    private PluginTask task;
+
+    /**
+     * Creates a new time applier
+     * 
+     * @param plugin The plugin instance
+     */
+    public TimeApplier(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts moving the worlds of a session to a time. The first slice runs right away, so on
+     * small servers the change completes in the same tick. A running job for the same session
+     * is replaced.
+     * 
+     * @param session The session whose worlds to update
+     * @param ticks The target time in ticks
+     */
+    public void apply(VoteSession session, long ticks) {
+        Settings settings = plugin.getSettings();
+        List<World> worlds = new ArrayList<>(session.getWorlds());
+        worlds.sort(BUSIEST_FIRST);
+        
+        Job job = new Job(worlds, ticks, Math.max(1, settings.fastForwardTicks()));
+        jobs.put(session, job);
+        
+        if (!job.run(settings.tickBudgetNanos())) {
+            jobs.remove(session);
+            return;
+        }
+        
+        if (task == null) {
+            task = plugin.getPluginScheduler().runTimer(this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stops all running jobs, leaving worlds at whatever time they reached
+     */
+    public void cancelAll() {
+        jobs.clear();
+        stopTask();
+    }
+
+    /**
+     * Stops the running job of a session, leaving its worlds at whatever time they reached
+     * 
+     * @param session The session
+     */
+    public void cancel(VoteSession session) {
+        if (jobs.remove(session) != null && jobs.isEmpty()) {
+            stopTask();
+        }
+    }
+
+    /**
+     * Checks whether a session still has worlds waiting to be updated
+     * 
+     * @param session The session
+     * @return true if a job for the session is running
+     */
+    public boolean isApplying(VoteSession session) {
+        return jobs.containsKey(session);
+    }
+
+    private void tick() {
+        long budget = plugin.getSettings().tickBudgetNanos();
+        long start = System.nanoTime();
+        
+        // Sessions share one budget; older jobs go first
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            long remaining = budget - (System.nanoTime() - start);
+            if (!iterator.next().run(Math.max(0, remaining))) {
+                iterator.remove();
+            }
+        }
+        
+        if (jobs.isEmpty()) {
+            stopTask();
+        }
+    }
+
+    private void stopTask() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Moves one session's worlds to the target time in a fixed number of steps
+     */
+    private final class Job {
+        private final World[] worlds;
+        private final long[] startTimes;
+        private final long[] distances;
+        private final int[] appliedSteps;
+        private final int totalSteps;
+        private int step;
+        private int cursor;
+        
+        Job(List<World> worlds, long target, int totalSteps) {
+            this.worlds = worlds.toArray(new World[0]);
+            this.startTimes = new long[this.worlds.length];
+            this.distances = new long[this.worlds.length];
+            this.appliedSteps = new int[this.worlds.length];
+            this.totalSteps = totalSteps;
+            
+            // Time only ever moves forward, like sleeping through the night
+            for (int i = 0; i < this.worlds.length; i++) {
+                startTimes[i] = this.worlds[i].getTime();
+                distances[i] = Math.floorMod(target - startTimes[i], TICKS_PER_DAY);
+            }
+        }
+        
+        /**
+         * Advances this job by one tick
+         * 
+         * @param budgetNanos The time this tick may spend
+         * @return true if worlds are still waiting, false if the job is done
+         */
+        boolean run(long budgetNanos) {
+            if (worlds.length == 0) {
+                return false;
+            }
+            if (step < totalSteps) {
+                step++;
+            }
+            
+            long start = System.nanoTime();
+            int deferred = -1;
+            int updated = 0;
+            int pending = 0;
+            for (int visited = 0; visited < worlds.length; visited++) {
+                int i = (cursor + visited) % worlds.length;
+                if (appliedSteps[i] >= step) {
+                    continue;
+                }
+                
+                // Always make progress, even if the budget is already used up
+                if (pending > 0 || (updated > 0 && System.nanoTime() - start >= budgetNanos)) {
+                    if (pending == 0) {
+                        deferred = i;
+                    }
+                    pending++;
+                    continue;
+                }
+                
+                long ticks = startTimes[i] + distances[i] * step / totalSteps;
+                worlds[i].setTime(ticks % TICKS_PER_DAY);
+                appliedSteps[i] = step;
+                updated++;
+                
+                if (step == totalSteps) {
+                    plugin.logDebug("Set time to " + (ticks % TICKS_PER_DAY) + " in world " + worlds[i].getName());
+                }
+            }
+            
+            // The next tick starts with the first world the budget deferred
+            if (deferred >= 0) {
+                cursor = deferred;
+            }
+            return pending > 0 || step < totalSteps;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.mckenz.timevoting.time;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.config.Settings;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.messages.Messages;
+import io.mckenz.timevoting.messages.Placeholder;
+import io.mckenz.timevoting.scheduler.PluginTask;
+
+import org.bukkit.GameRule;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Renders the /timeforecast lines of a world: the current time and how many real seconds it is
+ * until the next sunrise, sunset and night at the measured tick rate.
+ * <p>
+ * The lines only change when the world's clock moves, so they are cached per world and
+ * rendered at most once per tick no matter how often they are asked for. The tick rate is
+ * measured once per second by a timer that only reads the clock.
+ */
+public class TimeForecast {
+    private static final int SAMPLE_TICKS = 20;
+    private static final double MAX_TICKS_PER_SECOND = 20.0;
+    private static final DayPhase[] UPCOMING = {DayPhase.SUNRISE, DayPhase.SUNSET, DayPhase.NIGHT};
+
+    private final TimeVoting plugin;
+    private final Map<UUID, Forecast> cache = new HashMap<>();
+    private PluginTask task;
+    private long lastSample;
+    private volatile double ticksPerSecond = MAX_TICKS_PER_SECOND;
+
+    /**
+     * The lines rendered for one world at one moment
+     */
+    private record Forecast(long fullTime, boolean daylightCycle, Settings settings, String[] lines) {
+    }
+
+    /**
+     * Creates a new time forecast
+     * 
+     * @param plugin The plugin instance
+     */
+    public TimeForecast(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts measuring the tick rate
+     */
+    public void start() {
+        shutdown();
+        lastSample = System.nanoTime();
+        task = plugin.getPluginScheduler().runTimer(this::sample, SAMPLE_TICKS, SAMPLE_TICKS);
+    }
+
+    /**
+     * Stops measuring the tick rate and drops all cached forecasts
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        cache.clear();
+    }
+
+    /**
+     * Gets the measured tick rate, smoothed over the last few seconds
+     * 
+     * @return The ticks per second, at most 20
+     */
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * Gets the forecast lines of a world. Must be called on the main thread.
+     * 
+     * @param world The world
+     * @return The rendered lines; must not be modified
+     */
+    public String[] getForecast(World world) {
+        Settings settings = plugin.getSettings();
+        long fullTime = world.getFullTime();
+        boolean daylightCycle = Boolean.TRUE.equals(world.getGameRuleValue(GameRule.DO_DAYLIGHT_CYCLE));
+        
+        Forecast cached = cache.get(world.getUID());
+        if (cached != null && cached.fullTime() == fullTime && cached.daylightCycle() == daylightCycle
+                && cached.settings() == settings) {
+            return cached.lines();
+        }
+        
+        String[] lines = render(settings.messages(), Math.floorMod(fullTime, TimeOfDay.TICKS_PER_DAY), daylightCycle);
+        cache.put(world.getUID(), new Forecast(fullTime, daylightCycle, settings, lines));
+        return lines;
+    }
+
+    private String[] render(Messages messages, long time, boolean daylightCycle) {
+        String current = messages.prefixed(Message.FORECAST,
+                Placeholder.TIME, TimeOfDay.format(time),
+                Placeholder.ENABLED, daylightCycle ? "enabled" : "disabled");
+        if (!daylightCycle) {
+            // The clock is stopped, so nothing is coming up
+            return new String[] {current};
+        }
+        
+        DayPhase[] upcoming = UPCOMING.clone();
+        Arrays.sort(upcoming, Comparator.comparingLong(phase -> phase.ticksUntil(time)));
+        
+        String[] lines = new String[upcoming.length + 1];
+        lines[0] = current;
+        double rate = ticksPerSecond;
+        for (int i = 0; i < upcoming.length; i++) {
+            lines[i + 1] = messages.plain(Message.FORECAST_NEXT,
+                    Placeholder.TIME, upcoming[i].getDisplayName(),
+                    Placeholder.SECONDS, (long) Math.ceil(upcoming[i].ticksUntil(time) / rate));
+        }
+        return lines;
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long elapsed = now - lastSample;
+        lastSample = now;
+        if (elapsed <= 0) {
+            return;
+        }
+        
+        // A server catching up runs ticks back to back, which must not count as faster than 20
+        double measured = Math.min(MAX_TICKS_PER_SECOND, SAMPLE_TICKS * 1_000_000_000.0 / elapsed);
+        ticksPerSecond = ticksPerSecond * 0.8 + measured * 0.2;
+    }
+}
@@ -0,0 +1,270 @@
+package io.mckenz.timevoting.time;
+
+import io.mckenz.timevoting.TimeVoting;
+import io.mckenz.timevoting.api.TimeState;
+import io.mckenz.timevoting.api.events.TimeResetEvent;
+import io.mckenz.timevoting.expiry.TimingWheel;
+import io.mckenz.timevoting.messages.Message;
+import io.mckenz.timevoting.persistence.VoteStateStore;
+import io.mckenz.timevoting.scheduler.PluginTask;
+import io.mckenz.timevoting.voting.SessionManager;
+import io.mckenz.timevoting.voting.VoteSession;
+
+import org.bukkit.GameRule;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds voted times for the configured duration and then gives worlds their own day back.
+ * <p>
+ * Each world moves from {@link TimeState#NATURAL} to {@link TimeState#LOCKED} when a voted time
+ * is applied: its daylight cycle is frozen, so the time stays put without setting it again every
+ * tick. When the duration is over the world is {@link TimeState#RESTORING} until its previous
+ * day cycle rule and the time it would have reached are put back, which happens right away if
+ * the world is loaded and otherwise as soon as it is. All locks share one {@link TimingWheel}
+ * advanced by a single task that only runs while worlds are locked. Locks are saved with the
+ * vote state, so worlds left frozen by a crash are restored on the next start. Must only be
+ * used on the main thread.
+ */
+public final class TimeLock {
+    private final TimeVoting plugin;
+    private final TimingWheel<Entry> wheel = new TimingWheel<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<Entry> expired = new ArrayList<>();
+    private PluginTask task;
+
+    /**
+     * A locked world. The timer is reused when the lock is extended.
+     */
+    private static final class Entry {
+        private WorldLock lock;
+        private TimeState state = TimeState.LOCKED;
+        private TimingWheel.Timer<Entry> timer;
+        
+        private Entry(WorldLock lock) {
+            this.lock = lock;
+        }
+    }
+
+    /**
+     * Creates a new time lock
+     * 
+     * @param plugin The plugin instance
+     */
+    public TimeLock(TimeVoting plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Freezes the worlds of a session for a duration. Call this before the voted time is
+     * applied, so the time before the vote is the one restored. Worlds that are already locked
+     * keep what they are restored to and only have their lock extended.
+     * 
+     * @param session The session whose time was changed
+     * @param durationTicks How long the voted time lasts in ticks
+     */
+    public void lock(VoteSession session, long durationTicks) {
+        long expiresAt = System.currentTimeMillis() + durationTicks * 50;
+        for (World world : session.getWorlds()) {
+            Entry entry = entries.get(world.getName());
+            if (entry == null) {
+                entry = new Entry(new WorldLock(world.getName(), world.getFullTime(), world.getGameTime(),
+                        !Boolean.FALSE.equals(world.getGameRuleValue(GameRule.DO_DAYLIGHT_CYCLE)), expiresAt));
+                entries.put(world.getName(), entry);
+            } else {
+                entry.lock = entry.lock.withExpiresAt(expiresAt);
+                entry.state = TimeState.LOCKED;
+            }
+            
+            world.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, false);
+            schedule(entry, durationTicks);
+            plugin.getStateStore().recordTimeLock(entry.lock);
+        }
+        plugin.logDebug("Locked time in " + session.getName() + " for " + durationTicks + " ticks");
+    }
+
+    /**
+     * Takes back a lock saved before the last shutdown or crash. A lock that ended in the
+     * meantime is restored as soon as its world is loaded.
+     * 
+     * @param lock The saved lock
+     */
+    public void recover(WorldLock lock) {
+        Entry entry = new Entry(lock);
+        entries.put(lock.world(), entry);
+        
+        long remaining = lock.expiresAt() - System.currentTimeMillis();
+        World world = plugin.getServer().getWorld(lock.world());
+        if (remaining <= 0) {
+            entry.state = TimeState.RESTORING;
+            if (world != null) {
+                restore(entry, world);
+            }
+            return;
+        }
+        
+        if (world != null) {
+            world.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, false);
+        }
+        schedule(entry, (remaining + 49) / 50);
+    }
+
+    /**
+     * Catches up with a world that was loaded, e.g. one whose lock ended while it was unloaded
+     * 
+     * @param world The loaded world
+     */
+    public void worldLoaded(World world) {
+        Entry entry = entries.get(world.getName());
+        if (entry == null) {
+            return;
+        }
+        
+        if (entry.state == TimeState.RESTORING) {
+            restore(entry, world);
+        } else {
+            world.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, false);
+        }
+    }
+
+    /**
+     * Gets the state of a world's time
+     * 
+     * @param world The world
+     * @return The state, {@link TimeState#NATURAL} if the world is not locked
+     */
+    public TimeState getState(World world) {
+        Entry entry = entries.get(world.getName());
+        return entry != null ? entry.state : TimeState.NATURAL;
+    }
+
+    /**
+     * Gets the lock holding a world's time
+     * 
+     * @param world The world
+     * @return The lock, or null if the world is not locked
+     */
+    public WorldLock getLock(World world) {
+        Entry entry = entries.get(world.getName());
+        return entry != null ? entry.lock : null;
+    }
+
+    /**
+     * Gets every world that is locked or waiting to be restored, for saving
+     * 
+     * @return The locks
+     */
+    public List<WorldLock> getLocks() {
+        List<WorldLock> locks = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            locks.add(entry.lock);
+        }
+        return locks;
+    }
+
+    /**
+     * Restores every loaded world and stops the task, e.g. when the plugin is disabled. Worlds
+     * that are not loaded keep their lock and are restored after the next start.
+     */
+    public void shutdown() {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            World world = plugin.getServer().getWorld(entry.lock.world());
+            if (world != null) {
+                restore(entry, world);
+            }
+        }
+        wheel.clear();
+        stop();
+    }
+
+    private void schedule(Entry entry, long delayTicks) {
+        if (entry.timer == null) {
+            entry.timer = wheel.schedule(entry, delayTicks);
+        } else {
+            wheel.reschedule(entry.timer, delayTicks);
+        }
+        
+        if (task == null) {
+            task = plugin.getPluginScheduler().runTimer(this::tick, 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        wheel.advance(expired::add);
+        if (wheel.isEmpty()) {
+            stop();
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        
+        // Worlds of one session expire together; announce once per session
+        SessionManager sessions = plugin.getSessionManager();
+        Set<VoteSession> ended = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Entry entry : expired) {
+            entry.state = TimeState.RESTORING;
+            World world = plugin.getServer().getWorld(entry.lock.world());
+            if (world == null) {
+                continue;
+            }
+            restore(entry, world);
+            
+            VoteSession session = sessions != null ? sessions.getSession(world) : null;
+            if (session != null) {
+                ended.add(session);
+            }
+        }
+        expired.clear();
+        
+        for (VoteSession session : ended) {
+            // A long fast-forward must not carry on past the restored time
+            plugin.getTimeApplier().cancel(session);
+            announce(session);
+        }
+    }
+
+    private void restore(Entry entry, World world) {
+        WorldLock lock = entry.lock;
+        world.setFullTime(lock.getNaturalTime(world.getGameTime()));
+        world.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, lock.daylightCycle());
+        
+        entries.remove(lock.world());
+        if (entry.timer != null) {
+            wheel.cancel(entry.timer);
+        }
+        entry.state = TimeState.NATURAL;
+        
+        VoteStateStore stateStore = plugin.getStateStore();
+        if (stateStore != null) {
+            stateStore.recordTimeUnlock(lock.world());
+        }
+        plugin.logDebug("Restored time " + world.getTime() + " in world " + world.getName());
+    }
+
+    private void announce(VoteSession session) {
+        // Cancelling only keeps the announcement quiet; the worlds are back to normal either way
+        if (TimeResetEvent.hasListeners()) {
+            TimeResetEvent event = new TimeResetEvent(session.getName(), session.getWorlds());
+            plugin.getServer().getPluginManager().callEvent(event);
+            if (event.isCancelled()) {
+                return;
+            }
+        }
+        plugin.broadcast(session, plugin.getMessages().prefixed(Message.TIME_RESET));
+        plugin.logDebug("Time has been reset to normal cycle in " + session.getName());
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.mckenz.timevoting.time;
+
+/**
+ * Clock labels for every in-game minute, such as "6:30 PM (Night)". A day has 1440 minutes and
+ * every phase starts on a full hour, so the whole day fits in a table built once and a label
+ * is a single array lookup.
+ */
+public final class TimeOfDay {
+    public static final long TICKS_PER_DAY = 24000L;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final String[] LABELS = new String[MINUTES_PER_DAY];
+
+    static {
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            // Tick 0 is 6:00 AM
+            int hours = (minute / 60 + 6) % 24;
+            String ampm = hours >= 12 ? "PM" : "AM";
+            int clockHours = hours % 12 == 0 ? 12 : hours % 12;
+            
+            long ticks = minute * 1000L / 60;
+            LABELS[minute] = String.format("%d:%02d %s (%s)", clockHours, minute % 60, ampm,
+                    DayPhase.at(ticks).getDisplayName());
+        }
+    }
+
+    private TimeOfDay() {
+    }
+
+    /**
+     * Gets a human-readable label for a time of day
+     * 
+     * @param time The time in ticks; values outside a single day wrap around
+     * @return The label, e.g. "6:00 AM (Sunrise)"
+     */
+    public static String format(long time) {
+        return LABELS[(int) (Math.floorMod(time, TICKS_PER_DAY) * 60 / 1000)];
+    }
+}
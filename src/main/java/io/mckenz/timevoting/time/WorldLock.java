@@ -0,0 +1,34 @@
+package io.mckenz.timevoting.time;
+
+/**
+ * What a world looked like before its time was locked, so it can be put back afterwards
+ * 
+ * @param world The world name
+ * @param previousTime The world's full time when it was locked
+ * @param lockedAt The world's game time when it was locked. Game time keeps counting while
+ *                 the daylight cycle is frozen, so it tells how far the day would have moved.
+ * @param daylightCycle Whether the daylight cycle was running before the lock
+ * @param expiresAt When the lock ends, in milliseconds since the epoch
+ */
+public record WorldLock(String world, long previousTime, long lockedAt, boolean daylightCycle, long expiresAt) {
+
+    /**
+     * Gets the time the world would have reached by now if it had never been locked
+     * 
+     * @param gameTime The world's current game time
+     * @return The full time to restore
+     */
+    public long getNaturalTime(long gameTime) {
+        return daylightCycle ? previousTime + Math.max(0, gameTime - lockedAt) : previousTime;
+    }
+
+    /**
+     * Creates a copy of this lock with another end
+     * 
+     * @param expiresAt When the lock ends, in milliseconds since the epoch
+     * @return The extended lock
+     */
+    public WorldLock withExpiresAt(long expiresAt) {
+        return new WorldLock(world, previousTime, lockedAt, daylightCycle, expiresAt);
+    }
+}
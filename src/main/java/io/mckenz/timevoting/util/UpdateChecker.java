@@ -25,8 +25,8 @@ public class UpdateChecker implements Listener {
     private final TimeVoting plugin;
     private final int resourceId;
     private final boolean notifyAdmins;
-    private boolean updateAvailable = false;
-    private String latestVersion = null;
+    private volatile boolean updateAvailable = false;
+    private volatile String latestVersion = null;
 
     /**
      * Create a new update checker
@@ -49,7 +49,7 @@ public class UpdateChecker implements Listener {
      * Check for updates
      */
     public void checkForUpdates() {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+        plugin.getPluginScheduler().runAsync(() -> {
             try {
                 String currentVersion = plugin.getDescription().getVersion();
                 latestVersion = fetchLatestVersion();
@@ -211,10 +211,8 @@ public class UpdateChecker implements Listener {
         
         // Only notify players with permission
         if (updateAvailable && player.hasPermission("timevoting.update")) {
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                // Get the prefix directly from config
-                String prefix = plugin.getConfig().getString("messages.prefix", "&8[&bTimeVoting&8] ");
-                prefix = plugin.colorize(prefix);
+            plugin.getPluginScheduler().runForPlayer(player, () -> {
+                String prefix = plugin.getMessages().getPrefix();
                 
                 // Send update notification messages
                 player.sendMessage(prefix + "§7A new update is available: §bv" + latestVersion);
@@ -0,0 +1,11 @@
+package io.mckenz.timevoting.voting;
+
+/**
+ * One player's vote together with the weight it was counted with, so removing it takes back
+ * exactly what was added even if the player's weight has changed since
+ * 
+ * @param option The option voted for
+ * @param weight How many votes it counts as
+ */
+public record Ballot(VoteOption option, int weight) {
+}
@@ -0,0 +1,95 @@
+package io.mckenz.timevoting.voting;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Per-player vote cooldowns that forget players once their cooldown has passed. All entries
+ * share one cooldown length, so keeping them in last-vote order means expired entries are
+ * always at the head and can be swept lazily in amortized constant time.
+ */
+public final class CooldownStore {
+    private final LinkedHashMap<UUID, Long> lastVotes = new LinkedHashMap<>();
+    private long expiredEvictions;
+
+    /**
+     * Gets how long a player still has to wait before voting again
+     * 
+     * @param playerId The player
+     * @param now The current {@link System#nanoTime()}
+     * @param cooldownNanos The configured cooldown between votes
+     * @return The remaining cooldown in nanoseconds, or 0 if the player may vote
+     */
+    public long getRemainingNanos(UUID playerId, long now, long cooldownNanos) {
+        sweep(now, cooldownNanos);
+        
+        Long lastVote = lastVotes.get(playerId);
+        return lastVote != null ? Math.max(0, cooldownNanos - (now - lastVote)) : 0;
+    }
+
+    /**
+     * Records that a player just voted, starting their cooldown
+     * 
+     * @param playerId The player
+     * @param now The current {@link System#nanoTime()}
+     * @param cooldownNanos The configured cooldown between votes
+     */
+    public void record(UUID playerId, long now, long cooldownNanos) {
+        // Re-inserting moves the player to the tail, keeping the map in expiry order
+        lastVotes.remove(playerId);
+        if (cooldownNanos > 0) {
+            lastVotes.put(playerId, now);
+        }
+        sweep(now, cooldownNanos);
+    }
+
+    /**
+     * Visits every tracked player, from the oldest vote to the most recent
+     * 
+     * @param action Receives each player and the {@link System#nanoTime()} of their last vote
+     */
+    public void forEach(ObjLongConsumer<UUID> action) {
+        for (Map.Entry<UUID, Long> entry : lastVotes.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes all cooldowns
+     */
+    public void clear() {
+        lastVotes.clear();
+    }
+
+    /**
+     * Gets the number of players currently on cooldown or not yet swept
+     * 
+     * @return The number of tracked players
+     */
+    public int size() {
+        return lastVotes.size();
+    }
+
+    /**
+     * Gets the number of entries removed because their cooldown passed
+     * 
+     * @return The number of expired evictions
+     */
+    public long getExpiredEvictions() {
+        return expiredEvictions;
+    }
+
+    private void sweep(long now, long cooldownNanos) {
+        Iterator<Map.Entry<UUID, Long>> iterator = lastVotes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue() < cooldownNanos) {
+                break;
+            }
+            iterator.remove();
+            expiredEvictions++;
+        }
+    }
+}
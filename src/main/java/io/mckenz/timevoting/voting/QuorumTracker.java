@@ -0,0 +1,139 @@
+package io.mckenz.timevoting.voting;
+
+import io.mckenz.timevoting.config.Settings;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the number of eligible voters and their summed vote weight incrementally from join and
+ * quit events, so quorum checks never have to count online players. The minimum player check
+ * uses the number of voters, the threshold uses the weight. Updated on the main thread,
+ * readable from any.
+ */
+public final class QuorumTracker {
+    private final AtomicLong version;
+    private volatile int eligibleVoters;
+    private volatile int eligibleWeight;
+
+    /**
+     * Creates a new tracker without voters
+     */
+    public QuorumTracker() {
+        this(new AtomicLong());
+    }
+
+    /**
+     * Creates a new tracker that bumps a shared version on every change
+     * 
+     * @param version The version counter of the owning session
+     */
+    QuorumTracker(AtomicLong version) {
+        this.version = version;
+    }
+
+    /**
+     * Sets the eligible voters, used once on enable to pick up players already online
+     * 
+     * @param eligibleVoters The number of eligible voters
+     * @param eligibleWeight The summed vote weight of the eligible voters
+     */
+    public void reset(int eligibleVoters, int eligibleWeight) {
+        this.eligibleVoters = eligibleVoters;
+        this.eligibleWeight = eligibleWeight;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records a voter joining
+     * 
+     * @param weight The voter's vote weight
+     */
+    public void join(int weight) {
+        eligibleVoters = eligibleVoters + 1;
+        eligibleWeight = eligibleWeight + weight;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records a voter leaving
+     * 
+     * @param weight The vote weight the voter joined with, or was last changed to
+     */
+    public void quit(int weight) {
+        int voters = eligibleVoters;
+        if (voters > 0) {
+            eligibleVoters = voters - 1;
+            eligibleWeight = Math.max(0, eligibleWeight - weight);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records a voter's weight changing while they stay
+     * 
+     * @param previous The previous weight
+     * @param weight The new weight
+     */
+    public void reweigh(int previous, int weight) {
+        if (previous != weight) {
+            eligibleWeight = Math.max(0, eligibleWeight + weight - previous);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of eligible voters
+     * 
+     * @return The eligible voter count
+     */
+    public int getEligibleVoters() {
+        return eligibleVoters;
+    }
+
+    /**
+     * Gets the summed vote weight of the eligible voters
+     * 
+     * @return The eligible weight, equal to the voter count when every vote weighs 1
+     */
+    public int getEligibleWeight() {
+        return eligibleWeight;
+    }
+
+    /**
+     * Checks whether enough voters are online for voting to work
+     * 
+     * @param settings The current settings
+     * @return true if the minimum player requirement is met
+     */
+    public boolean hasMinimumPlayers(Settings settings) {
+        return eligibleVoters >= settings.minimumPlayers();
+    }
+
+    /**
+     * Gets the number of votes needed to change the time
+     * 
+     * @param settings The current settings
+     * @return The required number of votes
+     */
+    public int getRequiredVotes(Settings settings) {
+        return settings.requiredVotes(eligibleWeight);
+    }
+
+    /**
+     * Finds the option that has reached the threshold, if any. Only the leading option
+     * can pass, so this is a constant-time check.
+     * 
+     * @param tally The current tally
+     * @param settings The current settings
+     * @return The passing option, or null if quorum is not reached
+     */
+    public VoteOption findPassingOption(VoteTally tally, Settings settings) {
+        VoteOption leader = tally.getLeader();
+        
+        if (leader == null || !hasMinimumPlayers(settings)) {
+            return null;
+        }
+        
+        return tally.getCount(leader) >= getRequiredVotes(settings) ? leader : null;
+    }
+}
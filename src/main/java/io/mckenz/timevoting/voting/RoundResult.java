@@ -0,0 +1,14 @@
+package io.mckenz.timevoting.voting;
+
+/**
+ * Outcome of a scheduled vote round
+ * 
+ * @param round The round name from the config
+ * @param session The name of the session the round was held in
+ * @param option The name of the winning option, or null if the round ended without changing the time
+ * @param votes The votes for the winning option, or for the leading option if nothing won
+ * @param totalVotes The votes cast in the round
+ * @param closedAt When the round closed, in milliseconds since the epoch
+ */
+public record RoundResult(String round, String session, String option, int votes, int totalVotes, long closedAt) {
+}
@@ -0,0 +1,128 @@
+package io.mckenz.timevoting.voting;
+
+import io.mckenz.timevoting.config.WorldSettings;
+
+import org.bukkit.World;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves worlds to vote sessions. Each world is resolved once when it loads, so vote
+ * and status lookups are a single map access regardless of how many worlds exist.
+ * <p>
+ * Worlds are added and removed on the main thread. Both maps are replaced rather than
+ * changed in place, so lookups from other threads need no locking.
+ */
+public final class SessionManager {
+    private final WorldSettings worldSettings;
+    private final VoteOptionRegistry options;
+    private volatile Map<String, VoteSession> sessions = Collections.emptyMap();
+    private volatile Map<String, VoteSession> byWorld = Collections.emptyMap();
+
+    /**
+     * Creates a session manager without any worlds
+     * 
+     * @param worldSettings The world settings deciding how worlds are grouped
+     * @param options The options that can be voted for
+     */
+    public SessionManager(WorldSettings worldSettings, VoteOptionRegistry options) {
+        this.worldSettings = worldSettings;
+        this.options = options;
+    }
+
+    /**
+     * Adds a loaded world to its session, creating the session if needed
+     * 
+     * @param world The world
+     * @return The session, or null if the world is excluded
+     */
+    public VoteSession addWorld(World world) {
+        String sessionName = worldSettings.sessionFor(world.getName());
+        if (sessionName == null) {
+            return null;
+        }
+        
+        VoteSession session = sessions.get(sessionName);
+        if (session == null) {
+            session = new VoteSession(sessionName, options);
+            Map<String, VoteSession> updated = new LinkedHashMap<>(sessions);
+            updated.put(sessionName, session);
+            sessions = updated;
+        }
+        session.addWorld(world);
+        
+        Map<String, VoteSession> updatedWorlds = new HashMap<>(byWorld);
+        updatedWorlds.put(world.getName(), session);
+        byWorld = updatedWorlds;
+        
+        return session;
+    }
+
+    /**
+     * Removes an unloaded world. Sessions are kept even when empty so their cooldown survives
+     * the world being loaded again.
+     * 
+     * @param world The world
+     */
+    public void removeWorld(World world) {
+        if (!byWorld.containsKey(world.getName())) {
+            return;
+        }
+        
+        Map<String, VoteSession> updatedWorlds = new HashMap<>(byWorld);
+        VoteSession session = updatedWorlds.remove(world.getName());
+        byWorld = updatedWorlds;
+        session.removeWorld(world);
+    }
+
+    /**
+     * Gets the session a world belongs to
+     * 
+     * @param world The world
+     * @return The session, or null if voting is disabled in that world
+     */
+    public VoteSession getSession(World world) {
+        return byWorld.get(world.getName());
+    }
+
+    /**
+     * Gets a session by name
+     * 
+     * @param name The world or world group name
+     * @return The session, or null if there is none
+     */
+    public VoteSession getSession(String name) {
+        return sessions.get(name);
+    }
+
+    /**
+     * Gets all sessions
+     * 
+     * @return An unmodifiable view of the sessions, in creation order
+     */
+    public Collection<VoteSession> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    /**
+     * Gets the world settings this manager was built from
+     * 
+     * @return The world settings
+     */
+    public WorldSettings getWorldSettings() {
+        return worldSettings;
+    }
+
+    /**
+     * Gets the options all sessions count votes for
+     * 
+     * @return The option registry
+     */
+    public VoteOptionRegistry getOptions() {
+        return options;
+    }
+}
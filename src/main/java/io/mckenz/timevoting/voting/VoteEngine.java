@@ -0,0 +1,259 @@
+package io.mckenz.timevoting.voting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Owns the vote sessions and accepts votes from any thread.
+ * <p>
+ * A vote is counted the moment it is cast: the tallies are updated with atomic operations and
+ * need no locks, so bridges and web panels can vote straight from their own threads. What has
+ * to stay on the main thread (the journal, cluster messages, the threshold check and the time
+ * change it may trigger) is done right away for votes cast on the main thread. For votes from
+ * other threads it is queued and handled in one batch on the next tick.
+ */
+public final class VoteEngine {
+    private static final int MAX_ROUND_RESULTS = 20;
+
+    private final Host host;
+    private final ConcurrentLinkedQueue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile SessionManager sessions;
+    private volatile List<RoundResult> roundResults = List.of();
+
+    /**
+     * The plugin side of the engine
+     */
+    public interface Host {
+        /**
+         * Checks whether the calling thread is the server's main thread
+         * 
+         * @return true on the main thread
+         */
+        boolean isPrimaryThread();
+
+        /**
+         * Runs a task on the main thread on the next tick
+         * 
+         * @param task The task
+         */
+        void runOnMainThread(Runnable task);
+
+        /**
+         * Called on the main thread after a player's vote changed
+         * 
+         * @param session The session the vote is in
+         * @param playerId The player
+         * @param previous The previous ballot, or null if the player had not voted
+         * @param ballot The new ballot, or null if the vote was removed
+         */
+        void voteChanged(VoteSession session, UUID playerId, Ballot previous, Ballot ballot);
+
+        /**
+         * Called on the main thread when a session's votes changed and its threshold may have
+         * been reached
+         * 
+         * @param session The session
+         */
+        void checkThreshold(VoteSession session);
+    }
+
+    /**
+     * A vote change made off the main thread, waiting for its main-thread work
+     */
+    private record Change(VoteSession session, UUID playerId, Ballot previous, Ballot ballot) {
+    }
+
+    /**
+     * Creates a new vote engine without sessions
+     * 
+     * @param host The plugin side of the engine
+     */
+    public VoteEngine(Host host) {
+        this.host = host;
+    }
+
+    /**
+     * Gets the current sessions
+     * 
+     * @return The session manager, or null before the config is loaded
+     */
+    public SessionManager getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Replaces all sessions, e.g. after a reload. Queued changes for the old sessions are
+     * dropped when they are handled.
+     * 
+     * @param sessions The new session manager
+     */
+    public void setSessions(SessionManager sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * Casts or changes a player's vote. Can be called from any thread.
+     * 
+     * @param session The session to vote in
+     * @param playerId The voting player
+     * @param option The option being voted for
+     * @param weight How many votes the player's vote counts as
+     * @return The player's previous vote, or null if they had not voted. If this is the
+     *         same option that was passed in, nothing changed.
+     */
+    public VoteOption cast(VoteSession session, UUID playerId, VoteOption option, int weight) {
+        // The tally stores this very ballot, so it is the only one allocated for the vote
+        Ballot ballot = new Ballot(option, weight);
+        Ballot previous = session.getTally().cast(playerId, ballot);
+        if (previous != null && previous.option() == option) {
+            return option;
+        }
+        
+        if (host.isPrimaryThread()) {
+            host.voteChanged(session, playerId, previous, ballot);
+            host.checkThreshold(session);
+        } else {
+            enqueue(new Change(session, playerId, previous, ballot));
+        }
+        return previous != null ? previous.option() : null;
+    }
+
+    /**
+     * Removes a player's vote. Can be called from any thread. On the main thread the caller
+     * is expected to check the threshold itself, since removals usually come with a change
+     * in the number of voters.
+     * 
+     * @param session The session the vote is in
+     * @param playerId The player
+     * @return The removed vote, or null if the player had not voted
+     */
+    public VoteOption remove(VoteSession session, UUID playerId) {
+        Ballot previous = session.getTally().remove(playerId);
+        if (previous == null) {
+            return null;
+        }
+        
+        if (host.isPrimaryThread()) {
+            host.voteChanged(session, playerId, previous, null);
+        } else {
+            enqueue(new Change(session, playerId, previous, null));
+        }
+        return previous.option();
+    }
+
+    /**
+     * Changes the weight of a player's vote, keeping the option. Must be called on the main
+     * thread; the caller checks the threshold, since the eligible weight usually changes too.
+     * 
+     * @param session The session the vote is in
+     * @param playerId The player
+     * @param weight The new weight
+     * @return true if the player had voted and the weight of their vote changed
+     */
+    public boolean reweigh(VoteSession session, UUID playerId, int weight) {
+        // Players are reweighed on every join and world change; most of them have not voted
+        Ballot current = session.getTally().getVotes().get(playerId);
+        if (current == null || current.weight() == weight) {
+            return false;
+        }
+        
+        Ballot ballot = new Ballot(current.option(), weight);
+        Ballot previous = session.getTally().reweigh(playerId, ballot);
+        if (previous == null || previous.option() != ballot.option() || previous.weight() == weight) {
+            return false;
+        }
+        
+        host.voteChanged(session, playerId, previous, ballot);
+        return true;
+    }
+
+    /**
+     * Removes a player's vote because it expired. Must be called on the main thread. A vote
+     * that was changed since the ballot was taken is kept.
+     * 
+     * @param session The session the vote is in
+     * @param playerId The player
+     * @param ballot The ballot that expired
+     * @return true if the ballot was still the player's vote and was removed
+     */
+    public boolean expire(VoteSession session, UUID playerId, Ballot ballot) {
+        if (!session.getTally().remove(playerId, ballot)) {
+            return false;
+        }
+        
+        host.voteChanged(session, playerId, ballot, null);
+        return true;
+    }
+
+    /**
+     * Stores the outcome of a scheduled round, keeping only the most recent ones. Must be
+     * called on the main thread.
+     * 
+     * @param result The round result
+     */
+    public void recordRoundResult(RoundResult result) {
+        List<RoundResult> results = new ArrayList<>(roundResults);
+        if (results.size() == MAX_ROUND_RESULTS) {
+            results.remove(0);
+        }
+        results.add(result);
+        roundResults = List.copyOf(results);
+    }
+
+    /**
+     * Gets the outcomes of the most recent scheduled rounds. Safe to call from any thread.
+     * 
+     * @return The round results, oldest first
+     */
+    public List<RoundResult> getRoundResults() {
+        return roundResults;
+    }
+
+    /**
+     * Gets the number of changes from other threads still waiting for the main thread
+     * 
+     * @return The number of queued changes
+     */
+    public int getPendingChanges() {
+        return pending.size();
+    }
+
+    /**
+     * Handles all queued changes now. Must be called on the main thread.
+     */
+    public void drain() {
+        // Clear the flag first: a change queued after this point schedules a new drain
+        drainScheduled.set(false);
+        
+        SessionManager current = sessions;
+        List<VoteSession> touched = new ArrayList<>();
+        Change change;
+        while ((change = pending.poll()) != null) {
+            VoteSession session = change.session();
+            if (current == null || current.getSession(session.getName()) != session) {
+                continue;
+            }
+            
+            host.voteChanged(session, change.playerId(), change.previous(), change.ballot());
+            if (!touched.contains(session)) {
+                touched.add(session);
+            }
+        }
+        
+        // One threshold check per session covers the whole batch
+        for (VoteSession session : touched) {
+            host.checkThreshold(session);
+        }
+    }
+
+    private void enqueue(Change change) {
+        pending.add(change);
+        if (drainScheduled.compareAndSet(false, true)) {
+            host.runOnMainThread(this::drain);
+        }
+    }
+}
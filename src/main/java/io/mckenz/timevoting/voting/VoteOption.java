@@ -0,0 +1,55 @@
+package io.mckenz.timevoting.voting;
+
+/**
+ * A single time option players can vote for, as defined under {@code time.*} in config.yml
+ */
+public final class VoteOption {
+    private final int id;
+    private final String name;
+    private final long ticks;
+
+    /**
+     * Creates a new vote option
+     * 
+     * @param id The dense index of this option inside its registry
+     * @param name The lower-case option name used in commands and messages
+     * @param ticks The world time in ticks this option sets
+     */
+    VoteOption(int id, String name, long ticks) {
+        this.id = id;
+        this.name = name;
+        this.ticks = ticks;
+    }
+
+    /**
+     * Gets the dense index of this option, usable as an array index into tallies
+     * 
+     * @return The option id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the option name
+     * 
+     * @return The lower-case option name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the world time this option sets
+     * 
+     * @return The time in ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,138 @@
+package io.mckenz.timevoting.voting;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of all vote options, built once from the {@code time} section of the config.
+ * Every option gets a dense id so tallies can be kept in a plain int array.
+ */
+public final class VoteOptionRegistry {
+    /**
+     * Keys under {@code time} that are settings rather than vote options
+     */
+    private static final Set<String> RESERVED_KEYS = Set.of("duration");
+
+    private final VoteOption[] options;
+    private final Map<String, VoteOption> byName;
+    private final List<String> names;
+    private final String displayList;
+
+    private VoteOptionRegistry(List<VoteOption> options) {
+        this.options = options.toArray(new VoteOption[0]);
+        this.byName = new HashMap<>();
+        List<String> nameList = new ArrayList<>(options.size());
+        
+        for (VoteOption option : options) {
+            byName.put(option.getName(), option);
+            nameList.add(option.getName());
+        }
+        
+        this.names = Collections.unmodifiableList(nameList);
+        this.displayList = String.join(", ", nameList);
+    }
+
+    /**
+     * Builds a registry from the {@code time} section of the config. Every numeric
+     * key that is not a reserved setting becomes a vote option, in file order.
+     * 
+     * @param section The {@code time} configuration section, may be null
+     * @return The registry
+     */
+    public static VoteOptionRegistry fromConfig(ConfigurationSection section) {
+        List<VoteOption> options = new ArrayList<>();
+        
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                String name = key.toLowerCase(Locale.ROOT);
+                if (RESERVED_KEYS.contains(name) || !(section.isInt(key) || section.isLong(key))) {
+                    continue;
+                }
+                options.add(new VoteOption(options.size(), name, section.getLong(key)));
+            }
+        }
+        
+        return new VoteOptionRegistry(options);
+    }
+
+    /**
+     * Looks up an option by name
+     * 
+     * @param name The option name, case-insensitive
+     * @return The option, or null if no option has that name
+     */
+    public VoteOption get(String name) {
+        VoteOption option = byName.get(name);
+        
+        if (option == null) {
+            option = byName.get(name.toLowerCase(Locale.ROOT));
+        }
+        
+        return option;
+    }
+
+    /**
+     * Gets an option by its dense id
+     * 
+     * @param id The option id
+     * @return The option
+     */
+    public VoteOption get(int id) {
+        return options[id];
+    }
+
+    /**
+     * Gets the number of options
+     * 
+     * @return The option count
+     */
+    public int size() {
+        return options.length;
+    }
+
+    /**
+     * Gets all option names in id order
+     * 
+     * @return An unmodifiable list of option names
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Gets the option names joined for display, e.g. "day, night, sunrise, sunset"
+     * 
+     * @return The joined option names
+     */
+    public String getDisplayList() {
+        return displayList;
+    }
+
+    /**
+     * Checks whether another registry defines exactly the same options in the same order
+     * 
+     * @param other The other registry
+     * @return true if both registries have identical options
+     */
+    public boolean sameOptionsAs(VoteOptionRegistry other) {
+        if (other == null || other.options.length != options.length) {
+            return false;
+        }
+        
+        for (int i = 0; i < options.length; i++) {
+            if (!options[i].getName().equals(other.options[i].getName())
+                    || options[i].getTicks() != other.options[i].getTicks()) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+}
@@ -0,0 +1,11 @@
+package io.mckenz.timevoting.voting;
+
+/**
+ * A scheduled vote round that is currently open in a session
+ * 
+ * @param name The round name from the config
+ * @param openedAt When the round opened, in milliseconds since the epoch
+ * @param closesAt When the round closes, in milliseconds since the epoch
+ */
+public record VoteRound(String name, long openedAt, long closesAt) {
+}
@@ -0,0 +1,199 @@
+package io.mckenz.timevoting.voting;
+
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vote state for one world or world group: its own tally, quorum, cooldown and rounds
+ */
+public final class VoteSession {
+    private final String name;
+    private volatile List<World> worlds = List.of();
+    private final AtomicLong version = new AtomicLong();
+    private final VoteTally tally;
+    private final QuorumTracker quorum = new QuorumTracker(version);
+    private volatile VoteSnapshot snapshot;
+    private volatile long lastTimeChange;
+    private volatile boolean timeChanged;
+    private volatile boolean closedBetweenRounds;
+    private volatile VoteRound round;
+
+    /**
+     * Creates a new session without any worlds
+     * 
+     * @param name The session name, either a world name or a world group name
+     * @param options The options that can be voted for
+     */
+    VoteSession(String name, VoteOptionRegistry options) {
+        this.name = name;
+        this.tally = new VoteTally(options, version);
+        this.snapshot = VoteSnapshot.of(0, tally, quorum);
+    }
+
+    /**
+     * Gets the session name
+     * 
+     * @return The world or world group name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the loaded worlds whose time this session controls. Safe to call from any thread.
+     * 
+     * @return An immutable copy of the worlds, which does not change when worlds are loaded
+     *         or unloaded later
+     */
+    public List<World> getWorlds() {
+        return worlds;
+    }
+
+    void addWorld(World world) {
+        // Worlds change rarely; a fresh copy each time lets other threads read without locking
+        if (!worlds.contains(world)) {
+            List<World> updated = new ArrayList<>(worlds);
+            updated.add(world);
+            worlds = List.copyOf(updated);
+        }
+    }
+
+    boolean removeWorld(World world) {
+        if (!worlds.contains(world)) {
+            return false;
+        }
+        
+        List<World> updated = new ArrayList<>(worlds);
+        updated.remove(world);
+        worlds = List.copyOf(updated);
+        return true;
+    }
+
+    /**
+     * Gets the vote tally
+     * 
+     * @return The tally
+     */
+    public VoteTally getTally() {
+        return tally;
+    }
+
+    /**
+     * Gets the quorum tracker counting eligible voters in this session's worlds
+     * 
+     * @return The quorum tracker
+     */
+    public QuorumTracker getQuorum() {
+        return quorum;
+    }
+
+    /**
+     * Gets the version of the session's votes and voters, which goes up on every change
+     * 
+     * @return The current version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gets an immutable copy of the votes and voters. A snapshot is only copied when something
+     * changed since the last one, so polling this between votes is free. Safe to call from any
+     * thread.
+     * 
+     * @return The snapshot of the current version
+     */
+    public VoteSnapshot getSnapshot() {
+        // Read the version first: the copy then holds at least every change up to it
+        long current = version.get();
+        VoteSnapshot latest = snapshot;
+        if (latest.getVersion() != current) {
+            latest = VoteSnapshot.of(current, tally, quorum);
+            snapshot = latest;
+        }
+        return latest;
+    }
+
+    /**
+     * Gets the time until another time change is allowed
+     * 
+     * @param cooldownNanos The configured cooldown between changes
+     * @param now The current {@link System#nanoTime()}
+     * @return The remaining cooldown in nanoseconds, or 0 if none
+     */
+    public long getChangeCooldownNanos(long cooldownNanos, long now) {
+        if (!timeChanged) {
+            return 0;
+        }
+        
+        return Math.max(0, cooldownNanos - (now - lastTimeChange));
+    }
+
+    /**
+     * Records that the time was just changed, starting the cooldown
+     * 
+     * @param now The current {@link System#nanoTime()}
+     */
+    public void markTimeChanged(long now) {
+        lastTimeChange = now;
+        timeChanged = true;
+    }
+
+    /**
+     * Checks whether the time has been changed since this session was created
+     * 
+     * @return true if {@link #getLastTimeChange()} is set
+     */
+    public boolean hasTimeChanged() {
+        return timeChanged;
+    }
+
+    /**
+     * Gets when the time was last changed
+     * 
+     * @return The {@link System#nanoTime()} of the last change, only meaningful if
+     *         {@link #hasTimeChanged()} is true
+     */
+    public long getLastTimeChange() {
+        return lastTimeChange;
+    }
+
+    /**
+     * Sets whether this session only accepts votes while a scheduled round is open
+     * 
+     * @param closedBetweenRounds true if votes outside rounds are refused
+     */
+    public void setClosedBetweenRounds(boolean closedBetweenRounds) {
+        this.closedBetweenRounds = closedBetweenRounds;
+    }
+
+    /**
+     * Checks whether votes are accepted right now. Safe to call from any thread.
+     * 
+     * @return true unless the session is closed between rounds and no round is open
+     */
+    public boolean isVotingOpen() {
+        return round != null || !closedBetweenRounds;
+    }
+
+    /**
+     * Gets the scheduled round that is open in this session
+     * 
+     * @return The open round, or null if none is
+     */
+    public VoteRound getRound() {
+        return round;
+    }
+
+    /**
+     * Opens or closes a scheduled round
+     * 
+     * @param round The round that opened, or null when it closed
+     */
+    public void setRound(VoteRound round) {
+        this.round = round;
+    }
+}
@@ -0,0 +1,124 @@
+package io.mckenz.timevoting.voting;
+
+import io.mckenz.timevoting.config.Settings;
+
+/**
+ * Immutable copy of a session's vote counts and eligible voters at one version. Sessions hand
+ * out the same snapshot until their votes or voters change, so the version identifies the
+ * content and anything rendered from a snapshot can be cached by it.
+ */
+public final class VoteSnapshot {
+    private final long version;
+    private final VoteOptionRegistry options;
+    private final int[] counts;
+    private final VoteOption leader;
+    private final int totalVotes;
+    private final int eligibleVoters;
+    private final int eligibleWeight;
+
+    private VoteSnapshot(long version, VoteOptionRegistry options, int[] counts, VoteOption leader, int totalVotes,
+                         int eligibleVoters, int eligibleWeight) {
+        this.version = version;
+        this.options = options;
+        this.counts = counts;
+        this.leader = leader;
+        this.totalVotes = totalVotes;
+        this.eligibleVoters = eligibleVoters;
+        this.eligibleWeight = eligibleWeight;
+    }
+
+    /**
+     * Copies the current state of a tally and quorum
+     * 
+     * @param version The version the copy is taken at
+     * @param tally The tally
+     * @param quorum The quorum tracker
+     * @return The snapshot
+     */
+    static VoteSnapshot of(long version, VoteTally tally, QuorumTracker quorum) {
+        VoteOptionRegistry options = tally.getOptions();
+        int[] counts = new int[options.size()];
+        int total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = tally.getCount(options.get(i));
+            total += counts[i];
+        }
+        
+        return new VoteSnapshot(version, options, counts, tally.getLeader(), total, quorum.getEligibleVoters(),
+                quorum.getEligibleWeight());
+    }
+
+    /**
+     * Gets the session version this snapshot was taken at
+     * 
+     * @return The version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the options the counts are for
+     * 
+     * @return The option registry
+     */
+    public VoteOptionRegistry getOptions() {
+        return options;
+    }
+
+    /**
+     * Gets the number of votes for an option
+     * 
+     * @param option The option
+     * @return The number of votes
+     */
+    public int getCount(VoteOption option) {
+        return counts[option.getId()];
+    }
+
+    /**
+     * Gets the option with the most votes, breaking ties the same way as the tally
+     * 
+     * @return The leading option, or null if nobody had voted
+     */
+    public VoteOption getLeader() {
+        return leader;
+    }
+
+    /**
+     * Gets the total number of votes
+     * 
+     * @return The sum of all option counts, weighted
+     */
+    public int getTotalVotes() {
+        return totalVotes;
+    }
+
+    /**
+     * Gets the number of eligible voters
+     * 
+     * @return The eligible voter count
+     */
+    public int getEligibleVoters() {
+        return eligibleVoters;
+    }
+
+    /**
+     * Gets the summed vote weight of the eligible voters
+     * 
+     * @return The eligible weight
+     */
+    public int getEligibleWeight() {
+        return eligibleWeight;
+    }
+
+    /**
+     * Gets the number of votes needed to change the time with these voters
+     * 
+     * @param settings The current settings
+     * @return The required number of votes
+     */
+    public int getRequiredVotes(Settings settings) {
+        return settings.requiredVotes(eligibleWeight);
+    }
+}
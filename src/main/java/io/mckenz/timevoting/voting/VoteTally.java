@@ -0,0 +1,253 @@
+package io.mckenz.timevoting.voting;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Vote counts for a fixed set of options, indexed by option id.
+ * <p>
+ * Safe to use from any thread without locking. Each player's ballot is swapped atomically, and
+ * every swap moves exactly that ballot's weight from the old option to the new one, so the
+ * counts always settle on the ballots in the map even when the same player votes from two
+ * threads at once. While such swaps are in flight a count can briefly be off by one ballot.
+ * With the default weight of 1 a count is simply the number of players.
+ */
+public final class VoteTally {
+    private final VoteOptionRegistry options;
+    private final AtomicIntegerArray counts;
+    private final AtomicLongArray reachedAt;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong version;
+    private final Map<UUID, Ballot> playerVotes = new ConcurrentHashMap<>();
+    private final Map<UUID, Ballot> playerVotesView = Collections.unmodifiableMap(playerVotes);
+
+    /**
+     * Creates an empty tally for the given options
+     * 
+     * @param options The option registry this tally counts votes for
+     */
+    public VoteTally(VoteOptionRegistry options) {
+        this(options, new AtomicLong());
+    }
+
+    /**
+     * Creates an empty tally that bumps a shared version on every change
+     * 
+     * @param options The option registry this tally counts votes for
+     * @param version The version counter of the owning session
+     */
+    VoteTally(VoteOptionRegistry options, AtomicLong version) {
+        this.options = options;
+        this.counts = new AtomicIntegerArray(options.size());
+        this.reachedAt = new AtomicLongArray(options.size());
+        this.version = version;
+    }
+
+    /**
+     * Casts or changes a player's vote with a weight of 1
+     * 
+     * @param playerId The voting player
+     * @param option The option being voted for
+     * @return The player's previous vote, or null if they had not voted. If this is the
+     *         same option that was passed in, nothing changed.
+     */
+    public VoteOption cast(UUID playerId, VoteOption option) {
+        Ballot previous = cast(playerId, new Ballot(option, 1));
+        return previous != null ? previous.option() : null;
+    }
+
+    /**
+     * Casts or changes a player's vote. Voting for the option the player already voted for
+     * changes nothing, not even the weight; use {@link #reweigh(UUID, Ballot)} for that.
+     * 
+     * @param playerId The voting player
+     * @param ballot The ballot to store, which is kept as is so callers can pass it on
+     * @return The player's previous ballot, or null if they had not voted. If its option is
+     *         the one that was passed in, nothing changed.
+     */
+    public Ballot cast(UUID playerId, Ballot ballot) {
+        VoteOption option = ballot.option();
+        Ballot previous;
+        do {
+            previous = playerVotes.get(playerId);
+            if (previous != null && previous.option() == option) {
+                return previous;
+            }
+        } while (previous == null ? playerVotes.putIfAbsent(playerId, ballot) != null
+                : !playerVotes.replace(playerId, previous, ballot));
+        
+        // Count the new vote before dropping the old one so the total never dips
+        add(option.getId(), ballot.weight());
+        if (previous != null) {
+            counts.addAndGet(previous.option().getId(), -previous.weight());
+        }
+        version.incrementAndGet();
+        
+        return previous;
+    }
+
+    /**
+     * Changes the weight of a player's vote, keeping the option. Nothing changes if the player
+     * has since voted for another option.
+     * 
+     * @param playerId The player
+     * @param ballot The ballot with the new weight, stored as is
+     * @return The ballot before the change, or null if the player has not voted. If its option
+     *         differs or its weight is the same, nothing changed.
+     */
+    public Ballot reweigh(UUID playerId, Ballot ballot) {
+        Ballot previous;
+        do {
+            previous = playerVotes.get(playerId);
+            if (previous == null || previous.option() != ballot.option() || previous.weight() == ballot.weight()) {
+                return previous;
+            }
+        } while (!playerVotes.replace(playerId, previous, ballot));
+        
+        // Moving within one option keeps its place in a tie
+        counts.addAndGet(previous.option().getId(), ballot.weight() - previous.weight());
+        version.incrementAndGet();
+        
+        return previous;
+    }
+
+    /**
+     * Removes a player's vote
+     * 
+     * @param playerId The player
+     * @return The removed ballot, or null if the player had not voted
+     */
+    public Ballot remove(UUID playerId) {
+        Ballot previous = playerVotes.remove(playerId);
+        
+        if (previous != null) {
+            counts.addAndGet(previous.option().getId(), -previous.weight());
+            version.incrementAndGet();
+        }
+        
+        return previous;
+    }
+
+    /**
+     * Removes a player's vote, but only if it is still the given ballot
+     * 
+     * @param playerId The player
+     * @param ballot The ballot expected in the tally
+     * @return true if the ballot was removed
+     */
+    public boolean remove(UUID playerId, Ballot ballot) {
+        if (playerVotes.get(playerId) != ballot || !playerVotes.remove(playerId, ballot)) {
+            return false;
+        }
+        
+        counts.addAndGet(ballot.option().getId(), -ballot.weight());
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Gets the number of votes for an option
+     * 
+     * @param option The option
+     * @return The summed weight of the votes
+     */
+    public int getCount(VoteOption option) {
+        return Math.max(0, counts.get(option.getId()));
+    }
+
+    /**
+     * Gets the option with the most votes. On a tie the option that reached the count first wins.
+     * 
+     * @return The leading option, or null if nobody has voted
+     */
+    public VoteOption getLeader() {
+        int leader = findLeader();
+        return leader >= 0 ? options.get(leader) : null;
+    }
+
+    /**
+     * Gets the number of votes for the leading option
+     * 
+     * @return The leading vote count, or 0 if nobody has voted
+     */
+    public int getLeaderCount() {
+        int leader = findLeader();
+        return leader >= 0 ? Math.max(0, counts.get(leader)) : 0;
+    }
+
+    /**
+     * Gets the total number of votes cast
+     * 
+     * @return The number of players who have voted
+     */
+    public int getTotalVotes() {
+        return playerVotes.size();
+    }
+
+    /**
+     * Gets the vote of a player
+     * 
+     * @param playerId The player
+     * @return The option voted for, or null if the player has not voted
+     */
+    public VoteOption getVote(UUID playerId) {
+        Ballot ballot = playerVotes.get(playerId);
+        return ballot != null ? ballot.option() : null;
+    }
+
+    /**
+     * Gets every player's vote
+     * 
+     * @return An unmodifiable, live view of the ballots by player
+     */
+    public Map<UUID, Ballot> getVotes() {
+        return playerVotesView;
+    }
+
+    /**
+     * Gets the registry this tally counts votes for
+     * 
+     * @return The option registry
+     */
+    public VoteOptionRegistry getOptions() {
+        return options;
+    }
+
+    /**
+     * Removes all votes. Votes cast on other threads while this runs may survive; they count
+     * as cast after the clear.
+     */
+    public void clear() {
+        // Remove one vote at a time so the counts stay paired with the map
+        for (UUID playerId : playerVotes.keySet()) {
+            remove(playerId);
+        }
+    }
+
+    private void add(int id, int weight) {
+        // A vote that weighs nothing must not push its option back in a tie
+        if (weight > 0) {
+            counts.addAndGet(id, weight);
+            reachedAt.set(id, clock.incrementAndGet());
+        }
+    }
+
+    private int findLeader() {
+        // The option set is small, so a scan is cheaper than keeping a shared leader up to date
+        int best = -1;
+        int bestCount = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            int count = counts.get(i);
+            if (count > bestCount || (count > 0 && count == bestCount && reachedAt.get(i) < reachedAt.get(best))) {
+                best = i;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,91 @@
+package io.mckenz.timevoting.voting;
+
+import io.mckenz.timevoting.config.WeightSettings;
+
+import org.bukkit.permissions.Permissible;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The vote weight of every online player, resolved from their permissions once when they join
+ * so votes and quorum changes never ask the permission plugin.
+ * <p>
+ * Bukkit has no event for permission changes, so a weight is only resolved again when the player
+ * changes worlds, on reload, or when another plugin asks for it through the API. Only players
+ * whose weight differs from the default are stored, and with no ranks configured nothing is.
+ */
+public final class VoteWeights {
+    private final Map<UUID, Integer> weights = new ConcurrentHashMap<>();
+    private volatile WeightSettings settings = new WeightSettings(1, List.of());
+
+    /**
+     * Switches to new weight settings, forgetting every resolved weight
+     * 
+     * @param settings The weight settings
+     */
+    public void setSettings(WeightSettings settings) {
+        this.settings = settings;
+        weights.clear();
+    }
+
+    /**
+     * Resolves a player's weight from their permissions and remembers it. The first configured
+     * rank the player explicitly has decides; operators do not get every rank implicitly.
+     * Must be called on the main thread.
+     * 
+     * @param playerId The player
+     * @param permissible The player's permissions
+     * @return The player's weight
+     */
+    public int resolve(UUID playerId, Permissible permissible) {
+        WeightSettings current = settings;
+        int weight = current.defaultWeight();
+        for (WeightSettings.Rank rank : current.ranks()) {
+            if (permissible.isPermissionSet(rank.permission()) && permissible.hasPermission(rank.permission())) {
+                weight = rank.weight();
+                break;
+            }
+        }
+        
+        if (weight != current.defaultWeight()) {
+            weights.put(playerId, weight);
+        } else {
+            weights.remove(playerId);
+        }
+        return weight;
+    }
+
+    /**
+     * Gets a player's weight. Safe to call from any thread.
+     * 
+     * @param playerId The player
+     * @return The resolved weight, or the default weight if none was resolved
+     */
+    public int get(UUID playerId) {
+        Integer weight = weights.get(playerId);
+        return weight != null ? weight : settings.defaultWeight();
+    }
+
+    /**
+     * Forgets a player's weight, e.g. when they leave
+     * 
+     * @param playerId The player
+     * @return The weight the player had
+     */
+    public int remove(UUID playerId) {
+        Integer weight = weights.remove(playerId);
+        return weight != null ? weight : settings.defaultWeight();
+    }
+
+    /**
+     * Gets the number of players whose weight differs from the default
+     * 
+     * @return The number of stored weights
+     */
+    public int size() {
+        return weights.size();
+    }
+}